@@ -1,10 +1,17 @@
 package com.ureca.billing.admin.controller;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -15,6 +22,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Tag(name = "Admin - 배치 관리", description = "배치 작업 실행 API (batch-module 프록시)")
 @RestController
@@ -22,6 +31,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class BatchController {
 
+    // batch-module 실행 접수 API 응답 대기 시간 (Job 완료까지 기다리지 않음)
+    private static final Duration SUBMIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient batchWebClient;
 
     public BatchController(@Qualifier("batchWebClient") WebClient batchWebClient) {
@@ -29,58 +44,102 @@ public class BatchController {
     }
 
     @Operation(summary = "월별 요금 정산 배치 실행", 
-               description = "batch-module의 배치 작업을 프록시하여 실행")
+               description = "batch-module의 배치 작업을 프록시하여 실행 (접수 즉시 jobExecutionId 반환)")
     @PostMapping("/monthly-billing")
-    public ResponseEntity<Map<String, Object>> runMonthlyBilling(
+    public Mono<ResponseEntity<Map<String, Object>>> runMonthlyBilling(
             @Parameter(description = "정산 대상 월 (형식: yyyy-MM, 예: 2025-01)")
-            @RequestParam("billingMonth") String billingMonth) {
-        
-        try {
-            // batch-module API 호출
-            Map<String, Object> result = batchWebClient.post()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/api/batch/monthly-billing")
-                            .queryParam("billingMonth", billingMonth)
-                            .build())
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), 
-                        response -> {
-                            log.error("❌ batch-module API 에러 응답. status={}, billingMonth={}", 
-                                response.statusCode(), billingMonth);
-                            return response.bodyToMono(String.class)
-                                .map(body -> new RuntimeException(
-                                    String.format("batch-module API 에러 (status: %s, body: %s)", 
-                                        response.statusCode(), body)));
-                        })
-                    .bodyToMono(Map.class)
-                    .block();
-            
-            log.info("✅ 배치 작업 실행 완료. billingMonth={}, result={}", billingMonth, result);
-            
-            // batch-module 응답 구조: {jobExecutionId, status, message}
-            // 프론트엔드가 기대하는 구조로 변환
-            if (result != null) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("jobExecutionId", result.get("jobExecutionId"));
-                response.put("status", result.get("status") != null ? result.get("status") : "UNKNOWN");
-                response.put("message", result.get("message") != null ? result.get("message") : "배치 작업이 시작되었습니다.");
-                return ResponseEntity.ok(response);
-            } else {
-                Map<String, Object> response = new HashMap<>();
-                response.put("jobExecutionId", null);
-                response.put("status", "UNKNOWN");
-                response.put("message", "배치 작업이 시작되었습니다.");
-                return ResponseEntity.ok(response);
-            }
-            
-        } catch (Exception e) {
-            log.error("❌ 배치 작업 실행 실패. billingMonth={}, error={}", billingMonth, e.getMessage(), e);
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("jobExecutionId", null);
-            errorResponse.put("status", "FAILED");
-            String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
-            errorResponse.put("message", "배치 실행 실패: " + (errorMessage != null ? errorMessage : "알 수 없는 오류"));
-            return ResponseEntity.internalServerError().body(errorResponse);
-        }
+            @RequestParam("billingMonth") String billingMonth,
+            @Parameter(description = "청구서와 알림 Outbox를 같은 청크 트랜잭션에서 생성")
+            @RequestParam(value = "fusedOutbox", defaultValue = "false") boolean fusedOutbox,
+            @Parameter(description = "BILL_DETAILS / OUTBOX_EVENTS 적재 방식 (BATCH | BULK_LOAD)")
+            @RequestParam(value = "writeMode", defaultValue = "BATCH") String writeMode,
+            @Parameter(description = "소액결제를 건별 상세 라인으로 청구 (기본: 결제유형별 합계)")
+            @RequestParam(value = "itemizedMicroPayments", defaultValue = "false") boolean itemizedMicroPayments,
+            @Parameter(description = "변경된 사용자만 재계산하고 나머지는 전월 정기 항목 이월")
+            @RequestParam(value = "deltaMode", defaultValue = "false") boolean deltaMode,
+            @Parameter(description = "증분 청구 결과를 전체 재계산과 비교 (불일치 시 Job FAILED)")
+            @RequestParam(value = "verifyDelta", defaultValue = "false") boolean verifyDelta,
+            @Parameter(description = "청구 기준일 (1 ~ 28, 선택). 지정하면 해당 기준일 사용자만 청구")
+            @RequestParam(value = "cycleDay", required = false) String cycleDay,
+            @Parameter(description = "완료된 월을 처음부터 다시 실행")
+            @RequestParam(value = "forceNew", defaultValue = "false") boolean forceNew) {
+
+        // batch-module은 Job을 비동기로 접수만 하고 바로 응답 → 스레드를 block 하지 않고 그대로 중계
+        return batchWebClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/batch/monthly-billing")
+                        .queryParam("billingMonth", billingMonth)
+                        .queryParam("fusedOutbox", fusedOutbox)
+                        .queryParam("writeMode", writeMode)
+                        .queryParam("itemizedMicroPayments", itemizedMicroPayments)
+                        .queryParam("deltaMode", deltaMode)
+                        .queryParam("verifyDelta", verifyDelta)
+                        .queryParamIfPresent("cycleDay", Optional.ofNullable(cycleDay))
+                        .queryParam("forceNew", forceNew)
+                        .build())
+                .exchangeToMono(response -> response.bodyToMono(Map.class)
+                        .defaultIfEmpty(Map.of())
+                        .map(result -> {
+                            if (response.statusCode().isError()) {
+                                log.error("❌ batch-module API 에러 응답. status={}, billingMonth={}, body={}",
+                                        response.statusCode(), billingMonth, result);
+                            } else {
+                                log.info("✅ 배치 작업 접수 완료. billingMonth={}, result={}", billingMonth, result);
+                            }
+                            return ResponseEntity.status(response.statusCode()).body(toResponse(result));
+                        }))
+                .timeout(SUBMIT_TIMEOUT)
+                .onErrorResume(e -> {
+                    log.error("❌ 배치 작업 실행 실패. billingMonth={}, error={}", billingMonth, e.getMessage(), e);
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("jobExecutionId", null);
+                    errorResponse.put("status", "FAILED");
+                    String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    errorResponse.put("message", "배치 실행 실패: " + (errorMessage != null ? errorMessage : "알 수 없는 오류"));
+                    return Mono.just(ResponseEntity.internalServerError().body(errorResponse));
+                });
+    }
+
+    @Operation(summary = "배치 실행 상태 조회",
+               description = "jobExecutionId로 Job / Step 상태와 처리 건수 조회")
+    @GetMapping("/jobs/{jobExecutionId}")
+    public Mono<ResponseEntity<Map<String, Object>>> getJobStatus(
+            @PathVariable("jobExecutionId") Long jobExecutionId) {
+        return batchWebClient.get()
+                .uri("/api/batch/jobs/{jobExecutionId}", jobExecutionId)
+                .exchangeToMono(response -> response.bodyToMono(Map.class)
+                        .defaultIfEmpty(Map.of())
+                        .map(body -> ResponseEntity.status(response.statusCode())
+                                .body(toMap(body))));
+    }
+
+    @Operation(summary = "배치 진행 상황 스트리밍 (SSE)",
+               description = "batch-module의 진행 상황 SSE 스트림을 그대로 중계 (Step 전환, 청크별 건수/처리량/ETA)")
+    @GetMapping(value = "/jobs/{jobExecutionId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamJobProgress(
+            @PathVariable("jobExecutionId") Long jobExecutionId) {
+        return batchWebClient.get()
+                .uri("/api/batch/jobs/{jobExecutionId}/progress", jobExecutionId)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .doOnError(e -> log.warn("⚠️ 배치 진행 상황 스트림 중계 실패. jobExecutionId={}, error={}",
+                        jobExecutionId, e.getMessage()));
+    }
+
+    // batch-module 응답 구조: {jobExecutionId, status, message}
+    // 프론트엔드가 기대하는 구조로 변환
+    private Map<String, Object> toResponse(Map<?, ?> result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobExecutionId", result.get("jobExecutionId"));
+        response.put("status", result.get("status") != null ? result.get("status") : "UNKNOWN");
+        response.put("message", result.get("message") != null ? result.get("message") : "배치 작업이 시작되었습니다.");
+        return response;
+    }
+
+    private Map<String, Object> toMap(Map<?, ?> body) {
+        Map<String, Object> map = new HashMap<>();
+        body.forEach((k, v) -> map.put(String.valueOf(k), v));
+        return map;
     }
 }
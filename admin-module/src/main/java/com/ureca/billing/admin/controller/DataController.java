@@ -189,11 +189,7 @@ public class DataController {
         // 최근 청구서 목록 조회 (최근 5건)
         String billSql = """
             SELECT b.bill_id, b.billing_month, b.settlement_date, b.bill_issue_date, b.created_at,
-                   COALESCE((
-                       SELECT SUM(bd.amount) 
-                       FROM BILL_DETAILS bd 
-                       WHERE bd.bill_id = b.bill_id
-                   ), 0) as total_amount
+                   b.total_amount
             FROM BILLS b
             WHERE b.user_id = ?
             ORDER BY b.created_at DESC
@@ -231,16 +227,12 @@ public class DataController {
             ? jdbcTemplate.queryForObject(countSql, Integer.class, billingMonth)
             : jdbcTemplate.queryForObject(countSql, Integer.class);
         
-        // 청구서 목록 조회 (최적화: 서브쿼리로 total_amount 계산)
+        // 청구서 목록 조회 (total_amount는 청구서 생성 시 BILLS에 기록된 값 사용)
         String sql = """
             SELECT b.bill_id, b.user_id, b.billing_month,
                    b.settlement_date, b.bill_issue_date,
                    u.name as user_name,
-                   COALESCE((
-                       SELECT SUM(bd.amount) 
-                       FROM BILL_DETAILS bd 
-                       WHERE bd.bill_id = b.bill_id
-                   ), 0) as total_amount
+                   b.total_amount
             FROM BILLS b
             LEFT JOIN USERS u ON b.user_id = u.user_id
             """ + (billingMonth != null ? " WHERE b.billing_month = ? " : "") + """
@@ -269,6 +261,8 @@ public class DataController {
         String billSql = """
             SELECT b.bill_id, b.user_id, b.billing_month,
                    b.settlement_date, b.bill_issue_date, b.created_at,
+                   b.total_amount, b.base_fee_amount, b.addon_fee_amount, b.micro_payment_amount,
+                   b.device_fee_amount, b.arrears_amount,
                    u.name as user_name, u.email_cipher, u.phone_cipher
             FROM BILLS b
             LEFT JOIN USERS u ON b.user_id = u.user_id
@@ -310,10 +304,11 @@ public class DataController {
                 CASE WHEN bd.charge_category = 'DEVICE_FEE' THEN di.device_name ELSE NULL END as device_name,
                 CASE WHEN bd.charge_category = 'DEVICE_FEE' THEN di.monthly_fee ELSE NULL END as device_monthly_fee,
                 CASE WHEN bd.charge_category = 'DEVICE_FEE' THEN di.remaining_months ELSE NULL END as device_remaining_months,
-                -- MICRO_PAYMENT 관련 정보
-                CASE WHEN bd.charge_category = 'MICRO_PAYMENT' THEN mp.merchant_name ELSE NULL END as merchant_name,
-                CASE WHEN bd.charge_category = 'MICRO_PAYMENT' THEN mp.payment_type ELSE NULL END as payment_type,
-                CASE WHEN bd.charge_category = 'MICRO_PAYMENT' THEN mp.payment_date ELSE NULL END as payment_date,
+                -- MICRO_PAYMENT 관련 정보 (건별 라인: 결제 1건 / 결제유형별 합계 라인: 유형 + 달력 월 건수)
+                mp.merchant_name as merchant_name,
+                COALESCE(mp.payment_type, mpm.payment_type) as payment_type,
+                mp.payment_date as payment_date,
+                mpm.payment_count as payment_count,
                 -- BASE_FEE 관련 정보
                 CASE WHEN bd.charge_category = 'BASE_FEE' THEN p.plan_name ELSE NULL END as plan_name,
                 CASE WHEN bd.charge_category = 'BASE_FEE' THEN p.plan_category ELSE NULL END as plan_category,
@@ -328,17 +323,23 @@ public class DataController {
             LEFT JOIN DEVICE_INSTALLMENTS di ON bd.charge_category = 'DEVICE_FEE' 
                 AND bd.related_user_id = di.user_id 
                 AND di.status = 'ONGOING'
-            LEFT JOIN MICRO_PAYMENTS mp ON bd.charge_category = 'MICRO_PAYMENT' 
+            LEFT JOIN MICRO_PAYMENTS mp ON bd.detail_type = 'MICRO_PAYMENT'
                 AND bd.related_user_id = mp.user_id 
                 AND DATE_FORMAT(mp.payment_date, '%Y-%m') = ?
                 AND mp.amount = bd.amount
+            LEFT JOIN MICRO_PAYMENT_MONTHLY mpm ON bd.charge_category = 'MICRO_PAYMENT'
+                AND bd.detail_type <> 'MICRO_PAYMENT'
+                AND mpm.user_id = bd.related_user_id
+                AND mpm.billing_month = bd.billing_month
+                AND mpm.payment_type = SUBSTRING(bd.detail_type, CHAR_LENGTH('MICRO_PAYMENT_') + 1)
             LEFT JOIN USER_PLANS up ON bd.charge_category = 'BASE_FEE' 
                 AND bd.related_user_id = up.user_id 
                 AND ? >= DATE_FORMAT(up.start_date, '%Y-%m')
                 AND (up.end_date IS NULL OR ? <= DATE_FORMAT(up.end_date, '%Y-%m'))
                 AND up.status = 'ACTIVE'
             LEFT JOIN PLANS p ON up.plan_id = p.plan_id
-            WHERE bd.bill_id = ?
+            WHERE bd.billing_month = ?
+              AND bd.bill_id = ?
             ORDER BY bd.detail_id
             """;
         
@@ -347,16 +348,10 @@ public class DataController {
             billingMonth, billingMonth,  // ADDON_FEE용
             billingMonth,  // MICRO_PAYMENT용
             billingMonth, billingMonth,  // BASE_FEE용
-            billId
+            billingMonth, billId  // 청구월 파티션만 조회
         );
         bill.put("details", details);
         
-        // 총액 계산
-        Integer totalAmount = details.stream()
-            .mapToInt(d -> ((Number) d.get("amount")).intValue())
-            .sum();
-        bill.put("total_amount", totalAmount);
-        
         // 알림 발송 이력
         String notificationSql = """
             SELECT notification_id, notification_type, notification_status,
@@ -6,7 +6,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
 @SpringBootApplication(scanBasePackages = {
-    "com.ureca.billing.batch", "com.ureca.billing.core.security"
+    "com.ureca.billing.batch", "com.ureca.billing.core.security",
+    "com.ureca.billing.core.catalog"
 })
 public class BatchModuleApplication {
 
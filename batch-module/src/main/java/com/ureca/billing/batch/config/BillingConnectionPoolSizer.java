@@ -0,0 +1,66 @@
+package com.ureca.billing.batch.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 청구 배치 동시 실행량에 맞춰 Hikari 커넥션 풀 크기 보정
+ *
+ * [필요 커넥션]
+ * - 청구 Reader 1개 = 스트리밍 커서 7개(USERS/PLAN/ADDON/MICRO_PAYMENT/BILLS/INSTALLMENT/ARREARS) + Writer 1개
+ * - 동시에 도는 Reader 수
+ *   · API Job 실행 스레드(launcher.pool-size) × 파티션 수(LOCAL 파티션이면 grid-size, 아니면 1)
+ *   · 원격 파티션 워커 노드면 + worker.concurrency
+ * - 여유분: JobRepository 갱신, Outbox 릴레이, 조회 API, 스케줄러 실행 Job
+ *
+ * [동작]
+ * - spring.datasource.hikari.maximum-pool-size가 위 합계보다 작으면 풀 생성 전에 합계로 올린다.
+ *   (설정값이 더 크면 그대로 사용, 올린 경우 WARN 로그 → DB max_connections와 함께 확인)
+ */
+@Slf4j
+@Component
+public class BillingConnectionPoolSizer implements BeanPostProcessor {
+
+    static final int CONNECTIONS_PER_READER = 8;
+    static final int RESERVED_CONNECTIONS = 16;
+
+    private final Environment environment;
+
+    public BillingConnectionPoolSizer(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof HikariDataSource dataSource) {
+            int required = requiredPoolSize();
+            if (dataSource.getMaximumPoolSize() < required) {
+                log.warn("[POOL] maximum-pool-size {} -> {} (concurrent billing readers x {} + {})",
+                        dataSource.getMaximumPoolSize(), required, CONNECTIONS_PER_READER, RESERVED_CONNECTIONS);
+                dataSource.setMaximumPoolSize(required);
+            }
+        }
+        return bean;
+    }
+
+    int requiredPoolSize() {
+        int launcherPoolSize = environment.getProperty("app.batch.launcher.pool-size", Integer.class, 2);
+        boolean partitionEnabled = environment.getProperty("app.batch.billing.partition.enabled", Boolean.class, false);
+        String partitionMode = environment.getProperty("app.batch.billing.partition.mode", "LOCAL");
+        int gridSize = environment.getProperty("app.batch.billing.partition.grid-size", Integer.class, 4);
+        boolean workerEnabled = environment.getProperty("app.batch.billing.partition.worker.enabled", Boolean.class, false);
+        int workerConcurrency = environment.getProperty("app.batch.billing.partition.worker.concurrency", Integer.class, 1);
+
+        // REMOTE 모드 manager는 파티션을 워커 노드로 보내므로 Job당 1개로 계산
+        int readersPerJob = partitionEnabled && "LOCAL".equalsIgnoreCase(partitionMode) ? Math.max(1, gridSize) : 1;
+        int readers = Math.max(1, launcherPoolSize) * readersPerJob + (workerEnabled ? Math.max(1, workerConcurrency) : 0);
+
+        return readers * CONNECTIONS_PER_READER + RESERVED_CONNECTIONS;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ureca.billing.batch.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,4 +22,23 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
+
+    // 원격 파티션 요청: 워커 노드 수만큼 동시에 소비할 수 있도록 파티션 여유 있게
+    @Bean
+    public NewTopic billingPartitionRequestTopic(
+            @Value("${app.kafka.topics.billing-partition-request:billing-partition-request}") String name) {
+        return TopicBuilder.name(name)
+                .partitions(16)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic billingPartitionReplyTopic(
+            @Value("${app.kafka.topics.billing-partition-reply:billing-partition-reply}") String name) {
+        return TopicBuilder.name(name)
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
 }
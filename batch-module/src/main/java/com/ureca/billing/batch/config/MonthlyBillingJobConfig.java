@@ -1,18 +1,41 @@
 package com.ureca.billing.batch.config;
 
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.kafka.KafkaPartitionHandler;
+import com.ureca.billing.batch.service.BatchProgressPublisher;
+import com.ureca.billing.batch.util.AdaptiveChunkSizePolicy;
+import com.ureca.billing.batch.util.BillingCloseListener;
+import com.ureca.billing.batch.util.BillingCycle;
+import com.ureca.billing.batch.util.BillingPartitionListener;
+import com.ureca.billing.batch.util.DeltaCarryForwardTasklet;
+import com.ureca.billing.batch.util.DeltaVerificationWriter;
 import com.ureca.billing.batch.util.MonthlyBillingWriter;
 import com.ureca.billing.batch.util.MonthlyOutboxWriter;
+import com.ureca.billing.batch.util.ProductCatalogHolder;
+import com.ureca.billing.batch.util.UserIdRangePartitioner;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import lombok.RequiredArgsConstructor;
@@ -26,49 +49,245 @@ public class MonthlyBillingJobConfig {
 
     private final MonthlyBillingWriter monthlyBillingWriter;         // Step 1용
     private final MonthlyOutboxWriter monthlyOutboxWriter; // Step 2용
+    private final UserIdRangePartitioner userIdRangePartitioner; // Step 1 파티션 모드용
+    private final ProductCatalogHolder productCatalogHolder; // Job 단위 PLANS/ADDONS 스냅샷
+    private final BatchProgressPublisher batchProgressPublisher; // 진행 상황 SSE
+    private final DeltaCarryForwardTasklet deltaCarryForwardTasklet; // 증분 청구 준비 + 이월
+    private final BillingCloseListener billingCloseListener; // 월 마감 기록 (다음 달 증분 기준)
+    private final BillingPartitionListener billingPartitionListener; // 청구월 테이블 파티션 준비
+    private final ObjectProvider<KafkaPartitionHandler> kafkaPartitionHandler; // REMOTE 모드에서만 등록됨
+
+    // true면 Step 1을 user_id 구간 파티션으로 나눠 멀티스레드로 실행
+    @Value("${app.batch.billing.partition.enabled:false}")
+    private boolean partitionEnabled;
+
+    // 파티션 개수 (= 워커 스레드 수)
+    @Value("${app.batch.billing.partition.grid-size:4}")
+    private int gridSize;
+
+    // LOCAL: 같은 프로세스의 스레드로 파티션 실행 / REMOTE: Kafka로 워커 노드에 파티션 분배
+    @Value("${app.batch.billing.partition.mode:LOCAL}")
+    private String partitionMode;
+
+    // 청크 크기: adaptive=true면 처리량 / 쓰기 ~ 커밋 지연을 보고 [min-size, max-size] 안에서 자동 조절
+    // 기본은 고정 크기(initial-size). 부하 테스트로 범위를 정한 환경에서만 켠다.
+    @Value("${app.batch.chunk.adaptive:false}")
+    private boolean adaptiveChunk;
+
+    @Value("${app.batch.chunk.initial-size:10000}")
+    private int chunkInitialSize;
+
+    @Value("${app.batch.chunk.min-size:1000}")
+    private int chunkMinSize;
+
+    @Value("${app.batch.chunk.max-size:50000}")
+    private int chunkMaxSize;
+
+    // 쓰기 ~ 커밋이 이 시간을 넘으면 락 경합 / flush 지연으로 보고 크기를 줄임
+    @Value("${app.batch.chunk.max-write-ms:10000}")
+    private long chunkMaxWriteMs;
+
+    // Step 실행(파티션 포함)마다 별도 인스턴스. 결정 이력은 Step ExecutionContext(adaptiveChunk.*)에 기록
+    @Bean
+    @StepScope
+    public AdaptiveChunkSizePolicy adaptiveChunkSizePolicy(
+            @Value("#{stepExecution.stepName}") String stepName
+    ) {
+        return adaptiveChunk
+                ? new AdaptiveChunkSizePolicy(stepName, chunkInitialSize, chunkMinSize, chunkMaxSize, chunkMaxWriteMs)
+                : new AdaptiveChunkSizePolicy(stepName, chunkInitialSize, chunkInitialSize, chunkInitialSize, 0);
+    }
+
+    // 증분 청구 준비 + 변경 없는 사용자 이월 (deltaMode가 아니면 바로 종료)
+    @Bean
+    public Step deltaCarryForwardStep() {
+        return new StepBuilder("deltaCarryForwardStep", jobRepository)
+                .tasklet(deltaCarryForwardTasklet, transactionManager)
+                .listener((StepExecutionListener) batchProgressPublisher)
+                .build();
+    }
 
     //Step
     @Bean
     public Step monthlyBillingStep(
-    		@Qualifier("billingUserReader") ItemReader<Long> monthItemReader
+    		@Qualifier("billingRecordReader") ItemStreamReader<BillingRecord> billingRecordReader,
+    		AdaptiveChunkSizePolicy adaptiveChunkSizePolicy
     ){
         return new StepBuilder("monthlyBillingStep", jobRepository)
-                .<Long, Long>chunk(10000, transactionManager)
-                .reader(monthItemReader)
+                .<BillingRecord, BillingRecord>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(billingRecordReader)
+                .writer(monthlyBillingWriter)
+                .listener((StepExecutionListener) adaptiveChunkSizePolicy)
+                .listener((ChunkListener) adaptiveChunkSizePolicy)
+                .listener((ItemWriteListener<Object>) adaptiveChunkSizePolicy)
+                .listener((StepExecutionListener) batchProgressPublisher)
+                .listener((ChunkListener) batchProgressPublisher)
+                .build();
+    }
+
+    // 파티션 워커 Step: 자기 user_id 구간만 읽어서 청구서 생성
+    @Bean
+    public Step monthlyBillingWorkerStep(
+            @Qualifier("billingRecordReader") ItemStreamReader<BillingRecord> billingRecordReader,
+            AdaptiveChunkSizePolicy adaptiveChunkSizePolicy
+    ) {
+        return new StepBuilder("monthlyBillingWorkerStep", jobRepository)
+                .<BillingRecord, BillingRecord>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(billingRecordReader)
                 .writer(monthlyBillingWriter)
+                .listener((StepExecutionListener) adaptiveChunkSizePolicy)
+                .listener((ChunkListener) adaptiveChunkSizePolicy)
+                .listener((ItemWriteListener<Object>) adaptiveChunkSizePolicy)
+                .listener((StepExecutionListener) batchProgressPublisher)
+                .listener((ChunkListener) batchProgressPublisher)
+                // 원격 워커 노드에서 적재한 카탈로그 해제 (워커 JVM에는 afterJob이 없음)
+                .listener((StepExecutionListener) productCatalogHolder)
                 .build();
     }
 
+    // 파티션 매니저 Step: user_id 구간을 나눠 워커 Step을 병렬 실행
+    // - REMOTE 모드면 KafkaPartitionHandler가 파티션을 워커 노드로 보내고 결과를 집계 (실패 파티션 재배정)
+    @Bean
+    public Step monthlyBillingPartitionStep(
+            @Qualifier("monthlyBillingWorkerStep") Step monthlyBillingWorkerStep,
+            @Qualifier("billingPartitionTaskExecutor") TaskExecutor billingPartitionTaskExecutor
+    ) {
+        PartitionStepBuilder builder = new StepBuilder("monthlyBillingPartitionStep", jobRepository)
+                .partitioner("monthlyBillingWorkerStep", userIdRangePartitioner)
+                .step(monthlyBillingWorkerStep)
+                .gridSize(gridSize);
+
+        if ("REMOTE".equalsIgnoreCase(partitionMode)) {
+            KafkaPartitionHandler handler = kafkaPartitionHandler.getIfAvailable();
+            if (handler == null) {
+                throw new IllegalStateException("REMOTE partition mode requires KafkaPartitionHandler");
+            }
+            builder.partitionHandler(handler);
+        } else {
+            builder.taskExecutor(billingPartitionTaskExecutor);
+        }
+
+        return builder
+                .listener((StepExecutionListener) batchProgressPublisher)
+                .build();
+    }
+
+    @Bean
+    public TaskExecutor billingPartitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(gridSize);
+        executor.setMaxPoolSize(gridSize);
+        executor.setThreadNamePrefix("billing-partition-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public Step monthlyOutboxStep(
-            @Qualifier("billItemReader") ItemReader<Long> billItemReader
+            @Qualifier("billItemReader") ItemReader<Long> billItemReader,
+            AdaptiveChunkSizePolicy adaptiveChunkSizePolicy
     ) {
         return new StepBuilder("monthlyOutboxStep", jobRepository)
-                .<Long, Long>chunk(10000, transactionManager)
+                .<Long, Long>chunk(adaptiveChunkSizePolicy, transactionManager)
                 .reader(billItemReader)
                 .writer(monthlyOutboxWriter) // ✅ 새 Writer 사용 (createOutboxEvents 호출)
+                .listener((StepExecutionListener) adaptiveChunkSizePolicy)
+                .listener((ChunkListener) adaptiveChunkSizePolicy)
+                .listener((ItemWriteListener<Object>) adaptiveChunkSizePolicy)
+                .listener((StepExecutionListener) batchProgressPublisher)
+                .listener((ChunkListener) batchProgressPublisher)
+                .build();
+    }
+
+    // 증분 청구 검증: 전체 재계산 결과와 저장된 청구서 금액 비교 (DB 쓰기 없음)
+    @Bean
+    public Step deltaVerificationStep(
+            @Qualifier("fullRecomputeRecordReader") ItemStreamReader<BillingRecord> fullRecomputeRecordReader,
+            DeltaVerificationWriter deltaVerificationWriter
+    ) {
+        return new StepBuilder("deltaVerificationStep", jobRepository)
+                .<BillingRecord, BillingRecord>chunk(chunkInitialSize, transactionManager)
+                .reader(fullRecomputeRecordReader)
+                .writer(deltaVerificationWriter)
+                .listener((StepExecutionListener) deltaVerificationWriter)
                 .build();
     }
 
+    // verifyDelta=true이고 실제로 증분 청구가 적용된 경우에만 검증 Step 실행
+    @Bean
+    public JobExecutionDecider verificationDecider() {
+        return (jobExecution, stepExecution) ->
+                Boolean.parseBoolean(jobExecution.getJobParameters().getString("verifyDelta"))
+                        && Boolean.TRUE.equals(jobExecution.getExecutionContext().get(DeltaCarryForwardTasklet.DELTA_ACTIVE))
+                        ? new FlowExecutionStatus("VERIFY")
+                        : new FlowExecutionStatus("SKIP");
+    }
+
+    // fusedOutbox=true면 Step 1에서 OUTBOX_EVENTS까지 만들었으므로 Step 2를 건너뛴다.
+    // 단, 증분 청구로 이월된 청구서는 Step 1을 거치지 않으므로 Step 2가 필요하다.
+    @Bean
+    public JobExecutionDecider outboxModeDecider() {
+        return (jobExecution, stepExecution) ->
+                Boolean.parseBoolean(jobExecution.getJobParameters().getString("fusedOutbox"))
+                        && !Boolean.TRUE.equals(jobExecution.getExecutionContext().get(DeltaCarryForwardTasklet.DELTA_ACTIVE))
+                        ? new FlowExecutionStatus("FUSED")
+                        : new FlowExecutionStatus("TWO_STEP");
+    }
+
     //Job
     /* 파라미터 예시
      --spring.batch.job.name=monthlyBillingJob
 		billingMonth=2025-08
+		fusedOutbox=true   (선택, 기본 false: 청구서 생성 후 Step 2에서 Outbox 생성)
+		itemizedMicroPayments=true   (선택, 기본 false: 소액결제를 결제유형별 합계 1라인으로 청구)
+		deltaMode=true   (선택, 기본 false: 변경된 사용자만 재계산하고 나머지는 전월 정기 항목 이월)
+		verifyDelta=true   (선택, 기본 false: 청구서 생성 후 전체 재계산 결과와 비교, 불일치 시 Job FAILED)
+		cycleDay=15   (선택, 식별 파라미터: 청구 기준일 cohort만 [M-15, (M+1)-15) 구간으로 청구)
+     - 소액결제 합계 청구(기본)는 첫 Step에서 MICRO_PAYMENT_MONTHLY를 원장과 비교해 다르면 재생성
+     - JobInstance 식별은 billingMonth(+ cycleDay)만 사용 (나머지는 non-identifying 으로 전달)
+       → 실패한 월을 같은 billingMonth로 다시 실행하면 마지막 커밋 user_id 다음부터 재시작
     */
     @Bean
     public Job monthlyBillingJob(
-    		JobRepository jobRepository, 
+    		JobRepository jobRepository,
     		@Qualifier("monthlyBillingStep") Step monthlyBillingStep,
-            @Qualifier("monthlyOutboxStep") Step monthlyOutboxStep
+            @Qualifier("monthlyBillingPartitionStep") Step monthlyBillingPartitionStep,
+            @Qualifier("monthlyOutboxStep") Step monthlyOutboxStep,
+            @Qualifier("deltaCarryForwardStep") Step deltaCarryForwardStep,
+            @Qualifier("deltaVerificationStep") Step deltaVerificationStep,
+            @Qualifier("microPaymentRollupCheckStep") Step microPaymentRollupCheckStep
     ) {
         return new JobBuilder("monthlyBillingJob", jobRepository)
         		.validator(parameters -> {
                     if (!parameters.getParameters().containsKey("billingMonth")) {
                         throw new JobParametersInvalidException("billingMonth 파라미터는 필수입니다 (yyyy-MM)");
                     }
+                    try {
+                        BillingCycle.parse(parameters.getString("cycleDay"));
+                    } catch (IllegalArgumentException e) {
+                        throw new JobParametersInvalidException(e.getMessage());
+                    }
                 })
-                .start(monthlyBillingStep)
-                .next(monthlyOutboxStep)
+                .listener(billingPartitionListener)
+                .listener(productCatalogHolder)
+                .listener(batchProgressPublisher)
+                .listener(billingCloseListener)
+                .start(microPaymentRollupCheckStep)
+                .next(deltaCarryForwardStep)
+                .next(partitionEnabled ? monthlyBillingPartitionStep : monthlyBillingStep)
+                .next(verificationDecider())
+                    .on("VERIFY").to(deltaVerificationStep)
+                .from(verificationDecider())
+                    .on("*").to(outboxModeDecider())
+                .from(deltaVerificationStep)
+                    .on("FAILED").fail()
+                .from(deltaVerificationStep)
+                    .on("*").to(outboxModeDecider())
+                .from(outboxModeDecider())
+                    .on("FUSED").end()
+                .from(outboxModeDecider())
+                    .on("*").to(monthlyOutboxStep)
+                .end()
                 .build();
     }
 }
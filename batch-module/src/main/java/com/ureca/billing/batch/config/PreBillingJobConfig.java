@@ -0,0 +1,149 @@
+package com.ureca.billing.batch.config;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.service.PreBillingService;
+import com.ureca.billing.batch.util.AdaptiveChunkSizePolicy;
+import com.ureca.billing.batch.util.ProductCatalogHolder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사전 청구(pre-billing) Job
+ *
+ * - 월말 며칠 전에 전체 사용자의 임시 청구서를 BILLS_STAGING / BILL_DETAILS_STAGING에 계산
+ * - 완료 시 PRE_BILLING_SNAPSHOTS에 기준 시각 기록
+ * - 월말 monthlyBillingJob(deltaMode=true)은 기준 시각 이후 변경된 사용자만 재계산하고
+ *   나머지는 staging을 승격한다. (DeltaCarryForwardTasklet)
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class PreBillingJobConfig {
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final PreBillingService preBillingService;
+    private final ProductCatalogHolder productCatalogHolder;
+    private final JobExplorer jobExplorer;
+
+    // staging 초기화 시 트랜잭션 1개당 삭제 행 수
+    @Value("${app.batch.billing.pre-billing.clear-batch-size:50000}")
+    private int clearBatchSize;
+
+    // 이전 사전 청구 결과 삭제 (같은 월을 다시 사전 청구하는 경우)
+    @Bean
+    public Step preBillingClearStep() {
+        return new StepBuilder("preBillingClearStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    String billingMonth = (String) chunkContext.getStepContext()
+                            .getJobParameters().get("billingMonth");
+                    int deleted = preBillingService.clearStaging(YearMonth.parse(billingMonth), clearBatchSize);
+                    return deleted > 0 ? RepeatStatus.CONTINUABLE : RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ItemWriter<BillingRecord> preBillingStagingWriter(
+            @Value("#{jobParameters['billingMonth']}") String billingMonth
+    ) {
+        YearMonth month = YearMonth.parse(billingMonth);
+        return chunk -> preBillingService.stage(new ArrayList<>(chunk.getItems()), month);
+    }
+
+    @Bean
+    public Step preBillingStep(
+            @Qualifier("fullRecomputeRecordReader") ItemStreamReader<BillingRecord> fullRecomputeRecordReader,
+            @Qualifier("preBillingStagingWriter") ItemWriter<BillingRecord> preBillingStagingWriter,
+            AdaptiveChunkSizePolicy adaptiveChunkSizePolicy
+    ) {
+        return new StepBuilder("preBillingStep", jobRepository)
+                .<BillingRecord, BillingRecord>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(fullRecomputeRecordReader)
+                .writer(preBillingStagingWriter)
+                .listener((StepExecutionListener) adaptiveChunkSizePolicy)
+                .listener((ChunkListener) adaptiveChunkSizePolicy)
+                .listener((ItemWriteListener<Object>) adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    // 완료 시 기준 시각 기록 (재시작된 경우 최초 실행 시작 시각)
+    @Bean
+    public JobExecutionListener preBillingSnapshotListener() {
+        return new JobExecutionListener() {
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                if (jobExecution.getStatus() != BatchStatus.COMPLETED) return;
+
+                YearMonth billingMonth = YearMonth.parse(jobExecution.getJobParameters().getString("billingMonth"));
+                LocalDateTime sourceAsOf = jobExplorer.getJobExecutions(jobExecution.getJobInstance()).stream()
+                        .map(JobExecution::getStartTime)
+                        .filter(Objects::nonNull)
+                        .min(LocalDateTime::compareTo)
+                        .orElse(jobExecution.getStartTime());
+
+                preBillingService.recordSnapshot(billingMonth, sourceAsOf,
+                        jobExecution.getExecutionContext().getString(ProductCatalogHolder.CATALOG_PRICE_VERSION),
+                        jobExecution.getId());
+                log.info("[PRE-BILLING] {} snapshot recorded (sourceAsOf={})", billingMonth, sourceAsOf);
+            }
+        };
+    }
+
+    //Job
+    /* 파라미터 예시
+     --spring.batch.job.name=preBillingJob
+		billingMonth=2025-08
+		snapshotDate=2025-08-25   (식별 파라미터: 같은 월을 날짜를 바꿔 다시 사전 청구 가능)
+		itemizedMicroPayments=true   (선택, 월말 실행과 같은 값으로)
+    */
+    @Bean
+    public Job preBillingJob(
+            @Qualifier("preBillingClearStep") Step preBillingClearStep,
+            @Qualifier("preBillingStep") Step preBillingStep,
+            @Qualifier("microPaymentRollupCheckStep") Step microPaymentRollupCheckStep
+    ) {
+        return new JobBuilder("preBillingJob", jobRepository)
+                .validator(parameters -> {
+                    if (!parameters.getParameters().containsKey("billingMonth")) {
+                        throw new JobParametersInvalidException("billingMonth 파라미터는 필수입니다 (yyyy-MM)");
+                    }
+                })
+                .listener(productCatalogHolder)
+                .listener(preBillingSnapshotListener())
+                .start(microPaymentRollupCheckStep)
+                .next(preBillingClearStep)
+                .next(preBillingStep)
+                .build();
+    }
+}
@@ -3,17 +3,37 @@ package com.ureca.billing.batch.controller;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ureca.billing.batch.service.BatchJobLauncher;
+import com.ureca.billing.batch.service.BatchProgressPublisher;
+import com.ureca.billing.batch.service.BillingPartitionService;
+import com.ureca.billing.batch.service.BillingWriteMode;
+import com.ureca.billing.batch.service.OutboxCompactionService;
+import com.ureca.billing.batch.util.BillingCycle;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,16 +44,45 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class BatchJobController {
 
-    private final JobLauncher jobLauncher;
+    private final BatchJobLauncher batchJobLauncher;
+    private final JobExplorer jobExplorer;
+    private final BatchProgressPublisher batchProgressPublisher;
+    private final BillingPartitionService billingPartitionService;
+    private final OutboxCompactionService outboxCompactionService;
     private final Job monthlyBillingJob;
+    private final Job microPaymentRollupJob;
+    private final Job preBillingJob;
 
     /**
      * 월별 요금 정산 Job 실행 API
      * @param billingMonth 정산 대상 월 (형식: yyyy-MM, 예: 2025-01)
+     * @param fusedOutbox true면 청구서 생성과 같은 트랜잭션에서 Outbox 이벤트까지 생성
+     * @param writeMode BILL_DETAILS / OUTBOX_EVENTS 적재 방식 (BATCH | BULK_LOAD)
+     * @param itemizedMicroPayments true면 소액결제를 건별 상세 라인으로 청구 (기본: 결제유형별 합계)
+     * @param deltaMode true면 변경된 사용자만 재계산하고 나머지는 전월 정기 항목 이월
+     * @param verifyDelta true면 청구서 생성 후 전체 재계산 결과와 비교 (불일치 시 Job FAILED)
+     * @param cycleDay 청구 기준일 (1 ~ 28, 선택). 지정하면 해당 기준일 사용자만 [M-d, (M+1)-d) 구간으로 청구
+     * @param forceNew true면 완료된 월도 새 JobInstance로 처음부터 다시 실행
+     *
+     * [재시작]
+     * - JobInstance는 billingMonth(+ cycleDay)로만 식별한다. (나머지 파라미터는 non-identifying)
+     * - 같은 월의 이전 실행이 FAILED/STOPPED면 마지막 커밋 지점부터 이어서 실행된다.
+     * - 이미 COMPLETED면 409 응답 (다시 돌리려면 forceNew=true)
+     *
+     * [비동기 실행]
+     * - Job 실행을 접수만 하고 바로 202 응답 (jobExecutionId 반환)
+     * - 진행 상황: GET /api/batch/jobs/{jobExecutionId} 또는 .../progress (SSE)
      */
     @PostMapping("/monthly-billing")
     public ResponseEntity<BatchJobResponse> runMonthlyBillingJob(
-            @RequestParam("billingMonth") String billingMonth) {
+            @RequestParam("billingMonth") String billingMonth,
+            @RequestParam(value = "fusedOutbox", defaultValue = "false") boolean fusedOutbox,
+            @RequestParam(value = "writeMode", defaultValue = "BATCH") String writeMode,
+            @RequestParam(value = "itemizedMicroPayments", defaultValue = "false") boolean itemizedMicroPayments,
+            @RequestParam(value = "deltaMode", defaultValue = "false") boolean deltaMode,
+            @RequestParam(value = "verifyDelta", defaultValue = "false") boolean verifyDelta,
+            @RequestParam(value = "cycleDay", required = false) String cycleDay,
+            @RequestParam(value = "forceNew", defaultValue = "false") boolean forceNew) {
         try {
             YearMonth targetMonth;
             try {
@@ -44,27 +93,271 @@ public class BatchJobController {
                                 "잘못된 월 형식입니다. yyyy-MM 형식으로 입력해주세요. (예: 2025-01)"));
             }
 
+            BillingWriteMode mode;
+            try {
+                mode = BillingWriteMode.from(writeMode);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(new BatchJobResponse(null, "FAILED",
+                                "잘못된 writeMode 입니다. (BATCH | BULK_LOAD)"));
+            }
+
+            Integer cohort;
+            try {
+                cohort = BillingCycle.parse(cycleDay);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(new BatchJobResponse(null, "FAILED", e.getMessage()));
+            }
+
+            JobParametersBuilder builder = new JobParametersBuilder()
+                    .addString("billingMonth", targetMonth.toString())
+                    .addString("fusedOutbox", String.valueOf(fusedOutbox), false)
+                    .addString("writeMode", mode.name(), false)
+                    .addString("itemizedMicroPayments", String.valueOf(itemizedMicroPayments), false)
+                    .addString("deltaMode", String.valueOf(deltaMode), false)
+                    .addString("verifyDelta", String.valueOf(verifyDelta), false);
+            if (cohort != null) {
+                builder.addString("cycleDay", String.valueOf(cohort));
+            }
+            if (forceNew) {
+                builder.addString("runTime", LocalDateTime.now().toString());
+            }
+
+            JobExecution jobExecution;
+            try {
+                jobExecution = batchJobLauncher.launch(monthlyBillingJob, builder.toJobParameters());
+            } catch (JobInstanceAlreadyCompleteException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new BatchJobResponse(null, "COMPLETED",
+                                String.format("%s 월 정산은 이미 완료되었습니다. 다시 실행하려면 forceNew=true", targetMonth)));
+            } catch (JobExecutionAlreadyRunningException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new BatchJobResponse(null, "STARTED",
+                                String.format("%s 월 정산이 이미 실행 중입니다.", targetMonth)));
+            }
+
+            log.info("Monthly Billing Job submitted. JobExecutionId: {}, Status: {}, BillingMonth: {}",
+                    jobExecution.getId(), jobExecution.getStatus(), targetMonth);
+
+            return accepted(jobExecution,
+                    String.format("%s 월 요금 정산 Job이 시작되었습니다.", targetMonth));
+        } catch (Exception e) {
+            log.error("Monthly Billing Job 실행 실패", e);
+            return ResponseEntity.internalServerError()
+                    .body(new BatchJobResponse(null, "FAILED", "Job 실행 실패: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 소액결제 월별 집계(MICRO_PAYMENT_MONTHLY) 재생성 Job 실행 API
+     * - 원장(MICRO_PAYMENTS)을 UPDATE / DELETE로 보정한 월을 다시 집계할 때 사용
+     *   (새 결제 반영은 청구 Job 첫 Step이 watermark 기준으로 자동 처리)
+     * @param billingMonth 재생성 대상 월 (형식: yyyy-MM)
+     */
+    @PostMapping("/micro-payment-rollup")
+    public ResponseEntity<BatchJobResponse> runMicroPaymentRollupJob(
+            @RequestParam("billingMonth") String billingMonth) {
+        try {
+            YearMonth targetMonth;
+            try {
+                targetMonth = YearMonth.parse(billingMonth);
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest()
+                        .body(new BatchJobResponse(null, "FAILED",
+                                "잘못된 월 형식입니다. yyyy-MM 형식으로 입력해주세요. (예: 2025-01)"));
+            }
+
             JobParameters jobParameters = new JobParametersBuilder()
                     .addString("billingMonth", targetMonth.toString())
                     .addString("runTime", LocalDateTime.now().toString())
                     .toJobParameters();
 
-            JobExecution jobExecution = jobLauncher.run(monthlyBillingJob, jobParameters);
+            JobExecution jobExecution = batchJobLauncher.launch(microPaymentRollupJob, jobParameters);
 
-            log.info("Monthly Billing Job started. JobExecutionId: {}, Status: {}, BillingMonth: {}",
+            log.info("MicroPayment Rollup Job submitted. JobExecutionId: {}, Status: {}, BillingMonth: {}",
                     jobExecution.getId(), jobExecution.getStatus(), targetMonth);
 
-            return ResponseEntity.ok(new BatchJobResponse(
-                    jobExecution.getId(),
-                    jobExecution.getStatus().toString(),
-                    String.format("%s 월 요금 정산 Job이 시작되었습니다.", targetMonth)
-            ));
+            return accepted(jobExecution,
+                    String.format("%s 월 소액결제 집계 재생성 Job이 시작되었습니다.", targetMonth));
         } catch (Exception e) {
-            log.error("Monthly Billing Job 실행 실패", e);
+            log.error("MicroPayment Rollup Job 실행 실패", e);
             return ResponseEntity.internalServerError()
                     .body(new BatchJobResponse(null, "FAILED", "Job 실행 실패: " + e.getMessage()));
         }
     }
 
+    /**
+     * 사전 청구(pre-billing) Job 실행 API
+     * - 월말 전에 전체 사용자의 임시 청구서를 staging에 계산해 둔다.
+     * - 월말에 deltaMode=true로 정산하면 이후 변경분만 재계산하고 나머지는 승격
+     * @param billingMonth 대상 월 (형식: yyyy-MM)
+     * @param itemizedMicroPayments 월말 정산과 같은 값으로 지정
+     */
+    @PostMapping("/pre-billing")
+    public ResponseEntity<BatchJobResponse> runPreBillingJob(
+            @RequestParam("billingMonth") String billingMonth,
+            @RequestParam(value = "itemizedMicroPayments", defaultValue = "false") boolean itemizedMicroPayments) {
+        try {
+            YearMonth targetMonth;
+            try {
+                targetMonth = YearMonth.parse(billingMonth);
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest()
+                        .body(new BatchJobResponse(null, "FAILED",
+                                "잘못된 월 형식입니다. yyyy-MM 형식으로 입력해주세요. (예: 2025-01)"));
+            }
+
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addString("billingMonth", targetMonth.toString())
+                    .addString("snapshotDate", LocalDateTime.now().toString())
+                    .addString("itemizedMicroPayments", String.valueOf(itemizedMicroPayments), false)
+                    .toJobParameters();
+
+            JobExecution jobExecution = batchJobLauncher.launch(preBillingJob, jobParameters);
+
+            log.info("Pre-billing Job submitted. JobExecutionId: {}, Status: {}, BillingMonth: {}",
+                    jobExecution.getId(), jobExecution.getStatus(), targetMonth);
+
+            return accepted(jobExecution,
+                    String.format("%s 월 사전 청구 Job이 시작되었습니다.", targetMonth));
+        } catch (Exception e) {
+            log.error("Pre-billing Job 실행 실패", e);
+            return ResponseEntity.internalServerError()
+                    .body(new BatchJobResponse(null, "FAILED", "Job 실행 실패: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 청구월 파티션 분리(보관) API
+     * - BILLS / BILL_DETAILS / OUTBOX_EVENTS의 해당 월 파티션을 EXCHANGE PARTITION으로
+     *   {TABLE}_ARCHIVE_yyyyMM 테이블로 옮기고 파티션을 DROP한다. (행 DELETE 없음)
+     * - 보관 기간(app.batch.billing.table-partition.retention-months) 이내 월은 400
+     * @param billingMonth 분리 대상 월 (형식: yyyy-MM)
+     */
+    @PostMapping("/partitions/archive")
+    public ResponseEntity<BatchJobResponse> archiveBillingPartition(
+            @RequestParam("billingMonth") String billingMonth) {
+        YearMonth targetMonth;
+        try {
+            targetMonth = YearMonth.parse(billingMonth);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(new BatchJobResponse(null, "FAILED",
+                            "잘못된 월 형식입니다. yyyy-MM 형식으로 입력해주세요. (예: 2025-01)"));
+        }
+
+        try {
+            Map<String, Long> archived = billingPartitionService.archive(targetMonth);
+            log.info("Billing partition archived. BillingMonth: {}, rows: {}", targetMonth, archived);
+            return ResponseEntity.ok(new BatchJobResponse(null, "COMPLETED",
+                    String.format("%s 월 파티션 분리 완료: %s", targetMonth, archived)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new BatchJobResponse(null, "FAILED", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Billing partition archive 실패", e);
+            return ResponseEntity.internalServerError()
+                    .body(new BatchJobResponse(null, "FAILED", "파티션 분리 실패: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Outbox 정리 수동 실행 API
+     * - 보존 기간(app.batch.outbox.compaction.retention-days)이 지난 PUBLISHED 이벤트를
+     *   OUTBOX_EVENTS_ARCHIVE로 청크 단위 이동 (스케줄 실행과 동일)
+     * - 이미 실행 중이면 409
+     */
+    @PostMapping("/outbox/compact")
+    public ResponseEntity<BatchJobResponse> compactOutbox() {
+        try {
+            long archived = outboxCompactionService.compact();
+            if (archived < 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new BatchJobResponse(null, "FAILED", "Outbox 정리가 이미 실행 중입니다"));
+            }
+            return ResponseEntity.ok(new BatchJobResponse(null, "COMPLETED",
+                    String.format("Outbox 정리 완료: %d건 보관", archived)));
+        } catch (Exception e) {
+            log.error("Outbox compaction 실패", e);
+            return ResponseEntity.internalServerError()
+                    .body(new BatchJobResponse(null, "FAILED", "Outbox 정리 실패: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Job 실행 상태 조회 API
+     * - Step별 read/write/commit 건수는 청크 커밋마다 JobRepository에 반영된 값
+     */
+    @GetMapping("/jobs/{jobExecutionId}")
+    public ResponseEntity<JobStatusResponse> getJobStatus(@PathVariable("jobExecutionId") Long jobExecutionId) {
+        JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+        if (jobExecution == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<StepStatus> steps = jobExecution.getStepExecutions().stream()
+                .sorted(Comparator.comparing(StepExecution::getId))
+                .map(se -> new StepStatus(
+                        se.getStepName(),
+                        se.getStatus().name(),
+                        se.getReadCount(),
+                        se.getWriteCount(),
+                        se.getCommitCount(),
+                        se.getSkipCount(),
+                        se.getStartTime(),
+                        se.getEndTime()))
+                .toList();
+
+        return ResponseEntity.ok(new JobStatusResponse(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getJobParameters().getString("billingMonth"),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitCode(),
+                jobExecution.getExitStatus().getExitDescription(),
+                jobExecution.getStartTime(),
+                jobExecution.getEndTime(),
+                steps));
+    }
+
+    /**
+     * Job 진행 상황 스트리밍 API (Server-Sent Events)
+     * - 이벤트: SNAPSHOT → STEP_STARTED / CHUNK / STEP_FINISHED ... → JOB_FINISHED
+     * - CHUNK 이벤트에 read/write 건수, 처리량(items/s), ETA 포함
+     * - 이미 끝난 Job은 JOB_FINISHED 1건을 보내고 바로 닫음
+     */
+    @GetMapping(value = "/jobs/{jobExecutionId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobProgress(@PathVariable("jobExecutionId") Long jobExecutionId) {
+        JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+        if (jobExecution == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "JobExecution not found: " + jobExecutionId);
+        }
+        return batchProgressPublisher.subscribe(jobExecution);
+    }
+
+    /**
+     * 접수 결과 응답
+     * - 실행 대기열이 가득 차서 거부된 경우 JobExecution이 바로 FAILED로 반환됨 → 503
+     */
+    private ResponseEntity<BatchJobResponse> accepted(JobExecution jobExecution, String message) {
+        if (jobExecution.getStatus() == BatchStatus.FAILED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new BatchJobResponse(jobExecution.getId(), "FAILED",
+                            "배치 실행 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요."));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new BatchJobResponse(jobExecution.getId(), jobExecution.getStatus().toString(), message));
+    }
+
     public record BatchJobResponse(Long jobExecutionId, String status, String message) {}
+
+    public record JobStatusResponse(Long jobExecutionId, String jobName, String billingMonth,
+                                    String status, String exitCode, String exitDescription,
+                                    LocalDateTime startTime, LocalDateTime endTime,
+                                    List<StepStatus> steps) {}
+
+    public record StepStatus(String stepName, String status,
+                             long readCount, long writeCount, long commitCount, long skipCount,
+                             LocalDateTime startTime, LocalDateTime endTime) {}
 }
@@ -0,0 +1,37 @@
+package com.ureca.billing.batch.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 배치 진행 상황 SSE 이벤트
+ * - GET /api/batch/jobs/{jobExecutionId}/progress 로 스트리밍
+ */
+@Getter
+@Builder
+public class BatchProgressEvent {
+
+    // SNAPSHOT | JOB_STARTED | STEP_STARTED | CHUNK | STEP_FINISHED | JOB_FINISHED
+    private String type;
+
+    private Long jobExecutionId;
+    private String jobStatus;
+
+    // 이벤트가 발생한 Step (SNAPSHOT / JOB_* 이벤트는 null)
+    private String stepName;
+    private String stepStatus;
+    private long readCount;
+    private long writeCount;
+    private long commitCount;
+
+    // 현재 단계(청구서 생성 / Outbox 생성) 전체 기준 (파티션 워커 합산)
+    private String phase;
+    private long phaseWriteCount;
+    private Long estimatedTotal;        // 추정 전체 건수 (모르면 null)
+    private double itemsPerSecond;      // 단계 시작 이후 평균 처리량
+    private Long etaSeconds;            // 남은 예상 시간 (추정 불가 시 null)
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,68 @@
+package com.ureca.billing.batch.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 사용자 1명의 청구 계산에 필요한 데이터 묶음
+ * - BillingRecordItemReader가 USERS / USER_PLANS / USER_ADDONS / MICRO_PAYMENTS /
+ *   DEVICE_INSTALLMENTS / BILL_ARREARS를
+ *   user_id 순으로 merge-join 해서 만든다.
+ */
+@Getter
+@Builder
+public class BillingRecord {
+
+    private Long billId;                // 기존 청구서 bill_id 또는 선할당된 bill_id
+    private boolean existingBill;       // true면 이미 BILLS에 있던 청구서 (재실행 → 상세 교체 대상)
+    private Long userId;
+
+    // 수신자 정보 (암호문 그대로)
+    private String emailCipher;
+    private String phoneCipher;
+    private String name;
+
+    // 요금 정보 (박싱 없이 primitive 배열로 보관)
+    private Long planFee;               // 요금제 없으면 null
+    private long[] addonFees;
+    private long[] microPayments;
+    private String[] microPaymentTypes; // 결제유형별 합계면 microPayments[i]의 payment_type, 건별이면 null
+
+    // 단말 할부 (installmentIds[i]의 월 할부금 = deviceFees[i])
+    private long[] installmentIds;
+    private long[] deviceFees;
+
+    // 미납액 이월 (이번 청구서에 이월하는 BILL_ARREARS 건, arrearsAmount = 합계, 없으면 0)
+    private long[] arrearsIds;
+    private long arrearsAmount;
+
+    /* =========================
+     * 소계 (BILLS.total_amount 등 역정규화 컬럼용)
+     * ========================= */
+    public long getBaseFeeAmount() {
+        return planFee != null ? planFee : 0L;
+    }
+
+    public long getAddonFeeAmount() {
+        return sum(addonFees);
+    }
+
+    public long getMicroPaymentAmount() {
+        return sum(microPayments);
+    }
+
+    public long getDeviceFeeAmount() {
+        return sum(deviceFees);
+    }
+
+    public long getTotalAmount() {
+        return getBaseFeeAmount() + getAddonFeeAmount() + getMicroPaymentAmount()
+                + getDeviceFeeAmount() + arrearsAmount;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0L;
+        for (long v : values) total += v;
+        return total;
+    }
+}
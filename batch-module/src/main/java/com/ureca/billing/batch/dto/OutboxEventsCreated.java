@@ -0,0 +1,9 @@
+package com.ureca.billing.batch.dto;
+
+/**
+ * OUTBOX_EVENTS 적재 알림 (청구 배치 → OutboxMessageRelay, 같은 프로세스)
+ * - 트랜잭션 커밋 후 전달되어 대기 중인 릴레이를 바로 깨운다.
+ *
+ * @param count 이번 청크에서 적재한 이벤트 수
+ */
+public record OutboxEventsCreated(String billingMonth, int count) {}
@@ -0,0 +1,20 @@
+package com.ureca.billing.batch.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 원격 파티션 실행 결과 (worker → manager, Kafka)
+ * - manager는 이 신호로 대기를 깨우고, 실제 상태는 JobRepository에서 다시 읽는다.
+ * - 실행 중에는 HEARTBEAT를 주기적으로 보낸다. (대기를 깨우지 않고 생존 시각만 갱신)
+ *
+ * @param status 워커 실행 후 StepExecution 상태 (COMPLETED / FAILED ...) 또는 HEARTBEAT
+ */
+public record PartitionReply(Long jobExecutionId, Long stepExecutionId, String status, String workerId) {
+
+    public static final String HEARTBEAT = "HEARTBEAT";
+
+    @JsonIgnore
+    public boolean isHeartbeat() {
+        return HEARTBEAT.equals(status);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ureca.billing.batch.dto;
+
+/**
+ * 원격 파티션 실행 요청 (manager → worker, Kafka)
+ *
+ * @param jobExecutionId  파티션이 속한 JobExecution
+ * @param stepExecutionId 워커가 실행할 파티션 StepExecution (JobRepository에 STARTING 상태로 저장됨)
+ * @param workerStep      워커가 실행할 Step 빈 이름 (예: monthlyBillingWorkerStep)
+ * @param attempt         재배정 횟수 (1부터)
+ */
+public record PartitionRequest(Long jobExecutionId, Long stepExecutionId, String workerStep, int attempt) {}
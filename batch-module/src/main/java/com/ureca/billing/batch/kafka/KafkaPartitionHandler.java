@@ -0,0 +1,265 @@
+package com.ureca.billing.batch.kafka;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.batch.dto.PartitionReply;
+import com.ureca.billing.batch.dto.PartitionRequest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kafka 원격 파티션 PartitionHandler (manager 측)
+ *
+ * [흐름]
+ * 1. Partitioner로 user_id 구간을 나눠 파티션 StepExecution을 JobRepository에 저장 (STARTING)
+ * 2. 파티션마다 PartitionRequest를 요청 토픽으로 전송 → 아무 워커 노드나 받아서 실행
+ * 3. 워커의 PartitionReply(응답 토픽) 또는 poll-interval 마다 JobRepository를 다시 읽어 상태 확인
+ * 4. 모든 파티션이 끝나면 최신 StepExecution 목록을 반환 → 매니저 Step이 상태를 집계
+ *
+ * [워커 장애 시 재배정]
+ * - FAILED로 끝난 파티션, 또는 worker-timeout 동안 청크 커밋도 워커 HEARTBEAT도 없는 파티션은
+ *   새 StepExecution을 만들어 다시 요청한다. (최대 max-attempts 회)
+ * - 청크 하나가 오래 걸려도 워커가 살아 있으면 HEARTBEAT가 오므로 재배정하지 않는다.
+ * - 새 StepExecution은 이전 ExecutionContext(구간 + 마지막 커밋 user_id)를 이어받으므로 이어서 처리
+ * - 응답 없는 실행은 FAILED로 표시 → 살아 있던 워커가 뒤늦게 갱신하면 낙관적 락 충돌로 중단됨
+ *   (StepExecution 갱신은 청크 트랜잭션 안에서 일어나므로 그 청크의 쓰기도 롤백 → 이중 처리 없음)
+ *
+ * [전제]
+ * - manager / worker가 같은 DB(JobRepository)를 사용
+ * - worker-timeout-ms는 워커 heartbeat-interval-ms의 몇 배 이상으로 잡는다.
+ *   (HEARTBEAT를 보내지 않는 이전 버전 워커가 섞여 있으면 최대 청크 처리 시간보다 크게)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.batch.billing.partition.mode", havingValue = "REMOTE")
+@RequiredArgsConstructor
+public class KafkaPartitionHandler implements PartitionHandler {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.kafka.topics.billing-partition-request}")
+    private String requestTopic;
+
+    @Value("${app.batch.billing.partition.grid-size:4}")
+    private int gridSize;
+
+    // 응답이 없을 때 JobRepository를 다시 확인하는 주기
+    @Value("${app.batch.billing.partition.remote.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    // 이 시간 동안 StepExecution 갱신(청크 커밋)과 워커 HEARTBEAT가 모두 없으면 워커 장애로 판단
+    @Value("${app.batch.billing.partition.remote.worker-timeout-ms:600000}")
+    private long workerTimeoutMs;
+
+    // 파티션당 최대 실행 횟수 (최초 실행 포함)
+    @Value("${app.batch.billing.partition.remote.max-attempts:3}")
+    private int maxAttempts;
+
+    // 응답 대기 (stepExecutionId → 응답 신호)
+    private final Map<Long, CompletableFuture<String>> replies = new ConcurrentHashMap<>();
+
+    // 마지막 HEARTBEAT 수신 시각 (stepExecutionId → 시각)
+    private final Map<Long, LocalDateTime> heartbeats = new ConcurrentHashMap<>();
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter,
+                                            StepExecution managerStepExecution) throws Exception {
+        JobExecution jobExecution = managerStepExecution.getJobExecution();
+        String workerStep = stepSplitter.getStepName();
+
+        // 파티션 이름(monthlyBillingWorkerStep:partitionN) → 현재 StepExecution
+        Map<String, StepExecution> current = new HashMap<>();
+        Map<String, Integer> attempts = new HashMap<>();
+
+        for (StepExecution partition : stepSplitter.split(managerStepExecution, gridSize)) {
+            current.put(partition.getStepName(), partition);
+            attempts.put(partition.getStepName(), 1);
+            dispatch(partition, workerStep, 1);
+        }
+
+        Set<String> pending = new HashSet<>(current.keySet());
+
+        while (!pending.isEmpty()) {
+            awaitReplies(pending, current);
+
+            for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                String name = it.next();
+                StepExecution latest = jobExplorer.getStepExecution(
+                        jobExecution.getId(), current.get(name).getId());
+                current.put(name, latest);
+
+                BatchStatus status = latest.getStatus();
+                if (status == BatchStatus.COMPLETED) {
+                    forget(latest.getId());
+                    it.remove();
+                    continue;
+                }
+
+                boolean running = status == BatchStatus.STARTING || status == BatchStatus.STARTED;
+                boolean stale = running && isStale(latest);
+                if (running && !stale) {
+                    resetIfAnswered(latest.getId());
+                    continue;
+                }
+
+                // FAILED / STOPPED / ABANDONED 또는 응답 없는 워커
+                forget(latest.getId());
+                if (stale) {
+                    markFailed(latest, "worker timeout (" + workerTimeoutMs + "ms)");
+                }
+
+                int attempt = attempts.get(name);
+                if (attempt >= maxAttempts) {
+                    log.error("[PARTITION] {} failed after {} attempts", name, attempt);
+                    it.remove();
+                    continue;
+                }
+
+                StepExecution retry = newAttempt(jobExecution, latest);
+                current.put(name, retry);
+                attempts.put(name, attempt + 1);
+                log.warn("[PARTITION] re-dispatch {} (attempt {}), previous stepExecutionId={}, status={}",
+                        name, attempt + 1, latest.getId(), stale ? "STALE" : status);
+                dispatch(retry, workerStep, attempt + 1);
+            }
+        }
+
+        return current.values();
+    }
+
+    /* =========================
+     * 워커 응답 (manager 인스턴스마다 별도 group → 모든 응답 수신)
+     * ========================= */
+    @KafkaListener(
+            topics = "${app.kafka.topics.billing-partition-reply}",
+            groupId = "billing-partition-manager-#{T(java.util.UUID).randomUUID().toString()}",
+            properties = "auto.offset.reset=latest")
+    public void onReply(String message) {
+        try {
+            PartitionReply reply = objectMapper.readValue(message, PartitionReply.class);
+            if (reply.isHeartbeat()) {
+                // 이 manager가 기다리는 실행만 기록 (대기는 깨우지 않음)
+                if (replies.containsKey(reply.stepExecutionId())) {
+                    heartbeats.put(reply.stepExecutionId(), LocalDateTime.now());
+                }
+                return;
+            }
+            CompletableFuture<String> future = replies.get(reply.stepExecutionId());
+            if (future != null) {
+                future.complete(reply.status());
+            }
+            log.info("[PARTITION] reply stepExecutionId={}, status={}, worker={}",
+                    reply.stepExecutionId(), reply.status(), reply.workerId());
+        } catch (Exception e) {
+            log.warn("[PARTITION] invalid reply message: {}", message, e);
+        }
+    }
+
+    /* =========================
+     * 내부 util
+     * ========================= */
+    private void dispatch(StepExecution partition, String workerStep, int attempt) throws Exception {
+        replies.put(partition.getId(), new CompletableFuture<>());
+        PartitionRequest request = new PartitionRequest(
+                partition.getJobExecutionId(), partition.getId(), workerStep, attempt);
+
+        kafkaTemplate.send(requestTopic, String.valueOf(partition.getId()),
+                objectMapper.writeValueAsString(request)).get();
+    }
+
+    /**
+     * 대기 중인 파티션 중 하나라도 응답이 오거나 poll-interval이 지나면 반환
+     */
+    private void awaitReplies(Set<String> pending, Map<String, StepExecution> current)
+            throws InterruptedException {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (String name : pending) {
+            CompletableFuture<String> future = replies.get(current.get(name).getId());
+            if (future == null || future.isDone()) return;
+            futures.add(future);
+        }
+        try {
+            CompletableFuture.anyOf(futures.toArray(CompletableFuture[]::new))
+                    .get(pollIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // poll-interval 경과 → JobRepository 확인
+        }
+    }
+
+    // 응답은 왔는데 아직 실행 중으로 보이면(중복 요청에 대한 응답 등) 다시 대기
+    private void resetIfAnswered(Long stepExecutionId) {
+        CompletableFuture<String> future = replies.get(stepExecutionId);
+        if (future == null || future.isDone()) {
+            replies.put(stepExecutionId, new CompletableFuture<>());
+        }
+    }
+
+    // 마지막 청크 커밋과 마지막 HEARTBEAT 중 늦은 시각 기준
+    private boolean isStale(StepExecution stepExecution) {
+        LocalDateTime last = stepExecution.getLastUpdated() != null
+                ? stepExecution.getLastUpdated()
+                : stepExecution.getCreateTime();
+        LocalDateTime heartbeat = heartbeats.get(stepExecution.getId());
+        if (heartbeat != null && (last == null || heartbeat.isAfter(last))) {
+            last = heartbeat;
+        }
+        return last != null
+                && Duration.between(last, LocalDateTime.now()).toMillis() > workerTimeoutMs;
+    }
+
+    private void forget(Long stepExecutionId) {
+        replies.remove(stepExecutionId);
+        heartbeats.remove(stepExecutionId);
+    }
+
+    private void markFailed(StepExecution stepExecution, String reason) {
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(reason));
+        stepExecution.setEndTime(LocalDateTime.now());
+        jobRepository.update(stepExecution);
+    }
+
+    /**
+     * 같은 파티션 이름으로 새 StepExecution 생성 (이전 ExecutionContext 승계 → 마지막 커밋 지점부터 재개)
+     */
+    private StepExecution newAttempt(JobExecution jobExecution, StepExecution previous) {
+        StepExecution retry = jobExecution.createStepExecution(previous.getStepName());
+        retry.setExecutionContext(new ExecutionContext(previous.getExecutionContext()));
+        jobRepository.add(retry);
+        return retry;
+    }
+}
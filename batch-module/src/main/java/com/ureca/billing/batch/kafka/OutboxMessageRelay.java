@@ -1,73 +1,645 @@
 package com.ureca.billing.batch.kafka;
 
+import com.ureca.billing.batch.dto.OutboxEventsCreated;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.errors.TransactionAbortedException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * OUTBOX_EVENTS → Kafka 릴레이 (다중 인스턴스 선점 방식)
+ *
+ * [선점(claim)]
+ * - 짧은 트랜잭션에서 READY 이벤트를 SELECT ... FOR UPDATE SKIP LOCKED로 잠그고
+ *   status = IN_PROGRESS, claim_token / locked_by / locked_at을 기록한 뒤 바로 커밋한다.
+ *   → 다른 인스턴스는 잠긴 행을 기다리지 않고 건너뛰므로 N개 인스턴스가 서로 다른 배치를 동시에 처리
+ * - Kafka 전송은 트랜잭션 밖에서 수행 (DB 락을 전송 시간 동안 잡지 않음)
+ *
+ * [완료] 이벤트별로 판정 (한 건 실패가 배치 전체 재전송으로 번지지 않음)
+ * - 전송 성공 → PUBLISHED (배치 단위 일괄 UPDATE)
+ * - 전송 실패 → attempt_count + 1, last_error 기록, next_retry_at = NOW() + 지수 백오프
+ *   (retry-base-seconds × 2^(시도 횟수 - 1), retry-max-seconds 상한)
+ * - max-attempts번 실패한 이벤트(poison) → FAILED로 격리, 더 이상 선점하지 않음
+ * - 완료/반환 UPDATE는 claim_token이 일치하는 행만 변경
+ *   → 선점 기한이 지나 다른 인스턴스가 다시 가져간 이벤트를 덮어쓰지 않음
+ *
+ * [메시지 키] key-strategy
+ * - USER(기본): user_id → 한 사용자의 이벤트가 같은 파티션에 모여 사용자 단위 순서 보장
+ * - BILL_CHANNEL: bill_id:notification_type → 청구서 + 채널 단위로 분산
+ *
+ * [exactly-once 모드] exactly-once: true
+ * - 멱등 + 트랜잭션 프로듀서(transactional.id = outbox-relay-{instance-id}-)로 배치 전체를 하나의 Kafka 트랜잭션으로 발행
+ * - DB 트랜잭션에서 PUBLISHED로 먼저 UPDATE(행 잠금 유지) → Kafka 전송 / 커밋 → DB 커밋
+ *   · Kafka 커밋 전 장애: 두 트랜잭션 모두 롤백, read_committed 컨슈머에는 아무것도 보이지 않음 → 재발행해도 중복 아님
+ *   · 선점을 잃은 경우(UPDATE 건수 불일치): 전송 전에 롤백
+ *   · 중복이 남는 구간은 Kafka 커밋 ~ DB 커밋 사이의 장애뿐 (컨슈머 Redis 중복 체크는 이 구간용으로만 필요)
+ * - 한 건이라도 실패하면 배치 전체가 abort → 실패 원인 이벤트만 attempt_count 증가, 함께 abort된 이벤트는 READY로 반환
+ * - instance-id를 고정해야 재기동 시 같은 transactional.id로 이전 프로듀서(zombie)를 펜싱한다.
+ *
+ * [선점 순서] idx_outbox_poll (status, next_retry_at, outbox_id)
+ * - 재시도 시각이 지난 이벤트(next_retry_at <= NOW())를 먼저, 남은 자리는 신규 이벤트(next_retry_at IS NULL)로 채운다.
+ * - 두 조회 모두 인덱스 범위 순서 그대로 읽으므로 적체가 커도 filesort 없이 LIMIT에서 멈춘다.
+ *
+ * [연속 드레인 루프]
+ * - 전용 스레드(outbox-relay)가 적체가 남아 있는 동안 쉬지 않고 다음 배치를 선점한다.
+ * - 배치 크기는 선점 ~ ack 완료 시간으로 조절
+ *   · 꽉 찬 배치가 target-latency-ms 안에 끝나면 2배 (max-batch-size까지)
+ *   · target-latency-ms를 넘기거나 전송 실패가 있으면 절반 (min-batch-size까지)
+ * - 가져올 이벤트가 없으면 min-idle-ms부터 max-idle-ms까지 대기 시간을 늘려가며 쉰다.
+ *   같은 프로세스의 청구 배치가 이벤트를 커밋하면(OutboxEventsCreated) 즉시 깨어난다.
+ *
+ * [선점 기한(lease) 회수]
+ * - 인스턴스가 전송 도중 죽으면 IN_PROGRESS로 남는다.
+ * - locked_at + lease-seconds가 지난 IN_PROGRESS 이벤트를 주기적으로 READY로 되돌린다.
+ * - lease는 Kafka 전송 제한 시간(delivery.timeout.ms, 기본 120초)보다 길어야 한다.
+ *   (전송 중인 이벤트를 회수하면 중복 발행)
+ *
+ * [메트릭] (/actuator/metrics)
+ * - outbox.relay.published / outbox.relay.failed : 발행 / 실패 건수 (rate = 처리량)
+ * - outbox.relay.parked : FAILED로 격리된 건수
+ * - outbox.relay.throughput : 마지막 배치 처리량 (events/s)
+ * - outbox.relay.batch.size / outbox.relay.batch.latency : 현재 배치 크기 / 배치 선점 ~ ack 시간
+ * - outbox.relay.backlog : READY 적체 건수 (backlog-sample-interval-ms 주기로 측정)
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OutboxMessageRelay {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ProducerFactory<String, String> producerFactory;
 
     // application.yml의 토픽명 확인
     @Value("${app.kafka.topics.billing-notification}")
     private String topicName;
 
-    // 0.1초마다 1000개씩 '고속' 처리
-    @Scheduled(fixedDelay = 1000)
-    public void dispatch() {
-        // 1. READY 상태인 이벤트 100개 조회
-        String selectSql = "SELECT event_id, payload FROM OUTBOX_EVENTS WHERE status = 'READY' LIMIT 200";
-        List<OutboxEvent> events = jdbcTemplate.query(selectSql, (rs, rowNum) ->
-                new OutboxEvent(rs.getString("event_id"), rs.getString("payload"))
-        );
+    @Value("${app.batch.outbox.relay.enabled:true}")
+    private boolean enabled;
 
-        if (events.isEmpty()) return;
+    // 배치 크기 (선점 건수): 시작값 / 하한 / 상한
+    @Value("${app.batch.outbox.relay.initial-batch-size:500}")
+    private int initialBatchSize;
 
-        // 2. 카프카로 병렬 전송 (비동기)
+    @Value("${app.batch.outbox.relay.min-batch-size:100}")
+    private int minBatchSize;
+
+    @Value("${app.batch.outbox.relay.max-batch-size:20000}")
+    private int maxBatchSize;
+
+    // 배치 1회(선점 ~ ack) 목표 시간
+    @Value("${app.batch.outbox.relay.target-latency-ms:1000}")
+    private long targetLatencyMs;
+
+    // 적체가 없을 때 대기 시간 (min부터 2배씩 max까지)
+    @Value("${app.batch.outbox.relay.min-idle-ms:50}")
+    private long minIdleMs;
+
+    @Value("${app.batch.outbox.relay.max-idle-ms:2000}")
+    private long maxIdleMs;
+
+    // 이벤트별 최대 전송 시도 횟수 (초과 시 FAILED)
+    @Value("${app.batch.outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    // 재시도 지수 백오프: base × 2^(시도 횟수 - 1), max 상한 (초)
+    @Value("${app.batch.outbox.relay.retry-base-seconds:5}")
+    private long retryBaseSeconds;
+
+    @Value("${app.batch.outbox.relay.retry-max-seconds:600}")
+    private long retryMaxSeconds;
+
+    // Kafka 메시지 키: USER(user_id) / BILL_CHANNEL(bill_id:notification_type)
+    @Value("${app.batch.outbox.relay.key-strategy:USER}")
+    private KeyStrategy keyStrategy;
+
+    // 트랜잭션 프로듀서로 배치 단위 발행 (컨슈머는 isolation.level=read_committed)
+    @Value("${app.batch.outbox.relay.exactly-once:false}")
+    private boolean exactlyOnce;
+
+    // 선점 기한 (초)
+    @Value("${app.batch.outbox.relay.lease-seconds:300}")
+    private int leaseSeconds;
+
+    // locked_by에 기록할 인스턴스 식별자 (비어 있으면 pid@hostname)
+    @Value("${app.batch.outbox.relay.instance-id:}")
+    private String instanceId;
+
+    private TransactionTemplate claimTransaction;
+
+    // exactly-once 모드 전용 트랜잭션 템플릿 (다른 컴포넌트가 쓰는 기본 KafkaTemplate은 비트랜잭션 유지)
+    private KafkaTemplate<String, String> transactionalKafkaTemplate;
+
+    // 청구 배치 커밋 알림 (permit이 있으면 대기 없이 바로 다음 배치)
+    private final Semaphore wakeSignal = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread drainThread;
+
+    private final AtomicInteger batchSize = new AtomicInteger();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong throughput = new AtomicLong();
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Counter parkedCounter;
+    private Timer batchLatency;
+
+    @PostConstruct
+    public void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        claimTransaction = new TransactionTemplate(transactionManager);
+        batchSize.set(Math.max(minBatchSize, Math.min(initialBatchSize, maxBatchSize)));
+
+        if (exactlyOnce) {
+            transactionalKafkaTemplate = createTransactionalTemplate();
+        }
+
+        publishedCounter = meterRegistry.counter("outbox.relay.published");
+        failedCounter = meterRegistry.counter("outbox.relay.failed");
+        parkedCounter = meterRegistry.counter("outbox.relay.parked");
+        batchLatency = meterRegistry.timer("outbox.relay.batch.latency");
+        Gauge.builder("outbox.relay.batch.size", batchSize, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("outbox.relay.backlog", backlog, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.relay.throughput", throughput, AtomicLong::get)
+                .baseUnit("events/s")
+                .register(meterRegistry);
+    }
+
+    private KafkaTemplate<String, String> createTransactionalTemplate() {
+        if (!(producerFactory instanceof DefaultKafkaProducerFactory<String, String> defaultFactory)) {
+            throw new IllegalStateException("exactly-once 모드는 DefaultKafkaProducerFactory가 필요합니다: "
+                    + producerFactory.getClass().getName());
+        }
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        overrides.put(ProducerConfig.ACKS_CONFIG, "all");
+        overrides.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+        DefaultKafkaProducerFactory<String, String> txFactory = defaultFactory.copyWithConfigurationOverride(overrides);
+        txFactory.setTransactionIdPrefix("outbox-relay-" + instanceId.replaceAll("[^A-Za-z0-9._-]", "_") + "-");
+
+        log.info("Outbox relay exactly-once mode. transactionIdPrefix={}", txFactory.getTransactionIdPrefix());
+        return new KafkaTemplate<>(txFactory);
+    }
+
+    /**
+     * 애플리케이션 기동 완료 후 드레인 스레드 시작 (Flyway / Kafka 준비 이후)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) return;
+        running = true;
+        drainThread = new Thread(this::drainLoop, "outbox-relay");
+        drainThread.setDaemon(true);
+        drainThread.start();
+        log.info("Outbox relay started. instance={}, batchSize={}", instanceId, batchSize.get());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (drainThread != null) {
+            drainThread.interrupt();
+            try {
+                drainThread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (transactionalKafkaTemplate != null) {
+            transactionalKafkaTemplate.getProducerFactory().reset();
+        }
+    }
+
+    /**
+     * 청구 배치가 OUTBOX_EVENTS를 커밋하면 대기 중인 드레인 루프를 깨움
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOutboxEventsCreated(OutboxEventsCreated event) {
+        if (wakeSignal.availablePermits() == 0) {
+            wakeSignal.release();
+        }
+    }
+
+    private void drainLoop() {
+        long idleMs = minIdleMs;
+
+        while (running) {
+            try {
+                int claimed = dispatch();
+                if (claimed > 0) {
+                    // 적체가 남아 있을 수 있으므로 바로 다음 배치
+                    idleMs = minIdleMs;
+                    continue;
+                }
+
+                if (wakeSignal.tryAcquire(idleMs, TimeUnit.MILLISECONDS)) {
+                    wakeSignal.drainPermits();
+                    idleMs = minIdleMs;
+                } else {
+                    idleMs = Math.min(idleMs * 2, maxIdleMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // DB / Kafka 장애: 최대 대기 시간만큼 쉬고 재시도
+                log.error("Outbox relay 배치 실패", e);
+                try {
+                    Thread.sleep(maxIdleMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.info("Outbox relay stopped. instance={}", instanceId);
+    }
+
+    /**
+     * 배치 1회 (선점 → 전송 → 결과 반영 → 배치 크기 조절)
+     *
+     * @return 선점한 이벤트 수
+     */
+    int dispatch() {
+        int size = batchSize.get();
+        long start = System.nanoTime();
+
+        // 1. READY 이벤트 선점
+        String claimToken = UUID.randomUUID().toString();
+        List<OutboxEvent> events = claim(claimToken, size);
+
+        if (events.isEmpty()) return 0;
+
+        // 2. 전송 + PUBLISHED 반영 (exactly-once: 배치 단위 Kafka 트랜잭션)
+        PublishOutcome outcome = exactlyOnce
+                ? publishTransactional(claimToken, events)
+                : publishEach(claimToken, events);
+
+        // 3. 실패 이벤트 재시도 예약 / 격리, abort에 휩쓸린 이벤트는 그대로 반환
+        int parked = outcome.failed().isEmpty() ? 0 : scheduleRetries(claimToken, outcome.failed());
+        if (!outcome.released().isEmpty()) {
+            release(claimToken, outcome.released());
+        }
+        int published = outcome.published();
+        List<FailedEvent> failed = outcome.failed();
+
+        // 4. 메트릭 + 배치 크기 조절
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        batchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        publishedCounter.increment(published);
+        failedCounter.increment(failed.size());
+        parkedCounter.increment(parked);
+        throughput.set(published * 1000L / Math.max(1L, elapsedMs));
+
+        adjustBatchSize(size, events.size(), elapsedMs, published < events.size());
+
+        log.debug("Flushed {} events in {}ms. failed={}, released={}, batchSize={}, instance={}",
+                published, elapsedMs, failed.size(), outcome.released().size(), batchSize.get(), instanceId);
+        return events.size();
+    }
+
+    /**
+     * 기본 모드 (at-least-once): 건별 전송, 성공 건만 PUBLISHED
+     */
+    private PublishOutcome publishEach(String claimToken, List<OutboxEvent> events) {
         List<CompletableFuture<SendResult<String, String>>> futures = events.stream()
-                .map(event -> kafkaTemplate.send(
-                        topicName,                       // 1. Topic
-                        String.valueOf(event.eventId()),  // 2. Key
-                        event.payload()                  // 3. Data (Value)
-                ))
+                .map(event -> kafkaTemplate.send(topicName, recordKey(event), event.payload()))
                 .toList();
 
-        // 3. 모든 전송이 끝날 때까지 대기 (Kafka가 빠르니 금방 끝남)
+        // 모든 전송이 끝날 때까지 대기 (실패한 전송도 완료로 취급하고 건별로 판정)
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .join();
+
+        List<Long> published = new ArrayList<>(events.size());
+        List<FailedEvent> failed = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Throwable error = futures.get(i).handle((result, e) -> e).join();
+            if (error == null) {
+                published.add(events.get(i).outboxId());
+            } else {
+                failed.add(new FailedEvent(events.get(i), error));
+            }
+        }
+
+        if (!published.isEmpty()) {
+            markPublished(claimToken, published);
+        }
+        return new PublishOutcome(published.size(), failed, List.of());
+    }
+
+    /**
+     * exactly-once 모드: DB 트랜잭션(PUBLISHED UPDATE) 안에서 Kafka 트랜잭션을 커밋
+     * - Kafka 커밋이 실패하면 DB도 롤백 → 이벤트는 IN_PROGRESS(선점 토큰 유지)로 남고 아래에서 실패/반환 처리
+     */
+    private PublishOutcome publishTransactional(String claimToken, List<OutboxEvent> events) {
+        List<Long> outboxIds = events.stream().map(OutboxEvent::outboxId).toList();
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(events.size());
+
         try {
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        } catch (Exception e) {
-            log.error("Kafka 전송 중 일부 실패, 이번 배치는 건너뜀");
-            return;
+            claimTransaction.executeWithoutResult(status -> {
+                int marked = markPublished(claimToken, outboxIds);
+                if (marked != outboxIds.size()) {
+                    // 선점 기한이 지나 다른 인스턴스가 가져간 이벤트가 있음 → 전송하지 않고 롤백
+                    throw new ClaimLostException(marked, outboxIds.size());
+                }
+
+                transactionalKafkaTemplate.executeInTransaction(ops -> {
+                    for (OutboxEvent event : events) {
+                        futures.add(ops.send(topicName, recordKey(event), event.payload()));
+                    }
+                    ops.flush();
+                    // 한 건이라도 실패하면 예외 → Kafka abort
+                    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                });
+            });
+            return new PublishOutcome(events.size(), List.of(), List.of());
+
+        } catch (ClaimLostException e) {
+            log.warn("선점을 잃은 이벤트가 있어 배치 발행 취소 ({}/{}건만 유효), READY로 반환", e.marked, e.claimed);
+            return new PublishOutcome(0, List.of(), outboxIds);
+
+        } catch (RuntimeException e) {
+            // 원인 이벤트(자신의 전송이 실패)는 재시도 횟수 증가, abort에 휩쓸린 이벤트는 그대로 반환
+            List<FailedEvent> failed = new ArrayList<>();
+            List<Long> released = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                Throwable error = i < futures.size() ? futures.get(i).handle((result, ex) -> ex).join() : null;
+                if (error != null && !(unwrap(error) instanceof TransactionAbortedException)) {
+                    failed.add(new FailedEvent(events.get(i), error));
+                } else {
+                    released.add(events.get(i).outboxId());
+                }
+            }
+            if (failed.isEmpty()) {
+                // 커밋 자체가 실패(브로커 / 펜싱) → 배치 전체를 실패로 처리해 백오프
+                failed = events.stream().map(event -> new FailedEvent(event, e)).toList();
+                released = List.of();
+            }
+            log.warn("Kafka 트랜잭션 abort. failed={}, released={}", failed.size(), released.size(), e);
+            return new PublishOutcome(0, failed, released);
+        }
+    }
+
+    private String recordKey(OutboxEvent event) {
+        return switch (keyStrategy) {
+            case USER -> String.valueOf(event.userId());
+            case BILL_CHANNEL -> event.billId() + ":" + event.notificationType();
+        };
+    }
+
+    private int markPublished(String claimToken, List<Long> outboxIds) {
+        return namedJdbc.update("""
+            UPDATE OUTBOX_EVENTS
+            SET status = 'PUBLISHED', published_at = NOW(),
+                claim_token = NULL, locked_by = NULL, locked_at = NULL
+            WHERE claim_token = :claimToken
+              AND outbox_id IN (:outboxIds)
+        """, Map.of("claimToken", claimToken, "outboxIds", outboxIds));
+    }
+
+    /**
+     * 시도 횟수를 늘리지 않고 READY로 반환 (다음 배치에서 바로 재선점)
+     */
+    private void release(String claimToken, List<Long> outboxIds) {
+        namedJdbc.update("""
+            UPDATE OUTBOX_EVENTS
+            SET status = 'READY',
+                claim_token = NULL, locked_by = NULL, locked_at = NULL
+            WHERE claim_token = :claimToken
+              AND outbox_id IN (:outboxIds)
+        """, Map.of("claimToken", claimToken, "outboxIds", outboxIds));
+    }
+
+    /**
+     * 실패 이벤트 반영: 재시도 예약(READY + next_retry_at) 또는 FAILED 격리
+     *
+     * @return FAILED로 격리한 건수
+     */
+    private int scheduleRetries(String claimToken, List<FailedEvent> failed) {
+        List<Object[]> retryArgs = new ArrayList<>();
+        List<Object[]> parkArgs = new ArrayList<>();
+
+        for (FailedEvent f : failed) {
+            int attempt = f.event().attemptCount() + 1;
+            String error = errorMessage(f.error());
+            if (attempt >= maxAttempts) {
+                parkArgs.add(new Object[]{error, claimToken, f.event().outboxId()});
+                log.error("Outbox 이벤트 {}회 전송 실패, FAILED로 격리. outboxId={}, eventId={}, error={}",
+                        attempt, f.event().outboxId(), f.event().eventId(), error);
+            } else {
+                retryArgs.add(new Object[]{retryDelaySeconds(attempt), error, claimToken, f.event().outboxId()});
+            }
+        }
+
+        if (!retryArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                UPDATE OUTBOX_EVENTS
+                SET status = 'READY', attempt_count = attempt_count + 1,
+                    next_retry_at = NOW() + INTERVAL ? SECOND, last_error = ?,
+                    claim_token = NULL, locked_by = NULL, locked_at = NULL
+                WHERE claim_token = ?
+                  AND outbox_id = ?
+            """, retryArgs);
+            log.warn("Kafka 전송 실패 {}건, 재시도 예약", retryArgs.size());
+        }
+        if (!parkArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                UPDATE OUTBOX_EVENTS
+                SET status = 'FAILED', attempt_count = attempt_count + 1,
+                    next_retry_at = NULL, last_error = ?,
+                    claim_token = NULL, locked_by = NULL, locked_at = NULL
+                WHERE claim_token = ?
+                  AND outbox_id = ?
+            """, parkArgs);
+        }
+        return parkArgs.size();
+    }
+
+    /**
+     * 지수 백오프: base × 2^(attempt - 1), retry-max-seconds 상한
+     */
+    long retryDelaySeconds(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        return Math.min(retryMaxSeconds, retryBaseSeconds << shift);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof KafkaException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static String errorMessage(Throwable error) {
+        Throwable cause = unwrap(error);
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    void adjustBatchSize(int size, int claimed, long elapsedMs, boolean hasFailure) {
+        int next = size;
+        if (hasFailure || elapsedMs > targetLatencyMs) {
+            next = Math.max(minBatchSize, size / 2);
+        } else if (claimed == size) {
+            // 배치를 꽉 채웠는데도 목표 시간 안에 끝남 → 적체가 남아 있으므로 키움
+            next = Math.min(maxBatchSize, size * 2);
+        }
+        if (next != size) {
+            batchSize.set(next);
+            log.debug("Outbox relay batch size {} → {} ({}ms, failure={})", size, next, elapsedMs, hasFailure);
+        }
+    }
+
+    /**
+     * 선점 기한이 지난 IN_PROGRESS 이벤트 회수 (idx_outbox_lock 사용)
+     */
+    @Scheduled(fixedDelayString = "${app.batch.outbox.relay.recover-interval-ms:30000}")
+    public void recoverExpiredClaims() {
+        int recovered = jdbcTemplate.update("""
+            UPDATE OUTBOX_EVENTS
+            SET status = 'READY',
+                claim_token = NULL, locked_by = NULL, locked_at = NULL
+            WHERE status = 'IN_PROGRESS'
+              AND locked_at < NOW() - INTERVAL ? SECOND
+        """, leaseSeconds);
+
+        if (recovered > 0) {
+            log.warn("선점 기한({}초)이 지난 이벤트 {}건을 READY로 회수", leaseSeconds, recovered);
+        }
+    }
+
+    /**
+     * READY 적체 건수 측정 (idx_outbox_poll 범위 COUNT, 루프 밖에서 주기적으로만 실행)
+     */
+    @Scheduled(fixedDelayString = "${app.batch.outbox.relay.backlog-sample-interval-ms:10000}")
+    public void sampleBacklog() {
+        if (!enabled) return;
+
+        Long ready = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM OUTBOX_EVENTS WHERE status = 'READY'", Long.class);
+        backlog.set(ready != null ? ready : 0L);
+
+        if (backlog.get() > 0) {
+            log.info("Outbox relay backlog={}, batchSize={}, throughput={}/s, instance={}",
+                    backlog.get(), batchSize.get(), throughput.get(), instanceId);
         }
+    }
 
-        // 4. [핵심] DB 업데이트를 한 번의 쿼리로 처리 (Bulk Update)
-        List<String> eventIds = events.stream().map(OutboxEvent::eventId).toList();
+    /**
+     * READY 이벤트를 최대 size건 선점 (다른 인스턴스가 잠근 행은 건너뜀)
+     * - 재시도 시각이 지난 이벤트 → 신규 이벤트 순으로 채움 (둘 다 idx_outbox_poll 범위 스캔)
+     */
+    private List<OutboxEvent> claim(String claimToken, int size) {
+        List<OutboxEvent> events = claimTransaction.execute(status -> {
+            // 1) 재시도 대상 (next_retry_at이 NULL인 행은 범위에서 제외됨)
+            List<OutboxEvent> rows = new ArrayList<>(jdbcTemplate.query("""
+                SELECT outbox_id, event_id, bill_id, user_id, notification_type, payload, attempt_count
+                FROM OUTBOX_EVENTS
+                WHERE status = 'READY'
+                  AND next_retry_at <= NOW()
+                ORDER BY next_retry_at, outbox_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            """, OUTBOX_EVENT_MAPPER, size));
 
-        // "UPDATE ... WHERE event_id IN (?, ?, ...)" 동적 쿼리 생성
-        String inSql = String.join(",", Collections.nCopies(eventIds.size(), "?"));
-        String updateSql = String.format(
-                "UPDATE OUTBOX_EVENTS SET status = 'PUBLISHED', updated_at = NOW() WHERE event_id IN (%s)",
-                inSql
-        );
+            // 2) 신규 이벤트
+            if (rows.size() < size) {
+                rows.addAll(jdbcTemplate.query("""
+                    SELECT outbox_id, event_id, bill_id, user_id, notification_type, payload, attempt_count
+                    FROM OUTBOX_EVENTS
+                    WHERE status = 'READY'
+                      AND next_retry_at IS NULL
+                    ORDER BY outbox_id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                """, OUTBOX_EVENT_MAPPER, size - rows.size()));
+            }
 
-        // 쿼리 한 방으로 100개 상태 변경!
-        jdbcTemplate.update(updateSql, eventIds.toArray());
+            if (rows.isEmpty()) return rows;
 
-        log.info("Flushed {} events instantly.", events.size());
+            namedJdbc.update("""
+                UPDATE OUTBOX_EVENTS
+                SET status = 'IN_PROGRESS',
+                    claim_token = :claimToken, locked_by = :lockedBy, locked_at = NOW()
+                WHERE outbox_id IN (:outboxIds)
+            """, Map.of(
+                    "claimToken", claimToken,
+                    "lockedBy", instanceId,
+                    "outboxIds", rows.stream().map(OutboxEvent::outboxId).toList()));
+            return rows;
+        });
+        return events != null ? events : List.of();
     }
 
-    private record OutboxEvent(String eventId, String payload) {}
-}
\ No newline at end of file
+    private static final RowMapper<OutboxEvent> OUTBOX_EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("outbox_id"), rs.getString("event_id"),
+            rs.getLong("bill_id"), rs.getLong("user_id"), rs.getString("notification_type"),
+            rs.getString("payload"), rs.getInt("attempt_count"));
+
+    enum KeyStrategy { USER, BILL_CHANNEL }
+
+    private record OutboxEvent(long outboxId, String eventId, long billId, long userId,
+                               String notificationType, String payload, int attemptCount) {}
+
+    private record FailedEvent(OutboxEvent event, Throwable error) {}
+
+    private record PublishOutcome(int published, List<FailedEvent> failed, List<Long> released) {}
+
+    private static class ClaimLostException extends RuntimeException {
+        private final int marked;
+        private final int claimed;
+
+        ClaimLostException(int marked, int claimed) {
+            super("claim lost: " + marked + "/" + claimed);
+            this.marked = marked;
+            this.claimed = claimed;
+        }
+    }
+}
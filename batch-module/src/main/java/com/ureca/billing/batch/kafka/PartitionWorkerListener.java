@@ -0,0 +1,152 @@
+package com.ureca.billing.batch.kafka;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.batch.dto.PartitionReply;
+import com.ureca.billing.batch.dto.PartitionRequest;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 원격 파티션 워커 (worker 측)
+ *
+ * - 요청 토픽에서 PartitionRequest를 받아 JobRepository의 StepExecution을 그대로 실행
+ *   (구간 정보는 StepExecution의 ExecutionContext에 있음)
+ * - 실행 중에는 heartbeat-interval-ms마다 HEARTBEAT를 응답 토픽으로 전송
+ *   → 청크 하나가 오래 걸려도(커밋 없음) manager가 살아 있는 워커로 판단
+ * - 실행이 끝나면 결과를 응답 토픽으로 전송
+ * - 워커 노드는 공통 group으로 구독하므로 요청 1건은 워커 1대만 처리
+ *
+ * [주의]
+ * - 파티션 1개 실행이 길기 때문에 max.poll.records=1, max.poll.interval.ms를 크게 잡는다.
+ * - STARTING이 아닌 요청(중복 전달, 이미 재배정된 실행)은 건너뛴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.batch.billing.partition.worker.enabled", havingValue = "true")
+public class PartitionWorkerListener {
+
+    private final JobExplorer jobExplorer;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Step> steps;     // Step 빈 이름 → Step
+    private final String workerId;
+
+    @Value("${app.kafka.topics.billing-partition-reply}")
+    private String replyTopic;
+
+    // 실행 중 생존 신호 주기 (manager의 worker-timeout-ms보다 충분히 짧게)
+    @Value("${app.batch.billing.partition.worker.heartbeat-interval-ms:30000}")
+    private long heartbeatIntervalMs;
+
+    private final ScheduledExecutorService heartbeatScheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "partition-heartbeat");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public PartitionWorkerListener(JobExplorer jobExplorer,
+                                   KafkaTemplate<String, String> kafkaTemplate,
+                                   ObjectMapper objectMapper,
+                                   Map<String, Step> steps) {
+        this.jobExplorer = jobExplorer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.steps = steps;
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.billing-partition-request}",
+            groupId = "billing-partition-worker",
+            concurrency = "${app.batch.billing.partition.worker.concurrency:1}",
+            properties = {
+                    "max.poll.records=1",
+                    "max.poll.interval.ms=${app.batch.billing.partition.worker.max-poll-interval-ms:3600000}"
+            })
+    public void onRequest(String message) throws Exception {
+        PartitionRequest request = objectMapper.readValue(message, PartitionRequest.class);
+
+        StepExecution stepExecution = jobExplorer.getStepExecution(
+                request.jobExecutionId(), request.stepExecutionId());
+        if (stepExecution == null) {
+            log.warn("[WORKER] unknown stepExecution. request={}", request);
+            return;
+        }
+        if (stepExecution.getStatus() != BatchStatus.STARTING) {
+            log.info("[WORKER] skip {} (status={})", stepExecution.getStepName(), stepExecution.getStatus());
+            return;
+        }
+
+        Step step = steps.get(request.workerStep());
+        if (step == null) {
+            log.error("[WORKER] unknown worker step: {}", request.workerStep());
+            return;
+        }
+
+        log.info("[WORKER] {} start {} (stepExecutionId={}, attempt={})",
+                workerId, stepExecution.getStepName(), stepExecution.getId(), request.attempt());
+        ScheduledFuture<?> heartbeat = heartbeatScheduler.scheduleAtFixedRate(
+                () -> reply(stepExecution, PartitionReply.HEARTBEAT),
+                heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        try {
+            step.execute(stepExecution);
+        } catch (JobInterruptedException e) {
+            // 중단 요청 → AbstractStep이 STOPPED로 기록
+            log.warn("[WORKER] {} interrupted", stepExecution.getStepName());
+        } catch (Exception e) {
+            // 실패 상태는 AbstractStep이 JobRepository에 기록함
+            log.error("[WORKER] {} failed", stepExecution.getStepName(), e);
+        } finally {
+            heartbeat.cancel(false);
+        }
+        log.info("[WORKER] {} end {} status={}, write={}",
+                workerId, stepExecution.getStepName(), stepExecution.getStatus(), stepExecution.getWriteCount());
+
+        reply(stepExecution, stepExecution.getStatus().name());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+    }
+
+    private void reply(StepExecution stepExecution, String status) {
+        try {
+            PartitionReply reply = new PartitionReply(
+                    stepExecution.getJobExecutionId(), stepExecution.getId(), status, workerId);
+            kafkaTemplate.send(replyTopic, String.valueOf(stepExecution.getId()),
+                    objectMapper.writeValueAsString(reply));
+        } catch (Exception e) {
+            log.warn("[WORKER] reply {} failed for stepExecutionId={}", status, stepExecution.getId(), e);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "worker";
+        }
+    }
+}
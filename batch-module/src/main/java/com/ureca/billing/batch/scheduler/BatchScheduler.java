@@ -1,15 +1,18 @@
 package com.ureca.billing.batch.scheduler;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.YearMonth;
 
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.ureca.billing.batch.util.BillingCycle;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
@@ -21,20 +24,83 @@ public class BatchScheduler {
  
  private final JobLauncher jobLauncher;
  private final Job monthlyBillingJob;
+ private final Job preBillingJob;
+
+ // true면 청구서 생성 Step에서 Outbox까지 함께 생성 (Step 2 생략)
+ @Value("${app.batch.billing.fused-outbox:false}")
+ private boolean fusedOutbox;
+
+ // BILL_DETAILS / OUTBOX_EVENTS 적재 방식 (BATCH | BULK_LOAD)
+ @Value("${app.batch.billing.write-mode:BATCH}")
+ private String writeMode;
+
+ // true면 소액결제를 건별 상세 라인으로 청구 (false면 MICRO_PAYMENT_MONTHLY 결제유형별 합계)
+ @Value("${app.batch.billing.itemized-micro-payments:false}")
+ private boolean itemizedMicroPayments;
+
+ // true면 변경된 사용자만 재계산하고 나머지는 전월 정기 항목 이월 (전월 마감 기록이 없으면 전체 재계산)
+ @Value("${app.batch.billing.delta.enabled:false}")
+ private boolean deltaMode;
+
+ // true면 증분 청구 결과를 전체 재계산과 비교
+ @Value("${app.batch.billing.delta.verify:false}")
+ private boolean verifyDelta;
+
+ // true면 월말 전에 사전 청구를 돌리고, 월말 정산은 증분(deltaMode)으로 실행
+ @Value("${app.batch.billing.pre-billing.enabled:false}")
+ private boolean preBillingEnabled;
+
+ // true면 월말 일괄 청구 대신 매일 해당 청구 기준일(USERS.billing_cycle_day) cohort만 청구
+ @Value("${app.batch.billing.rolling-cycle.enabled:false}")
+ private boolean rollingCycleEnabled;
+
+ /**
+  * 사전 청구 (기본: 매월 25일 02:00)
+  * - 전체 사용자 임시 청구서를 staging에 계산 → 월말에는 이후 변경분만 재계산
+  * - snapshotDate(실행일)를 식별 파라미터로 사용 → 같은 날 실패하면 재시작, 다른 날이면 새로 계산
+  */
+ @Scheduled(cron = "${app.batch.billing.pre-billing.cron:0 0 2 25 * *}")
+ public void runPreBilling() {
+     if (!preBillingEnabled) return;
+
+     YearMonth currentMonth = YearMonth.now();
+     log.info("🚀 [AUTO BATCH] Starting pre-billing for {}", currentMonth);
+
+     try {
+         JobParameters params = new JobParametersBuilder()
+             .addString("billingMonth", currentMonth.toString())
+             .addString("snapshotDate", LocalDate.now().toString())
+             .addString("itemizedMicroPayments", String.valueOf(itemizedMicroPayments), false)
+             .toJobParameters();
+
+         JobExecution execution = jobLauncher.run(preBillingJob, params);
+         log.info("✅ [AUTO BATCH] Pre-billing completed. status={}", execution.getStatus());
+
+     } catch (Exception e) {
+         log.error("❌ [AUTO BATCH] Pre-billing failed", e);
+     }
+ }
  
  /**
   * 매월 말일 23:00에 자동 실행
   * - 해당 월의 청구서 생성
+  * - JobInstance는 billingMonth로만 식별 → 같은 월이 실패한 상태면 마지막 커밋 지점부터 재시작
   */
  @Scheduled(cron = "0 0 23 L * *")  // 매월 마지막 날 23:00
  public void runMonthlyBilling() {
+     if (rollingCycleEnabled) return;
+
      YearMonth currentMonth = YearMonth.now();
      log.info("🚀 [AUTO BATCH] Starting monthly billing for {}", currentMonth);
      
      try {
          JobParameters params = new JobParametersBuilder()
              .addString("billingMonth", currentMonth.toString())
-             .addString("runTime", LocalDateTime.now().toString())
+             .addString("fusedOutbox", String.valueOf(fusedOutbox), false)
+             .addString("writeMode", writeMode, false)
+             .addString("itemizedMicroPayments", String.valueOf(itemizedMicroPayments), false)
+             .addString("deltaMode", String.valueOf(deltaMode || preBillingEnabled), false)
+             .addString("verifyDelta", String.valueOf(verifyDelta), false)
              .toJobParameters();
          
          JobExecution execution = jobLauncher.run(monthlyBillingJob, params);
@@ -44,4 +110,39 @@ public class BatchScheduler {
          log.error("❌ [AUTO BATCH] Failed", e);
      }
  }
+
+ /**
+  * 청구 기준일 cohort 청구 (기본: 매일 01:00, rolling-cycle.enabled=true일 때만)
+  * - 오늘이 d일이면 [전월-d, 이번달-d) 구간이 끝난 기준일 d 사용자만 청구 (billingMonth = 전월)
+  * - 29일 이후는 기준일이 없으므로 건너뜀
+  * - JobInstance는 billingMonth + cycleDay로 식별 → 같은 cohort가 실패한 상태면 재시작
+  * - 기준일 cohort는 증분/사전 청구를 적용하지 않음 (항상 전체 재계산)
+  */
+ @Scheduled(cron = "${app.batch.billing.rolling-cycle.cron:0 0 1 * * *}")
+ public void runCycleBilling() {
+     if (!rollingCycleEnabled) return;
+
+     LocalDate today = LocalDate.now();
+     YearMonth billingMonth = BillingCycle.billingMonthClosingOn(today);
+     if (billingMonth == null) return;
+
+     int cycleDay = today.getDayOfMonth();
+     log.info("🚀 [AUTO BATCH] Starting cycle billing. billingMonth={}, cycleDay={}", billingMonth, cycleDay);
+
+     try {
+         JobParameters params = new JobParametersBuilder()
+             .addString("billingMonth", billingMonth.toString())
+             .addString("cycleDay", String.valueOf(cycleDay))
+             .addString("fusedOutbox", String.valueOf(fusedOutbox), false)
+             .addString("writeMode", writeMode, false)
+             .addString("itemizedMicroPayments", String.valueOf(itemizedMicroPayments), false)
+             .toJobParameters();
+
+         JobExecution execution = jobLauncher.run(monthlyBillingJob, params);
+         log.info("✅ [AUTO BATCH] Cycle billing completed. cycleDay={}, status={}", cycleDay, execution.getStatus());
+
+     } catch (Exception e) {
+         log.error("❌ [AUTO BATCH] Cycle billing failed. cycleDay={}", cycleDay, e);
+     }
+ }
 }
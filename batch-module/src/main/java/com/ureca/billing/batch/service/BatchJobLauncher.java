@@ -0,0 +1,67 @@
+package com.ureca.billing.batch.service;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * API용 비동기 Job 실행기
+ *
+ * - HTTP 스레드는 JobExecution 생성까지만 기다리고 바로 반환 (Job은 전용 스레드에서 실행)
+ * - 실행 스레드 수 / 대기열을 제한 → 초과 요청은 즉시 FAILED JobExecution으로 반환
+ *   (TaskExecutorJobLauncher가 TaskRejectedException을 FAILED 상태로 기록)
+ * - 스케줄러 / 기동 시 실행은 기존 동기 JobLauncher를 그대로 사용
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchJobLauncher {
+
+    private final JobRepository jobRepository;
+
+    // 동시에 실행 가능한 Job 수
+    @Value("${app.batch.launcher.pool-size:2}")
+    private int poolSize;
+
+    // 실행 대기 가능한 Job 수
+    @Value("${app.batch.launcher.queue-capacity:4}")
+    private int queueCapacity;
+
+    private ThreadPoolTaskExecutor executor;
+    private TaskExecutorJobLauncher launcher;
+
+    @PostConstruct
+    public void init() throws Exception {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-job-");
+        executor.initialize();
+
+        launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(executor);
+        launcher.afterPropertiesSet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return 실행이 접수된 JobExecution (status: STARTING / STARTED, 거부 시 FAILED)
+     */
+    public JobExecution launch(Job job, JobParameters jobParameters) throws Exception {
+        return launcher.run(job, jobParameters);
+    }
+}
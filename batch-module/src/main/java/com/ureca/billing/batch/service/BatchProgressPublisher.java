@@ -0,0 +1,246 @@
+package com.ureca.billing.batch.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ureca.billing.batch.dto.BatchProgressEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 배치 진행 상황 SSE 발행기
+ *
+ * - Job / Step / Chunk 리스너로 등록되어 이벤트가 발생하는 즉시 구독자에게 push
+ *   · STEP_STARTED / STEP_FINISHED : Step 전환
+ *   · CHUNK : 청크 커밋마다 read/write 건수, 처리량, ETA
+ * - 구독 시점에 JobExecution 현재 상태(SNAPSHOT)를 먼저 보내므로 중간에 붙어도 된다.
+ * - Job이 끝나면 JOB_FINISHED를 보내고 스트림을 닫는다.
+ *   (afterJob 이후 구독하면 JOB_FINISHED를 바로 보내고 닫음 → 빈 스트림이 열린 채 남지 않음)
+ *
+ * [ETA]
+ * - 청구서 생성 단계: USERS.user_id 구간(MIN ~ MAX, UserIdRangePartitioner와 같은 범위) 크기로 추정
+ *   (PK 양 끝만 읽으므로 Job 시작 시 전체 COUNT(*) 스캔 없음, 빈 id가 있으면 상한값)
+ * - Outbox 생성 단계: 청구서 생성 단계에서 쓴 건수
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchProgressPublisher implements JobExecutionListener, StepExecutionListener, ChunkListener {
+
+    private static final long EMITTER_TIMEOUT_MS = Duration.ofHours(1).toMillis();
+
+    private static final String PHASE_BILLING = "BILLING";
+    private static final String PHASE_OUTBOX = "OUTBOX";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Map<Long, Long> estimatedUsers = new ConcurrentHashMap<>();
+
+    // 끝난 Job의 JOB_FINISHED 이벤트 (JobRepository 최종 상태 반영 전에 구독한 경우용, 일정 시간 후 제거)
+    private final Map<Long, BatchProgressEvent> finished = new ConcurrentHashMap<>();
+    private static final Duration FINISHED_RETENTION = Duration.ofMinutes(10);
+
+    /* =========================
+     * 구독
+     * ========================= */
+    public SseEmitter subscribe(JobExecution jobExecution) {
+        Long jobExecutionId = jobExecution.getId();
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+
+        List<SseEmitter> list = emitters.computeIfAbsent(jobExecutionId, id -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        emitter.onCompletion(() -> list.remove(emitter));
+        emitter.onTimeout(() -> list.remove(emitter));
+        emitter.onError(e -> list.remove(emitter));
+
+        // afterJob은 emitter를 닫기 전에 finished를 기록하므로,
+        // 목록에 넣은 뒤 finished를 확인하면 afterJob과 겹쳐도 열린 채 남는 emitter가 없다.
+        BatchProgressEvent terminal = finished.get(jobExecutionId);
+        if (terminal == null && !jobExecution.isRunning()) {
+            terminal = finishedEvent(jobExecution);
+        }
+
+        if (terminal != null) {
+            list.remove(emitter);
+            send(emitter, terminal);
+            emitter.complete();
+            return emitter;
+        }
+
+        send(emitter, BatchProgressEvent.builder()
+                .type("SNAPSHOT")
+                .jobExecutionId(jobExecutionId)
+                .jobStatus(jobExecution.getStatus().name())
+                .phaseWriteCount(sumWriteCount(jobExecution, PHASE_BILLING))
+                .timestamp(LocalDateTime.now())
+                .build());
+        return emitter;
+    }
+
+    /* =========================
+     * Job
+     * ========================= */
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        Long users = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(user_id) - MIN(user_id) + 1, 0) FROM USERS", Long.class);
+        estimatedUsers.put(jobExecution.getId(), users != null ? users : 0L);
+
+        publish(jobExecution.getId(), BatchProgressEvent.builder()
+                .type("JOB_STARTED")
+                .jobExecutionId(jobExecution.getId())
+                .jobStatus(jobExecution.getStatus().name())
+                .estimatedTotal(users)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Long jobExecutionId = jobExecution.getId();
+        BatchProgressEvent event = finishedEvent(jobExecution);
+
+        LocalDateTime expired = LocalDateTime.now().minus(FINISHED_RETENTION);
+        finished.values().removeIf(e -> e.getTimestamp().isBefore(expired));
+        finished.put(jobExecutionId, event);
+
+        publish(jobExecutionId, event);
+
+        List<SseEmitter> list = emitters.remove(jobExecutionId);
+        if (list != null) list.forEach(SseEmitter::complete);
+        estimatedUsers.remove(jobExecutionId);
+    }
+
+    private BatchProgressEvent finishedEvent(JobExecution jobExecution) {
+        return BatchProgressEvent.builder()
+                .type("JOB_FINISHED")
+                .jobExecutionId(jobExecution.getId())
+                .jobStatus(jobExecution.getStatus().name())
+                .phaseWriteCount(sumWriteCount(jobExecution, PHASE_BILLING))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /* =========================
+     * Step / Chunk
+     * ========================= */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        publish(stepExecution.getJobExecutionId(), stepEvent("STEP_STARTED", stepExecution));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        publish(stepExecution.getJobExecutionId(), stepEvent("STEP_FINISHED", stepExecution));
+        return null;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        publish(stepExecution.getJobExecutionId(), stepEvent("CHUNK", stepExecution));
+    }
+
+    private BatchProgressEvent stepEvent(String type, StepExecution stepExecution) {
+        JobExecution jobExecution = stepExecution.getJobExecution();
+        String phase = phaseOf(stepExecution.getStepName());
+
+        long phaseWrite = sumWriteCount(jobExecution, phase);
+        Long total = PHASE_BILLING.equals(phase)
+                ? estimatedUsers.get(jobExecution.getId())
+                : Long.valueOf(sumWriteCount(jobExecution, PHASE_BILLING));
+
+        // 단계 처리량: 단계 내 가장 먼저 시작한 Step 기준 평균
+        double seconds = phaseElapsedSeconds(jobExecution, phase);
+        double rate = seconds > 0 ? phaseWrite / seconds : 0;
+        Long eta = (total != null && rate > 0)
+                ? Math.max(0L, (long) ((total - phaseWrite) / rate))
+                : null;
+
+        return BatchProgressEvent.builder()
+                .type(type)
+                .jobExecutionId(jobExecution.getId())
+                .jobStatus(jobExecution.getStatus().name())
+                .stepName(stepExecution.getStepName())
+                .stepStatus(stepExecution.getStatus().name())
+                .readCount(stepExecution.getReadCount())
+                .writeCount(stepExecution.getWriteCount())
+                .commitCount(stepExecution.getCommitCount())
+                .phase(phase)
+                .phaseWriteCount(phaseWrite)
+                .estimatedTotal(total)
+                .itemsPerSecond(rate)
+                .etaSeconds(eta)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /* =========================
+     * 공통 util
+     * ========================= */
+    private static String phaseOf(String stepName) {
+        return stepName.startsWith("monthlyOutbox") ? PHASE_OUTBOX : PHASE_BILLING;
+    }
+
+    // 파티션 매니저 Step은 워커 합계를 중복 집계하므로, 증분 검증 Step은 쓰기가 없으므로 제외
+    private static boolean countable(StepExecution stepExecution, String phase) {
+        return phaseOf(stepExecution.getStepName()).equals(phase)
+                && !stepExecution.getStepName().equals("monthlyBillingPartitionStep")
+                && !stepExecution.getStepName().equals("deltaVerificationStep");
+    }
+
+    private static long sumWriteCount(JobExecution jobExecution, String phase) {
+        long sum = 0;
+        for (StepExecution se : jobExecution.getStepExecutions()) {
+            if (countable(se, phase)) sum += se.getWriteCount();
+        }
+        return sum;
+    }
+
+    private static double phaseElapsedSeconds(JobExecution jobExecution, String phase) {
+        LocalDateTime start = null;
+        for (StepExecution se : jobExecution.getStepExecutions()) {
+            if (countable(se, phase) && se.getStartTime() != null
+                    && (start == null || se.getStartTime().isBefore(start))) {
+                start = se.getStartTime();
+            }
+        }
+        return start == null ? 0 : Duration.between(start, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private void publish(Long jobExecutionId, BatchProgressEvent event) {
+        List<SseEmitter> list = emitters.get(jobExecutionId);
+        if (list == null || list.isEmpty()) return;
+        for (SseEmitter emitter : list) {
+            send(emitter, event);
+        }
+    }
+
+    private void send(SseEmitter emitter, BatchProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(event.getType()).data(event));
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트 연결 종료 → 구독 해제 (Job 실행에는 영향 없음)
+            log.debug("[PROGRESS] SSE send failed. jobExecutionId={}", event.getJobExecutionId());
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ureca.billing.batch.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * bill_id 블록 선할당기
+ *
+ * - BILL_ID_SEQUENCE에서 size 개의 연속된 bill_id를 한 번에 예약한다.
+ * - 청크 트랜잭션과 분리(REQUIRES_NEW)해서 시퀀스 행 락을 즉시 해제한다.
+ *   → 파티션 워커끼리 시퀀스 락을 잡고 대기하지 않음
+ * - BILLS.bill_id는 AUTO_INCREMENT가 없다. (V36) 모든 INSERT 경로가 이 할당기를 거친다.
+ * - BILLS PK는 (bill_id, billing_month)라 bill_id 단독 유일성은 INSERT 경로가 BILL_ID_REGISTRY(V39)로 검사한다.
+ * - 시퀀스 도입 이전 데이터와 겹치지 않도록 MAX(bill_id)보다 뒤에서 할당한다.
+ * - 롤백된 청크의 블록은 재사용하지 않는다. (bill_id에 빈 구간이 생길 수 있음)
+ */
+@Component
+@RequiredArgsConstructor
+public class BillIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return 예약된 블록의 첫 번째 bill_id (블록 = [반환값, 반환값 + size - 1])
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocate(int size) {
+        jdbcTemplate.update("""
+            UPDATE BILL_ID_SEQUENCE
+            SET next_id = LAST_INSERT_ID(
+                    GREATEST(next_id, (SELECT COALESCE(MAX(bill_id), 0) + 1 FROM BILLS)) + ?
+                )
+            WHERE seq_name = 'BILLS'
+        """, size);
+
+        Long nextId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        return nextId - size;
+    }
+}
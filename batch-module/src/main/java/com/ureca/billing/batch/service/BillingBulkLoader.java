@@ -0,0 +1,92 @@
+package com.ureca.billing.batch.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.stereotype.Component;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.ureca.billing.batch.util.BillDetailBuffer;
+import com.ureca.billing.batch.util.BillDetailBuffer.DetailKind;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * LOAD DATA LOCAL INFILE 적재기
+ *
+ * - 행들을 메모리에서 TSV로 만들어 InputStream으로 드라이버에 넘긴다. (임시 파일 없음)
+ * - JdbcTemplate을 통해 실행하므로 현재 청크 트랜잭션의 커넥션에서 수행되고,
+ *   청크 롤백 시 적재 내용도 함께 롤백된다. (InnoDB)
+ * - 값에 탭/개행/역슬래시가 들어가지 않는 컬럼만 다룬다. (숫자, 고정 코드값, Base64 payload)
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingBulkLoader {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int loadBillDetails(BillDetailBuffer buffer, String billingMonth) {
+        if (buffer.isEmpty()) return 0;
+
+        StringBuilder tsv = new StringBuilder(buffer.size() * 48);
+        for (int i = 0; i < buffer.size(); i++) {
+            DetailKind kind = buffer.kind(i);
+            tsv.append(buffer.billId(i)).append('\t')
+               .append(billingMonth).append('\t')
+               .append(kind.getDetailType()).append('\t')
+               .append(kind.getChargeCategory().name()).append('\t')
+               .append(buffer.amount(i)).append('\t')
+               .append(buffer.userId(i)).append('\n');
+        }
+
+        return load("""
+            LOAD DATA LOCAL INFILE 'bill_details.tsv'
+            INTO TABLE BILL_DETAILS
+            FIELDS TERMINATED BY '\\t'
+            LINES TERMINATED BY '\\n'
+            (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+        """, tsv);
+    }
+
+    /**
+     * @param outboxRows {event_id, bill_id, user_id, event_type, notification_type, payload}
+     * @param billingMonth 모든 행에 공통인 청구월 (파티션 키)
+     */
+    public int loadOutboxEvents(List<Object[]> outboxRows, String billingMonth) {
+        if (outboxRows.isEmpty()) return 0;
+
+        StringBuilder tsv = new StringBuilder(outboxRows.size() * 1024);
+        for (Object[] row : outboxRows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) tsv.append('\t');
+                tsv.append(row[i]);
+            }
+            tsv.append('\t').append(billingMonth).append('\n');
+        }
+
+        // IGNORE: 재실행 시 이미 있는 이벤트(uk_outbox_bill_type)는 건너뜀
+        return load("""
+            LOAD DATA LOCAL INFILE 'outbox_events.tsv'
+            IGNORE INTO TABLE OUTBOX_EVENTS
+            FIELDS TERMINATED BY '\\t'
+            LINES TERMINATED BY '\\n'
+            (event_id, bill_id, user_id, event_type, notification_type, payload, billing_month)
+            SET status = 'READY', attempt_count = 0
+        """, tsv);
+    }
+
+    private int load(String sql, CharSequence tsv) {
+        byte[] data = tsv.toString().getBytes(StandardCharsets.UTF_8);
+
+        Integer loaded = jdbcTemplate.execute((StatementCallback<Integer>) stmt -> {
+            // 드라이버가 파일 대신 이 스트림을 읽어 서버로 전송
+            stmt.unwrap(JdbcStatement.class)
+                .setLocalInfileInputStream(new ByteArrayInputStream(data));
+            return stmt.executeUpdate(sql);
+        });
+        return loaded != null ? loaded : 0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.ureca.billing.batch.service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 청구월 RANGE 파티션 관리 (BILLS / BILL_DETAILS / OUTBOX_EVENTS)
+ *
+ * [파티션 구성] (V32 참고)
+ * - pYYYYMM : 해당 청구월 1개 (VALUES LESS THAN 다음 달)
+ * - p_old   : 파티셔닝 이전 월 (V32 기준 2026-10 이전, 월 단위 분리 대상 아님)
+ * - p_max   : 아직 만들지 않은 월 (MAXVALUE) → 평소에는 비어 있어야 함
+ *
+ * [생성] ensurePartition
+ * - 청구 Job 시작 시 대상 월 파티션이 없으면 p_max를 분할해 만든다.
+ *   (마지막 pYYYYMM 다음 달부터 대상 월까지 빠짐없이 생성 → 한 파티션에 여러 달이 섞이지 않음)
+ *
+ * [분리 / 보관] archive
+ * - 행 DELETE 대신 EXCHANGE PARTITION으로 파티션을 {TABLE}_ARCHIVE_YYYYMM 테이블로 통째로 옮기고
+ *   빈 파티션을 DROP한다. (메타데이터 변경만 일어나 undo/binlog 부담 없음)
+ * - 보관 테이블은 덤프 후 DROP 하거나 그대로 조회용으로 둔다.
+ * - 보관 기간(retention-months) 이내 월은 분리할 수 없다.
+ * - 테이블마다 단계(EXCHANGED → DROPPED)를 BILLING_PARTITION_ARCHIVE_LOG에 기록 (V37)
+ *   → 중간에 실패해도 다시 호출하면 남은 단계만 수행
+ *   - 이미 DROP된 테이블: 건너뜀
+ *   - EXCHANGE 후 DROP 전 실패: 파티션이 비어 있으므로 다시 EXCHANGE 하지 않고 DROP만
+ *     (빈 파티션과 EXCHANGE하면 보관한 행이 파티션으로 되돌아감)
+ *   - 보관 테이블이 이미 있으면 비어 있을 때만 재사용, 행이 있는데 파티션에도 행이 있으면 중단
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillingPartitionService {
+
+    // 자식 테이블부터 분리 (BILLS가 마지막)
+    public static final List<String> TABLES = List.of("OUTBOX_EVENTS", "BILL_DETAILS", "BILLS");
+
+    private static final String MAX_PARTITION = "p_max";
+    private static final String ARCHIVE_EXCHANGED = "EXCHANGED";
+    private static final String ARCHIVE_DROPPED = "DROPPED";
+    private static final DateTimeFormatter YYYYMM = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 이 개월 수 이내의 청구월은 분리 불가
+    @Value("${app.batch.billing.table-partition.retention-months:12}")
+    private int retentionMonths;
+
+    public static String partitionName(YearMonth billingMonth) {
+        return "p" + billingMonth.format(YYYYMM);
+    }
+
+    /* =========================
+     * 파티션 생성
+     * ========================= */
+    /**
+     * @return 새로 만든 파티션 수 (세 테이블 합계)
+     */
+    public int ensurePartition(YearMonth billingMonth) {
+        int created = 0;
+
+        for (String table : TABLES) {
+            List<String> partitions = partitions(table);
+            if (partitions.isEmpty()) {
+                log.debug("[TABLE PARTITION] {} is not partitioned", table);
+                continue;
+            }
+            if (partitions.contains(partitionName(billingMonth))) continue;
+            if (!partitions.contains(MAX_PARTITION)) {
+                throw new IllegalStateException(table + " 에 " + MAX_PARTITION + " 파티션이 없습니다");
+            }
+
+            YearMonth last = lastMonthPartition(partitions);
+            // 마지막 월 파티션 이전 월(p_old / 분리된 월)은 새로 만들지 않음
+            if (last != null && !billingMonth.isAfter(last)) continue;
+
+            YearMonth from = last != null ? last.plusMonths(1) : billingMonth;
+            StringBuilder definitions = new StringBuilder();
+            for (YearMonth m = from; !m.isAfter(billingMonth); m = m.plusMonths(1)) {
+                definitions.append(String.format("PARTITION %s VALUES LESS THAN ('%s'), ",
+                        partitionName(m), m.plusMonths(1)));
+                created++;
+            }
+
+            jdbcTemplate.execute(String.format(
+                    "ALTER TABLE %s REORGANIZE PARTITION %s INTO (%sPARTITION %s VALUES LESS THAN (MAXVALUE))",
+                    table, MAX_PARTITION, definitions, MAX_PARTITION));
+            log.info("[TABLE PARTITION] {} partitions {} ~ {} created", table, partitionName(from), partitionName(billingMonth));
+        }
+
+        return created;
+    }
+
+    /* =========================
+     * 파티션 분리 (EXCHANGE PARTITION)
+     * ========================= */
+    /**
+     * 재실행 가능: 이미 분리된 테이블은 건너뛰고, 만들어 둔 빈 보관 테이블은 재사용
+     *
+     * @return 테이블별 보관 테이블 행 수
+     */
+    public Map<String, Long> archive(YearMonth billingMonth) {
+        YearMonth oldestRetained = YearMonth.now().minusMonths(retentionMonths);
+        if (!billingMonth.isBefore(oldestRetained)) {
+            throw new IllegalArgumentException(String.format(
+                    "보관 기간(%d개월) 이내의 청구월은 분리할 수 없습니다: %s (분리 가능: %s 이전)",
+                    retentionMonths, billingMonth, oldestRetained));
+        }
+
+        String partition = partitionName(billingMonth);
+        Map<String, Long> archived = new LinkedHashMap<>();
+
+        for (String table : TABLES) {
+            String archiveTable = table + "_ARCHIVE_" + billingMonth.format(YYYYMM);
+
+            if (ARCHIVE_DROPPED.equals(archiveStatus(billingMonth, table))
+                    || !partitions(table).contains(partition)) {
+                log.info("[TABLE PARTITION] {}.{} already archived", table, partition);
+            } else {
+                long partitionRows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + table + " PARTITION (" + partition + ")", Long.class);
+
+                if (partitionRows > 0) {
+                    prepareArchiveTable(table, archiveTable);
+                    jdbcTemplate.execute("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition
+                            + " WITH TABLE " + archiveTable);
+                    recordArchive(billingMonth, table, archiveTable, ARCHIVE_EXCHANGED);
+                    log.info("[TABLE PARTITION] {}.{} → {} ({} rows)", table, partition, archiveTable, partitionRows);
+                }
+
+                // 빈 파티션 (방금 EXCHANGE 했거나 이전 실행에서 EXCHANGE 후 실패)
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+                recordArchive(billingMonth, table, archiveTable, ARCHIVE_DROPPED);
+                log.info("[TABLE PARTITION] {}.{} dropped", table, partition);
+            }
+
+            if (tableExists(archiveTable)) {
+                archived.put(table, countRows(archiveTable));
+            }
+        }
+
+        return archived;
+    }
+
+    /**
+     * EXCHANGE 대상 보관 테이블 준비 (파티션 테이블과 같은 구조의 일반 테이블)
+     * - 이미 있으면 비어 있을 때만 재사용 (다른 실행이 옮겨 둔 행을 덮어쓰지 않음)
+     */
+    private void prepareArchiveTable(String table, String archiveTable) {
+        if (!tableExists(archiveTable)) {
+            jdbcTemplate.execute("CREATE TABLE " + archiveTable + " LIKE " + table);
+        } else if (countRows(archiveTable) > 0) {
+            throw new IllegalStateException(String.format(
+                    "%s 에 이미 행이 있고 %s 파티션에도 행이 있습니다. 두 데이터를 확인 후 다시 실행하세요.",
+                    archiveTable, table));
+        }
+        if (!partitions(archiveTable).isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        }
+    }
+
+    private String archiveStatus(YearMonth billingMonth, String table) {
+        List<String> status = jdbcTemplate.queryForList("""
+            SELECT status
+            FROM BILLING_PARTITION_ARCHIVE_LOG
+            WHERE billing_month = ? AND table_name = ?
+        """, String.class, billingMonth.toString(), table);
+        return status.isEmpty() ? null : status.get(0);
+    }
+
+    private void recordArchive(YearMonth billingMonth, String table, String archiveTable, String status) {
+        jdbcTemplate.update("""
+            INSERT INTO BILLING_PARTITION_ARCHIVE_LOG
+                (billing_month, table_name, archive_table, status, row_count)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                archive_table = VALUES(archive_table),
+                status = VALUES(status),
+                row_count = VALUES(row_count)
+        """, billingMonth.toString(), table, archiveTable, status,
+                tableExists(archiveTable) ? countRows(archiveTable) : 0L);
+    }
+
+    /* =========================
+     * 공통 util
+     * ========================= */
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("""
+            SELECT PARTITION_NAME
+            FROM INFORMATION_SCHEMA.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+              AND TABLE_NAME = ?
+              AND PARTITION_NAME IS NOT NULL
+            ORDER BY PARTITION_ORDINAL_POSITION
+        """, String.class, table);
+    }
+
+    private long countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject("""
+            SELECT COUNT(*)
+            FROM INFORMATION_SCHEMA.TABLES
+            WHERE TABLE_SCHEMA = DATABASE()
+              AND TABLE_NAME = ?
+        """, Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // pYYYYMM 중 가장 늦은 월 (없으면 null)
+    private YearMonth lastMonthPartition(List<String> partitions) {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : partitions) {
+            if (name.matches("p\\d{6}")) {
+                months.add(YearMonth.parse(name.substring(1), YYYYMM));
+            }
+        }
+        return months.stream().max(YearMonth::compareTo).orElse(null);
+    }
+}
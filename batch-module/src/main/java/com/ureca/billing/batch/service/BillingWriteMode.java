@@ -0,0 +1,23 @@
+package com.ureca.billing.batch.service;
+
+/**
+ * 청구 배치의 BILL_DETAILS / OUTBOX_EVENTS 적재 방식 (Job 파라미터 writeMode)
+ */
+public enum BillingWriteMode {
+
+    /**
+     * JdbcTemplate.batchUpdate (행마다 파라미터 세트)
+     * - rewriteBatchedStatements=true면 드라이버가 multi-row INSERT로 재작성
+     */
+    BATCH,
+
+    /**
+     * LOAD DATA LOCAL INFILE (메모리 스트림을 TSV로 전송)
+     * - 서버 local_infile=ON, 드라이버 allowLoadLocalInfile=true 필요
+     */
+    BULK_LOAD;
+
+    public static BillingWriteMode from(String value) {
+        return value == null || value.isBlank() ? BATCH : valueOf(value.trim().toUpperCase());
+    }
+}
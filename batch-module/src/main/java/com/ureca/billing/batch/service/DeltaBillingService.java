@@ -0,0 +1,422 @@
+package com.ureca.billing.batch.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ureca.billing.batch.util.BillDetailBuffer.DetailKind;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 증분(delta) 청구 서비스
+ *
+ * [대상 분류] (청구월 M, 전월 P, 전월 마감 기준 시각 W)
+ * - NEW          : M에 청구 대상인데 P 청구서가 없는 사용자
+ * - SUBSCRIPTION : USER_PLANS / USER_ADDONS 행이 W 이후 추가·변경된 사용자
+ *                  + 행이 삭제된 사용자 (updated_at으로는 알 수 없으므로 P 청구서의 정기 항목과
+ *                    M에 유효한 가입 정보의 건수 / 금액이 다르면 재계산)
+ * - PERIOD       : 가입 기간이 M에 시작했거나 P에 종료되어 유효 여부가 달라진 사용자
+ * - INSTALLMENT  : M에 청구할 단말 할부가 있는 사용자 (남은 개월 차감 + 완납 시 금액 변경)
+ * - ARREARS      : 미납액이 있는 사용자 (납부 여부에 따라 매월 달라짐)
+ * → BILLING_DELTA_USERS에 기록하고, 청구 Step은 이 사용자만 전체 재계산한다.
+ *
+ * [이월] (나머지 = P 청구서가 있고 변경이 없는 사용자)
+ * - BILLS / BILL_DETAILS(BASE_FEE, ADDON_FEE)를 전월에서 집합 복사
+ * - 소액결제는 매월 달라지므로 M의 집계(또는 건별) 데이터로 상세를 새로 만든다.
+ * - user_id 구간 단위로 나눠 실행 (구간마다 별도 트랜잭션)
+ *
+ * [전체 재계산으로 대체하는 경우]
+ * - 전월 마감 기록(BILLING_CLOSES)이 없거나, 요금표(priceVersion)가 바뀐 경우
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeltaBillingService {
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final BillIdAllocator billIdAllocator;
+
+    /* =========================
+     * 전월 마감 조회
+     * ========================= */
+    public PreviousClose findPreviousClose(YearMonth billingMonth) {
+        List<PreviousClose> closes = namedJdbc.query("""
+            SELECT billing_month, source_as_of, price_version
+            FROM BILLING_CLOSES
+            WHERE billing_month = :month
+        """, Map.of("month", billingMonth.minusMonths(1).toString()),
+        (rs, rowNum) -> PreviousClose.builder()
+                .billingMonth(rs.getString("billing_month"))
+                .sourceAsOf(rs.getTimestamp("source_as_of").toLocalDateTime())
+                .priceVersion(rs.getString("price_version"))
+                .build());
+
+        return closes.isEmpty() ? null : closes.get(0);
+    }
+
+    /* =========================
+     * 재계산 대상 사용자 기록
+     * ========================= */
+    /**
+     * @return 사유별 건수 (NEW / SUBSCRIPTION / SUBSCRIPTION_DELETED / PERIOD / INSTALLMENT / ARREARS)
+     */
+    @Transactional
+    public Map<String, Integer> planDeltaUsers(YearMonth billingMonth, PreviousClose previousClose) {
+        Map<String, Object> params = monthParams(billingMonth);
+        params.put("sourceAsOf", previousClose.getSourceAsOf());
+
+        namedJdbc.update("DELETE FROM BILLING_DELTA_USERS WHERE billing_month = :month", params);
+
+        Map<String, Integer> counts = new HashMap<>();
+
+        // 사유가 겹치면 먼저 기록된 사유 유지 (INSERT IGNORE)
+        counts.put("SUBSCRIPTION", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, up.user_id, 'SUBSCRIPTION' FROM USER_PLANS up WHERE up.updated_at >= :sourceAsOf
+            UNION
+            SELECT :month, ua.user_id, 'SUBSCRIPTION' FROM USER_ADDONS ua WHERE ua.updated_at >= :sourceAsOf
+        """, params));
+
+        // 가입 행 삭제(hard delete): P 청구서의 요금제 / 부가서비스 라인과 현재 M 유효 가입 정보 비교
+        // - 요금표(priceVersion)가 같을 때만 이 단계에 오므로 금액 차이 = 가입 정보 차이
+        // - 요금제는 Reader와 같이 1라인 (여러 건이면 그중 하나의 월정액과 같으면 일치로 봄)
+        counts.put("SUBSCRIPTION_DELETED", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, pb.user_id, 'SUBSCRIPTION'
+            FROM BILLS pb
+            LEFT JOIN (
+                SELECT pd.bill_id,
+                       SUM(pd.charge_category = 'BASE_FEE') AS plan_lines,
+                       SUM(pd.charge_category = 'ADDON_FEE') AS addon_lines
+                FROM BILL_DETAILS pd
+                WHERE pd.billing_month = :prevMonth
+                  AND pd.charge_category IN ('BASE_FEE', 'ADDON_FEE')
+                GROUP BY pd.bill_id
+            ) prev ON prev.bill_id = pb.bill_id
+            LEFT JOIN (
+                SELECT ua.user_id, COUNT(*) AS addon_count, SUM(a.monthly_fee) AS addon_fee
+                FROM USER_ADDONS ua
+                JOIN ADDONS a ON a.addon_id = ua.addon_id
+                WHERE ua.start_date < :nextMonthStart
+                  AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
+                GROUP BY ua.user_id
+            ) cur ON cur.user_id = pb.user_id
+            WHERE pb.billing_month = :prevMonth
+              AND (
+                  COALESCE(prev.addon_lines, 0) <> COALESCE(cur.addon_count, 0)
+                  OR pb.addon_fee_amount <> COALESCE(cur.addon_fee, 0)
+                  OR NOT (
+                      EXISTS (
+                          SELECT 1 FROM USER_PLANS up
+                          JOIN PLANS p ON p.plan_id = up.plan_id
+                          WHERE up.user_id = pb.user_id
+                            AND up.start_date < :nextMonthStart
+                            AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                            AND p.monthly_fee = pb.base_fee_amount
+                      )
+                      OR (
+                          COALESCE(prev.plan_lines, 0) = 0
+                          AND NOT EXISTS (
+                              SELECT 1 FROM USER_PLANS up
+                              WHERE up.user_id = pb.user_id
+                                AND up.start_date < :nextMonthStart
+                                AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                          )
+                      )
+                  )
+              )
+        """, params));
+
+        counts.put("PERIOD", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, up.user_id, 'PERIOD'
+            FROM USER_PLANS up
+            WHERE (up.start_date >= :monthStart AND up.start_date < :nextMonthStart)
+               OR (up.end_date >= :prevMonthStart AND up.end_date < :monthStart)
+            UNION
+            SELECT :month, ua.user_id, 'PERIOD'
+            FROM USER_ADDONS ua
+            WHERE (ua.start_date >= :monthStart AND ua.start_date < :nextMonthStart)
+               OR (ua.end_date >= :prevMonthStart AND ua.end_date < :monthStart)
+        """, params));
+
+        counts.putAll(planInstallmentAndArrearsUsers(namedJdbc, params));
+
+        counts.put("NEW", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, u.user_id, 'NEW'
+            FROM USERS u
+            WHERE (
+                EXISTS (
+                    SELECT 1 FROM USER_PLANS up
+                    WHERE up.user_id = u.user_id
+                      AND up.start_date < :nextMonthStart
+                      AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                )
+                OR
+                EXISTS (
+                    SELECT 1 FROM USER_ADDONS ua
+                    WHERE ua.user_id = u.user_id
+                      AND ua.start_date < :nextMonthStart
+                      AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
+                )
+            )
+            AND NOT EXISTS (
+                SELECT 1 FROM BILLS pb
+                WHERE pb.user_id = u.user_id
+                  AND pb.billing_month = :prevMonth
+            )
+        """, params));
+
+        log.info("[DELTA] {} delta users planned: {}", billingMonth, counts);
+        return counts;
+    }
+
+    /**
+     * 할부 / 미납 사용자 기록 (증분 청구, 사전 청구 마감 공통)
+     * - 이월(전월 복사) / 승격(staging 복사)으로는 할부 차감과 미납 변동을 반영할 수 없으므로 항상 재계산
+     * - 조건은 BillingRecordItemReader의 할부 / 미납 커서와 같음 (달력 월 기준)
+     *
+     * @param params month / nextMonthStart 포함
+     */
+    static Map<String, Integer> planInstallmentAndArrearsUsers(NamedParameterJdbcTemplate namedJdbc,
+                                                               Map<String, Object> params) {
+        Map<String, Integer> counts = new HashMap<>();
+
+        counts.put("INSTALLMENT", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT DISTINCT :month, di.user_id, 'INSTALLMENT'
+            FROM DEVICE_INSTALLMENTS di
+            WHERE di.created_at < :nextMonthStart
+              AND (
+                  (di.status = 'ONGOING'
+                   AND di.remaining_months > 0
+                   AND (di.last_billed_month IS NULL OR di.last_billed_month < :month))
+                  OR di.last_billed_month = :month
+              )
+        """, params));
+
+        counts.put("ARREARS", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT DISTINCT :month, ba.user_id, 'ARREARS'
+            FROM BILL_ARREARS ba
+            WHERE ba.arrears_status IN ('UNPAID', 'PARTIAL')
+              AND ba.due_date < :nextMonthStart
+              AND (ba.carried_month IS NULL OR ba.carried_month = :month)
+        """, params));
+
+        return counts;
+    }
+
+    /**
+     * 전월 청구서가 있는 user_id 범위 [min, max] (없으면 null)
+     */
+    public long[] previousBillRange(YearMonth billingMonth) {
+        return namedJdbc.queryForObject("""
+            SELECT MIN(user_id) AS min_id, MAX(user_id) AS max_id
+            FROM BILLS
+            WHERE billing_month = :prevMonth
+        """, monthParams(billingMonth), (rs, rowNum) ->
+                rs.getObject("min_id") == null
+                        ? null
+                        : new long[]{rs.getLong("min_id"), rs.getLong("max_id")});
+    }
+
+    /* =========================
+     * 이월 (user_id 구간 단위)
+     * ========================= */
+    /**
+     * 변경 없는 사용자의 청구서를 전월에서 이월
+     *
+     * @param itemizedMicroPayments true면 소액결제 상세를 건별로 생성 (false면 결제유형별 합계)
+     * @return 이번 구간에서 새로 만든 청구서 수
+     */
+    @Transactional
+    public int carryForward(YearMonth billingMonth, long fromUserId, long toUserId,
+                            boolean itemizedMicroPayments) {
+        Map<String, Object> params = monthParams(billingMonth);
+        params.put("fromUserId", fromUserId);
+        params.put("toUserId", toUserId);
+        params.put("issueDate", LocalDate.now());
+        params.put("settlementDate", billingMonth.atEndOfMonth());
+        params.put("microType", DetailKind.MICRO_PAYMENT.getDetailType());
+        params.put("microSummaryPrefix", DetailKind.MICRO_PAYMENT_SUMMARY_PREFIX);
+        params.put("microCategory", DetailKind.MICRO_PAYMENT.getChargeCategory().name());
+
+        /* =========================
+         * 1️⃣ BILLS: 아직 이번 달 청구서가 없는 이월 대상만 생성 (bill_id는 선할당 블록에서 순서대로)
+         * ========================= */
+        String newBillCondition = """
+            FROM BILLS pb
+            WHERE pb.billing_month = :prevMonth
+              AND pb.user_id BETWEEN :fromUserId AND :toUserId
+              AND NOT EXISTS (SELECT 1 FROM BILLING_DELTA_USERS d
+                              WHERE d.billing_month = :month AND d.user_id = pb.user_id)
+              AND NOT EXISTS (SELECT 1 FROM BILLS cb
+                              WHERE cb.user_id = pb.user_id AND cb.billing_month = :month)
+        """;
+
+        Integer newBills = namedJdbc.queryForObject("SELECT COUNT(*) " + newBillCondition, params, Integer.class);
+        if (newBills != null && newBills > 0) {
+            params.put("firstBillId", billIdAllocator.allocate(newBills));
+            params.put("newBills", newBills);
+            namedJdbc.update("""
+                INSERT INTO BILLS
+                  (bill_id, user_id, billing_month, settlement_date, bill_issue_date,
+                   total_amount, base_fee_amount, addon_fee_amount, micro_payment_amount)
+                SELECT :firstBillId + ROW_NUMBER() OVER (ORDER BY pb.user_id) - 1,
+                       pb.user_id, :month, :settlementDate, :issueDate,
+                       pb.base_fee_amount + pb.addon_fee_amount, pb.base_fee_amount, pb.addon_fee_amount, 0
+            """ + newBillCondition, params);
+
+            // bill_id 단독 유일성 검사 (V39, 다른 월과 겹치면 중복 키 오류)
+            namedJdbc.update("""
+                INSERT INTO BILL_ID_REGISTRY (bill_id, billing_month)
+                SELECT bill_id, billing_month
+                FROM BILLS
+                WHERE billing_month = :month
+                  AND bill_id BETWEEN :firstBillId AND :firstBillId + :newBills - 1
+            """, params);
+        }
+
+        // 이번 달 청구서 중 이월 대상 (전월 청구서 있음 + 재계산 대상 아님)
+        String carried = """
+            cb.billing_month = :month
+              AND cb.user_id BETWEEN :fromUserId AND :toUserId
+              AND NOT EXISTS (SELECT 1 FROM BILLING_DELTA_USERS d
+                              WHERE d.billing_month = :month AND d.user_id = cb.user_id)
+        """;
+
+        /* =========================
+         * 2️⃣ BILL_DETAILS 교체 (재실행 시 기존 상세 삭제)
+         * ========================= */
+        namedJdbc.update("""
+            DELETE bd FROM BILL_DETAILS bd
+            JOIN BILLS cb ON cb.bill_id = bd.bill_id
+            JOIN BILLS pb ON pb.user_id = cb.user_id AND pb.billing_month = :prevMonth
+            WHERE bd.billing_month = :month
+              AND
+        """ + carried, params);
+
+        // 정기 항목(요금제 / 부가서비스) 복사
+        namedJdbc.update("""
+            INSERT INTO BILL_DETAILS (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+            SELECT cb.bill_id, :month, pd.detail_type, pd.charge_category, pd.amount, pd.related_user_id
+            FROM BILLS cb
+            JOIN BILLS pb ON pb.user_id = cb.user_id AND pb.billing_month = :prevMonth
+            JOIN BILL_DETAILS pd ON pd.billing_month = :prevMonth
+                                AND pd.bill_id = pb.bill_id
+                                AND pd.charge_category IN ('BASE_FEE', 'ADDON_FEE')
+            WHERE
+        """ + carried, params);
+
+        // 이번 달 소액결제
+        if (itemizedMicroPayments) {
+            namedJdbc.update("""
+                INSERT INTO BILL_DETAILS (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+                SELECT cb.bill_id, :month, :microType, :microCategory, mp.amount, cb.user_id
+                FROM BILLS cb
+                JOIN BILLS pb ON pb.user_id = cb.user_id AND pb.billing_month = :prevMonth
+                JOIN MICRO_PAYMENTS mp ON mp.user_id = cb.user_id
+                                      AND mp.payment_date >= :monthStart
+                                      AND mp.payment_date < :nextMonthStart
+                WHERE
+            """ + carried, params);
+        } else {
+            namedJdbc.update("""
+                INSERT INTO BILL_DETAILS (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+                SELECT cb.bill_id, :month, CONCAT(:microSummaryPrefix, mpm.payment_type), :microCategory,
+                       mpm.total_amount, cb.user_id
+                FROM BILLS cb
+                JOIN BILLS pb ON pb.user_id = cb.user_id AND pb.billing_month = :prevMonth
+                JOIN MICRO_PAYMENT_MONTHLY mpm ON mpm.user_id = cb.user_id
+                                              AND mpm.billing_month = :month
+                WHERE
+            """ + carried, params);
+        }
+
+        /* =========================
+         * 3️⃣ BILLS 금액 갱신 (정기 항목 = 전월 소계, 소액결제 = 방금 만든 상세 합계)
+         * ========================= */
+        namedJdbc.update("""
+            UPDATE BILLS cb
+            JOIN BILLS pb ON pb.user_id = cb.user_id AND pb.billing_month = :prevMonth
+            LEFT JOIN (
+                SELECT bd.bill_id, SUM(bd.amount) AS amount
+                FROM BILL_DETAILS bd
+                JOIN BILLS b ON b.bill_id = bd.bill_id
+                WHERE bd.billing_month = :month
+                  AND b.billing_month = :month
+                  AND b.user_id BETWEEN :fromUserId AND :toUserId
+                  AND bd.charge_category = :microCategory
+                GROUP BY bd.bill_id
+            ) micro ON micro.bill_id = cb.bill_id
+            SET cb.base_fee_amount = pb.base_fee_amount,
+                cb.addon_fee_amount = pb.addon_fee_amount,
+                cb.micro_payment_amount = COALESCE(micro.amount, 0),
+                cb.total_amount = pb.base_fee_amount + pb.addon_fee_amount + COALESCE(micro.amount, 0),
+                -- 할부 / 미납 사용자는 이월 대상이 아님 (항상 재계산)
+                cb.device_fee_amount = 0,
+                cb.arrears_amount = 0,
+                cb.bill_issue_date = :issueDate
+            WHERE
+        """ + carried, params);
+
+        return newBills == null ? 0 : newBills;
+    }
+
+    /* =========================
+     * 마감 기록
+     * ========================= */
+    public void recordClose(YearMonth billingMonth, LocalDateTime sourceAsOf, String priceVersion,
+                            boolean delta, Long jobExecutionId) {
+        Map<String, Object> params = monthParams(billingMonth);
+        params.put("sourceAsOf", sourceAsOf);
+        params.put("priceVersion", priceVersion);
+        params.put("mode", delta ? "DELTA" : "FULL");
+        params.put("jobExecutionId", jobExecutionId);
+
+        namedJdbc.update("""
+            INSERT INTO BILLING_CLOSES
+              (billing_month, source_as_of, price_version, billing_mode, bill_count, job_execution_id)
+            SELECT :month, :sourceAsOf, :priceVersion, :mode, COUNT(*), :jobExecutionId
+            FROM BILLS
+            WHERE billing_month = :month
+            ON DUPLICATE KEY UPDATE
+              source_as_of = VALUES(source_as_of),
+              price_version = VALUES(price_version),
+              billing_mode = VALUES(billing_mode),
+              bill_count = VALUES(bill_count),
+              job_execution_id = VALUES(job_execution_id)
+        """, params);
+    }
+
+    private Map<String, Object> monthParams(YearMonth billingMonth) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("month", billingMonth.toString());
+        params.put("prevMonth", billingMonth.minusMonths(1).toString());
+        params.put("monthStart", billingMonth.atDay(1));
+        params.put("nextMonthStart", billingMonth.plusMonths(1).atDay(1));
+        params.put("prevMonthStart", billingMonth.minusMonths(1).atDay(1));
+        return params;
+    }
+
+    @Getter
+    @Builder
+    public static class PreviousClose {
+        private String billingMonth;
+        private LocalDateTime sourceAsOf;
+        private String priceVersion;
+    }
+}
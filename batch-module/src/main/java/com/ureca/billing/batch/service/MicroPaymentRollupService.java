@@ -0,0 +1,123 @@
+package com.ureca.billing.batch.service;
+
+import java.time.YearMonth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MICRO_PAYMENT_MONTHLY 갱신
+ *
+ * [증분 반영] catchUp
+ * - MICRO_PAYMENT_ROLLUP_WATERMARK(V38)에 집계에 반영한 마지막 payment_id를 기록한다.
+ * - 청구 Job 첫 Step에서 watermark 이후 결제만 PK 범위로 읽어 (user_id, 월, 결제유형)별로 누적한다.
+ *   (MICRO_PAYMENTS는 파티션 테이블이 아님 → 월 전체를 세지 않고 새로 들어온 행만 읽음)
+ * - 결제 적재 경로는 MICRO_PAYMENTS에만 INSERT 하면 된다. (집계를 직접 갱신하면 이중 누적)
+ * - grace-seconds 이내에 들어온 결제는 다음 실행에서 반영
+ *   (AUTO_INCREMENT 값은 커밋 순서와 다를 수 있음 → 아직 커밋되지 않은 앞 번호를 건너뛰지 않도록)
+ *   결제 INSERT 트랜잭션은 grace-seconds 안에 커밋되어야 한다.
+ *
+ * [재생성] rebuild (microPaymentRollupJob)
+ * - 원장을 직접 고친 경우(UPDATE / DELETE, 과거 결제 보정) 해당 월을 원장에서 다시 만든다.
+ * - watermark까지만 집계 → 이후 catchUp이 같은 결제를 다시 더하지 않음
+ *
+ * - 청구 Step과 동시에 실행하지 않는다. (갱신 트랜잭션 커밋 전 스냅샷을 읽은 Reader는 이전 집계를 사용)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MicroPaymentRollupService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 이 시간 안에 들어온 결제는 다음 catchUp에서 반영 (커밋 순서 역전 대비)
+    @Value("${app.batch.billing.micro-payment-rollup.grace-seconds:60}")
+    private int graceSeconds;
+
+    /**
+     * watermark 이후 결제를 집계에 누적하고 watermark를 옮긴다.
+     *
+     * @return 반영한 결제 건수
+     */
+    @Transactional
+    public long catchUp() {
+        long watermark = lockWatermark();
+
+        Long upper = jdbcTemplate.queryForObject("""
+            SELECT MAX(payment_id)
+            FROM MICRO_PAYMENTS
+            WHERE payment_id > ?
+              AND created_at < NOW() - INTERVAL ? SECOND
+        """, Long.class, watermark, graceSeconds);
+
+        if (upper == null) {
+            log.info("[ROLLUP] MICRO_PAYMENT_MONTHLY is up to date. watermark={}", watermark);
+            return 0;
+        }
+
+        Long payments = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM MICRO_PAYMENTS WHERE payment_id > ? AND payment_id <= ?",
+                Long.class, watermark, upper);
+
+        jdbcTemplate.update("""
+            INSERT INTO MICRO_PAYMENT_MONTHLY
+              (user_id, billing_month, payment_type, payment_count, total_amount)
+            SELECT mp.user_id, DATE_FORMAT(mp.payment_date, '%Y-%m'), mp.payment_type, COUNT(*), SUM(mp.amount)
+            FROM MICRO_PAYMENTS mp
+            WHERE mp.payment_id > ?
+              AND mp.payment_id <= ?
+            GROUP BY mp.user_id, DATE_FORMAT(mp.payment_date, '%Y-%m'), mp.payment_type
+            ON DUPLICATE KEY UPDATE
+              payment_count = payment_count + VALUES(payment_count),
+              total_amount = total_amount + VALUES(total_amount)
+        """, watermark, upper);
+
+        updateWatermark(upper);
+        log.info("[ROLLUP] MICRO_PAYMENT_MONTHLY caught up. payment_id {} ~ {}, payments={}",
+                watermark + 1, upper, payments);
+        return payments != null ? payments : 0;
+    }
+
+    @Transactional
+    public int rebuild(YearMonth billingMonth) {
+        long watermark = lockWatermark();
+
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM MICRO_PAYMENT_MONTHLY WHERE billing_month = ?",
+                billingMonth.toString());
+
+        int inserted = jdbcTemplate.update("""
+            INSERT INTO MICRO_PAYMENT_MONTHLY
+              (user_id, billing_month, payment_type, payment_count, total_amount)
+            SELECT mp.user_id, ?, mp.payment_type, COUNT(*), SUM(mp.amount)
+            FROM MICRO_PAYMENTS mp
+            WHERE mp.payment_date >= ?
+              AND mp.payment_date < ?
+              AND mp.payment_id <= ?
+            GROUP BY mp.user_id, mp.payment_type
+        """, billingMonth.toString(),
+                billingMonth.atDay(1), billingMonth.plusMonths(1).atDay(1), watermark);
+
+        log.info("[ROLLUP] MICRO_PAYMENT_MONTHLY rebuilt. billingMonth={}, deleted={}, inserted={}, watermark={}",
+                billingMonth, deleted, inserted, watermark);
+        return inserted;
+    }
+
+    // 동시 실행(catchUp / rebuild) 직렬화
+    private long lockWatermark() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_payment_id FROM MICRO_PAYMENT_ROLLUP_WATERMARK WHERE id = 1 FOR UPDATE",
+                Long.class);
+    }
+
+    private void updateWatermark(long lastPaymentId) {
+        jdbcTemplate.update(
+                "UPDATE MICRO_PAYMENT_ROLLUP_WATERMARK SET last_payment_id = ? WHERE id = 1",
+                lastPaymentId);
+    }
+}
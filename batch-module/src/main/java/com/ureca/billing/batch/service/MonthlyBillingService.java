@@ -1,25 +1,31 @@
 package com.ureca.billing.batch.service;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.dto.OutboxEventsCreated;
+import com.ureca.billing.batch.util.BillDetailBuffer;
+import com.ureca.billing.batch.util.BillingCycle;
+import com.ureca.billing.batch.util.BillDetailBuffer.DetailKind;
 import com.ureca.billing.core.dto.BillingMessageDto;
-import com.ureca.billing.core.security.crypto.AesUtil;
-import com.ureca.billing.core.security.crypto.CryptoKeyProvider;
 
 import lombok.Builder;
 import lombok.Getter;
@@ -33,182 +39,289 @@ public class MonthlyBillingService {
 
     private static final int IN_CLAUSE_SIZE = 10000;
     private static final int DETAIL_BATCH_SIZE = 10000;
+    private static final DateTimeFormatter YMD = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private final NamedParameterJdbcTemplate namedJdbc;
     private final JdbcTemplate jdbcTemplate;
-    private final ObjectMapper objectMapper;
-    private final CryptoKeyProvider keyProvider;
+    private final BillingBulkLoader bulkLoader;
+    private final OutboxRowEncoder outboxRowEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     /* =====================================================
      * Step 1 : BILLS / BILL_DETAILS 생성
      * ===================================================== */
+    /**
+     * @param records BillingRecordItemReader가 user_id 순으로 병합해 둔 사용자별 요금 데이터
+     *                (사용자/요금 조회는 Reader 단계에서 끝나므로 여기서는 INSERT + 할부 차감 UPDATE만 수행)
+     * @param cycleDay 청구 기준일 cohort (null이면 달력 월) → 정산 기준일 = 청구 구간 마지막 날
+     * @param fusedOutbox true면 같은 트랜잭션에서 OUTBOX_EVENTS까지 생성 (Step 2 생략용)
+     * @param writeMode BILL_DETAILS / OUTBOX_EVENTS 적재 방식
+     */
     @Transactional
-    public void createBills(List<Long> userIds, YearMonth billingMonth) {
+    public void createBills(List<BillingRecord> records, YearMonth billingMonth, Integer cycleDay,
+                            boolean fusedOutbox, BillingWriteMode writeMode) {
 
-        if (userIds == null || userIds.isEmpty()) return;
+        if (records == null || records.isEmpty()) return;
 
-        LocalDate monthStart = billingMonth.atDay(1);
-        LocalDate nextMonthStart = billingMonth.plusMonths(1).atDay(1);
+        LocalDate settlementDate = BillingCycle.settlementDate(billingMonth, cycleDay);
 
         /* =========================
-         * 1️⃣ 사용자 정보 조회
+         * 1️⃣ BILLS INSERT / UPDATE
+         * - bill_id는 Reader에서 확정(기존 청구서 or 선할당 블록)되므로
+         *   INSERT 후 bill_id를 다시 조회하지 않는다.
+         * - 총액/항목별 소계도 함께 기록 (조회 시 BILL_DETAILS SUM 제거용)
+         * - 새 청구서는 INSERT만 한다. (ON DUPLICATE KEY UPDATE 없음)
+         *   → bill_id가 다른 사용자의 청구서와 겹치거나 같은 사용자의 청구서가 그 사이 생겼으면
+         *     덮어쓰지 않고 청크를 실패시킴 (재시작 시 Reader가 기존 청구서로 다시 읽음)
+         * - 기존 청구서는 bill_id + user_id가 모두 일치하는 행만 UPDATE
+         * - 새 청구서 bill_id는 BILL_ID_REGISTRY(V39)에도 기록
+         *   → BILLS PK는 (bill_id, billing_month)라 다른 월과 겹치는 bill_id는 여기서 중복 키로 실패
          * ========================= */
-        Map<Long, UserContactInfo> userContacts = new HashMap<>();
-
-        for (List<Long> part : partition(userIds)) {
-            namedJdbc.query("""
-                SELECT user_id, email_cipher, phone_cipher, name
-                FROM USERS
-                WHERE user_id IN (:userIds)
-            """, Map.of("userIds", part),
-            (RowCallbackHandler) rs -> {
-                userContacts.put(
-                        rs.getLong("user_id"),
-                        UserContactInfo.builder()
-                                .emailCipher(rs.getString("email_cipher"))
-                                .phoneCipher(rs.getString("phone_cipher"))
-                                .name(rs.getString("name"))
-                                .build()
-                );
-            });
+        List<BillingRecord> newBills = new ArrayList<>(records.size());
+        List<BillingRecord> existingBills = new ArrayList<>();
+        List<Long> existingBillIds = new ArrayList<>();
+        for (BillingRecord record : records) {
+            if (record.isExistingBill()) {
+                existingBills.add(record);
+                existingBillIds.add(record.getBillId());
+            } else {
+                newBills.add(record);
+            }
         }
 
-        /* =========================
-         * 2️⃣ 요금 데이터 조회
-         * ========================= */
-        Map<Long, Long> planFees = new HashMap<>();
-        Map<Long, List<Long>> addonFees = new HashMap<>();
-        Map<Long, List<Long>> microPayments = new HashMap<>();
-
-        for (List<Long> part : partition(userIds)) {
-            Map<String, Object> params = Map.of(
-                    "userIds", part,
-                    "monthStart", monthStart,
-                    "nextMonthStart", nextMonthStart
-            );
-
-            // PLAN
-            namedJdbc.query("""
-                SELECT up.user_id, p.monthly_fee
-                FROM USER_PLANS up
-                JOIN PLANS p ON p.plan_id = up.plan_id
-                WHERE up.user_id IN (:userIds)
-                  AND up.start_date < :nextMonthStart
-                  AND (up.end_date IS NULL OR up.end_date >= :monthStart)
-            """, params,
-            (RowCallbackHandler) rs ->
-                    planFees.put(rs.getLong("user_id"), rs.getLong("monthly_fee"))
-            );
+        LocalDate issueDate = LocalDate.now();
+        if (!newBills.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO BILL_ID_REGISTRY (bill_id, billing_month)
+                VALUES (?, ?)
+            """, newBills, newBills.size(), (ps, record) -> {
+                ps.setLong(1, record.getBillId());
+                ps.setString(2, billingMonth.toString());
+            });
 
-            // ADDON
-            namedJdbc.query("""
-                SELECT ua.user_id, a.monthly_fee
-                FROM USER_ADDONS ua
-                JOIN ADDONS a ON a.addon_id = ua.addon_id
-                WHERE ua.user_id IN (:userIds)
-                  AND ua.start_date < :nextMonthStart
-                  AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
-            """, params,
-            (RowCallbackHandler) rs ->
-                    addonFees
-                            .computeIfAbsent(rs.getLong("user_id"), k -> new ArrayList<>())
-                            .add(rs.getLong("monthly_fee"))
-            );
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO BILLS
+                  (bill_id, user_id, billing_month, settlement_date, bill_issue_date,
+                   total_amount, base_fee_amount, addon_fee_amount, micro_payment_amount,
+                   device_fee_amount, arrears_amount)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, newBills, newBills.size(), (ps, record) -> {
+                ps.setLong(1, record.getBillId());
+                ps.setLong(2, record.getUserId());
+                ps.setString(3, billingMonth.toString());
+                ps.setObject(4, settlementDate);
+                ps.setObject(5, issueDate);
+                ps.setLong(6, record.getTotalAmount());
+                ps.setLong(7, record.getBaseFeeAmount());
+                ps.setLong(8, record.getAddonFeeAmount());
+                ps.setLong(9, record.getMicroPaymentAmount());
+                ps.setLong(10, record.getDeviceFeeAmount());
+                ps.setLong(11, record.getArrearsAmount());
+            });
+        }
 
-            // MICRO PAYMENT
-            namedJdbc.query("""
-                SELECT user_id, amount
-                FROM MICRO_PAYMENTS
-                WHERE user_id IN (:userIds)
-                  AND payment_date >= :monthStart
-                  AND payment_date < :nextMonthStart
-            """, params,
-            (RowCallbackHandler) rs ->
-                    microPayments
-                            .computeIfAbsent(rs.getLong("user_id"), k -> new ArrayList<>())
-                            .add(rs.getLong("amount"))
-            );
+        if (!existingBills.isEmpty()) {
+            int[][] updated = jdbcTemplate.batchUpdate("""
+                UPDATE BILLS
+                SET bill_issue_date = ?,
+                    total_amount = ?,
+                    base_fee_amount = ?,
+                    addon_fee_amount = ?,
+                    micro_payment_amount = ?,
+                    device_fee_amount = ?,
+                    arrears_amount = ?
+                WHERE bill_id = ?
+                  AND billing_month = ?
+                  AND user_id = ?
+            """, existingBills, existingBills.size(), (ps, record) -> {
+                ps.setObject(1, issueDate);
+                ps.setLong(2, record.getTotalAmount());
+                ps.setLong(3, record.getBaseFeeAmount());
+                ps.setLong(4, record.getAddonFeeAmount());
+                ps.setLong(5, record.getMicroPaymentAmount());
+                ps.setLong(6, record.getDeviceFeeAmount());
+                ps.setLong(7, record.getArrearsAmount());
+                ps.setLong(8, record.getBillId());
+                ps.setString(9, billingMonth.toString());
+                ps.setLong(10, record.getUserId());
+            });
+            // 일치 행 0 = 같은 bill_id의 청구서가 다른 사용자 것 (또는 삭제됨) → 덮어쓰지 않고 실패
+            // (Connector/J 기본 useAffectedRows=false → 값이 그대로여도 일치 행 수 1)
+            int index = 0;
+            for (int[] batch : updated) {
+                for (int rows : batch) {
+                    if (rows == 0) {
+                        BillingRecord record = existingBills.get(index);
+                        throw new IllegalStateException("bill_id " + record.getBillId() + " (" + billingMonth
+                                + ") does not belong to user_id " + record.getUserId());
+                    }
+                    index++;
+                }
+            }
         }
 
         /* =========================
-         * 3️⃣ BILLS INSERT
+         * 2️⃣ BILL_DETAILS 교체 (replace-per-bill)
+         * - 이미 있던 청구서(재실행/재시작)는 기존 상세를 지우고 다시 넣는다.
+         *   → 같은 월을 몇 번 돌려도 상세 라인이 중복되지 않음
+         * - 새 청구서는 상세가 없으므로 DELETE 생략
          * ========================= */
-        jdbcTemplate.batchUpdate("""
-            INSERT INTO BILLS
-              (user_id, billing_month, settlement_date, bill_issue_date)
-            VALUES (?, ?, ?, ?)
-            ON DUPLICATE KEY UPDATE
-              bill_issue_date = VALUES(bill_issue_date)
-        """, userIds, userIds.size(), (ps, uid) -> {
-            ps.setLong(1, uid);
-            ps.setString(2, billingMonth.toString());
-            ps.setObject(3, billingMonth.atEndOfMonth());
-            ps.setObject(4, LocalDate.now());
-        });
+        for (List<Long> part : partition(existingBillIds)) {
+            namedJdbc.update("DELETE FROM BILL_DETAILS WHERE billing_month = :billingMonth AND bill_id IN (:billIds)",
+                    Map.of("billingMonth", billingMonth.toString(), "billIds", part));
+        }
 
-        /* =========================
-         * 4️⃣ bill_id 매핑
-         * ========================= */
-        Map<Long, Long> billIdByUser = new HashMap<>();
+        BillDetailBuffer buffer = new BillDetailBuffer(DETAIL_BATCH_SIZE);
+        List<BillingMessageDto> messages = fusedOutbox ? new ArrayList<>(records.size()) : List.of();
+        // 재실행 시 이미 보관 테이블로 옮겨진 알림이 있는 청구서는 Outbox를 다시 만들지 않음
+        Set<Long> notifiedBillIds = fusedOutbox ? archivedBillIds(existingBillIds, billingMonth) : Set.of();
 
-        for (List<Long> part : partition(userIds)) {
-            namedJdbc.query("""
-                SELECT bill_id, user_id
-                FROM BILLS
-                WHERE billing_month = :billingMonth
-                  AND user_id IN (:userIds)
-            """, Map.of(
-                    "billingMonth", billingMonth.toString(),
-                    "userIds", part
-            ),
-            (RowCallbackHandler) rs ->
-                    billIdByUser.put(rs.getLong("user_id"), rs.getLong("bill_id"))
-            );
-        }
+        for (BillingRecord record : records) {
+            long uid = record.getUserId();
+            long billId = record.getBillId();
 
-        /* =========================
-         * 5️⃣ BILL_DETAILS batch insert
-         * ========================= */
-        List<Object[]> buffer = new ArrayList<>(DETAIL_BATCH_SIZE);
+            if (record.getPlanFee() != null) {
+                buffer.add(billId, DetailKind.PLAN, record.getPlanFee(), uid);
+            }
 
-        for (Long uid : userIds) {
-            Long billId = billIdByUser.get(uid);
-            if (billId == null) continue;
+            for (long fee : record.getAddonFees()) {
+                buffer.add(billId, DetailKind.ADDON, fee, uid);
+            }
 
-            if (planFees.containsKey(uid)) {
-                buffer.add(new Object[]{
-                        billId, "PLAN", "BASE_FEE", planFees.get(uid), uid
-                });
+            long[] microPayments = record.getMicroPayments();
+            String[] microPaymentTypes = record.getMicroPaymentTypes();
+            for (int i = 0; i < microPayments.length; i++) {
+                buffer.add(billId, DetailKind.microPayment(microPaymentTypes == null ? null : microPaymentTypes[i]),
+                        microPayments[i], uid);
             }
 
-            for (Long fee : addonFees.getOrDefault(uid, List.of())) {
-                buffer.add(new Object[]{
-                        billId, "ADDON", "ADDON_FEE", fee, uid
-                });
+            for (long fee : record.getDeviceFees()) {
+                buffer.add(billId, DetailKind.DEVICE, fee, uid);
             }
 
-            for (Long amt : microPayments.getOrDefault(uid, List.of())) {
-                buffer.add(new Object[]{
-                        billId, "MICRO_PAYMENT", "MICRO_PAYMENT", amt, uid
-                });
+            if (record.getArrearsAmount() > 0) {
+                buffer.add(billId, DetailKind.ARREARS, record.getArrearsAmount(), uid);
             }
 
             if (buffer.size() >= DETAIL_BATCH_SIZE) {
-                flushBillDetails(buffer);
+                flushBillDetails(buffer, billingMonth, writeMode);
+            }
+
+            /* =========================
+             * 3️⃣ (fused 모드) Outbox 메시지 생성
+             * - 금액/수신자 정보가 이미 메모리에 있으므로 BILLS/BILL_DETAILS 재조회 없이 만든다.
+             * - 직렬화/암호화는 루프가 끝난 뒤 OutboxRowEncoder가 병렬로 처리
+             * ========================= */
+            if (fusedOutbox && !notifiedBillIds.contains(billId)) {
+                messages.add(toBillingMessage(BillInfo.builder()
+                        .billId(billId)
+                        .userId(uid)
+                        .billingMonth(billingMonth.toString())
+                        .totalAmount(record.getTotalAmount())
+                        .baseFeeAmount(record.getBaseFeeAmount())
+                        .addonFeeAmount(record.getAddonFeeAmount())
+                        .microPaymentAmount(record.getMicroPaymentAmount())
+                        .deviceFeeAmount(record.getDeviceFeeAmount())
+                        .arrearsAmount(record.getArrearsAmount())
+                        .emailCipher(record.getEmailCipher())
+                        .phoneCipher(record.getPhoneCipher())
+                        .name(record.getName())
+                        .build()));
             }
         }
 
-        flushBillDetails(buffer);
+        flushBillDetails(buffer, billingMonth, writeMode);
+        advanceInstallments(records, billingMonth);
+        carryArrears(records, billingMonth);
+        if (fusedOutbox) {
+            insertOutboxEvents(outboxRowEncoder.encode(messages), billingMonth, writeMode);
+        }
+    }
+
+    /* =========================
+     * 4️⃣ 단말 할부 차감 (청크당 UPDATE 1회)
+     * - 이번 청크에서 청구한 할부의 remaining_months를 1 줄이고, 0이 되면 COMPLETED
+     * - last_billed_month가 이미 이번 달이면 건너뜀 → 재실행/재시작해도 한 달에 한 번만 차감
+     * - MySQL 단일 테이블 UPDATE는 SET을 왼쪽부터 평가하므로 status를 remaining_months보다 먼저 계산
+     * ========================= */
+    private void advanceInstallments(List<BillingRecord> records, YearMonth billingMonth) {
+        List<Long> installmentIds = new ArrayList<>();
+        for (BillingRecord record : records) {
+            for (long id : record.getInstallmentIds()) installmentIds.add(id);
+        }
+        if (installmentIds.isEmpty()) return;
+
+        namedJdbc.update("""
+            UPDATE DEVICE_INSTALLMENTS
+            SET status = IF(remaining_months <= 1, 'COMPLETED', 'ONGOING'),
+                remaining_months = remaining_months - 1,
+                last_billed_month = :billingMonth
+            WHERE installment_id IN (:installmentIds)
+              AND (last_billed_month IS NULL OR last_billed_month < :billingMonth)
+        """, Map.of("billingMonth", billingMonth.toString(), "installmentIds", installmentIds));
     }
 
-    private void flushBillDetails(List<Object[]> buffer) {
+    /* =========================
+     * 5️⃣ 미납액 이월 기록 (청크당 batchUpdate 1회)
+     * - 이번 청크에서 청구서에 넣은 미납 건에 carried_bill_id / carried_month 기록
+     *   → 다음 달 Reader가 같은 건을 다시 읽지 않음 (납부 전까지 매월 누적 청구되지 않도록)
+     * - 같은 월 재실행/재시작은 carried_month가 같으므로 다시 기록해도 결과 동일
+     * ========================= */
+    private void carryArrears(List<BillingRecord> records, YearMonth billingMonth) {
+        List<long[]> carried = new ArrayList<>();
+        for (BillingRecord record : records) {
+            for (long arrearsId : record.getArrearsIds()) {
+                carried.add(new long[]{arrearsId, record.getBillId()});
+            }
+        }
+        if (carried.isEmpty()) return;
+
+        String month = billingMonth.toString();
+        jdbcTemplate.batchUpdate("""
+            UPDATE BILL_ARREARS
+            SET carried_bill_id = ?, carried_month = ?
+            WHERE arrears_id = ?
+              AND (carried_month IS NULL OR carried_month = ?)
+        """, carried, carried.size(), (ps, row) -> {
+            ps.setLong(1, row[1]);
+            ps.setString(2, month);
+            ps.setLong(3, row[0]);
+            ps.setString(4, month);
+        });
+    }
+
+    private void flushBillDetails(BillDetailBuffer buffer, YearMonth billingMonth, BillingWriteMode writeMode) {
         if (buffer.isEmpty()) return;
 
+        String month = billingMonth.toString();
+        if (writeMode == BillingWriteMode.BULK_LOAD) {
+            bulkLoader.loadBillDetails(buffer, month);
+            buffer.clear();
+            return;
+        }
+
+        // 컬럼 배열에서 바로 바인딩 (행마다 Object[] 생성하지 않음)
         jdbcTemplate.batchUpdate("""
             INSERT INTO BILL_DETAILS
-              (bill_id, detail_type, charge_category, amount, related_user_id)
-            VALUES (?, ?, ?, ?, ?)
-        """, buffer);
+              (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DetailKind kind = buffer.kind(i);
+                ps.setLong(1, buffer.billId(i));
+                ps.setString(2, month);
+                ps.setString(3, kind.getDetailType());
+                ps.setString(4, kind.getChargeCategory().name());
+                ps.setLong(5, buffer.amount(i));
+                ps.setLong(6, buffer.userId(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return buffer.size();
+            }
+        });
 
         buffer.clear();
     }
@@ -217,27 +330,41 @@ public class MonthlyBillingService {
      * Step 2 : Outbox 이벤트 생성
      * ===================================================== */
     @Transactional
-    public void createOutboxEvents(List<Long> billIds) {
+    public void createOutboxEvents(List<Long> billIds, YearMonth billingMonth, BillingWriteMode writeMode) {
 
         if (billIds == null || billIds.isEmpty()) return;
 
-        DateTimeFormatter ymd = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        // Reader가 걸렀더라도 재시작 중 정리 Job이 끼어들 수 있으므로 쓰기 직전에 한 번 더 확인
+        Set<Long> archived = archivedBillIds(billIds, billingMonth);
+        if (!archived.isEmpty()) {
+            billIds = billIds.stream().filter(id -> !archived.contains(id)).toList();
+            if (billIds.isEmpty()) return;
+        }
 
         List<BillInfo> billInfos = new ArrayList<>();
 
         for (List<Long> part : partition(billIds)) {
             namedJdbc.query("""
-                SELECT b.bill_id, b.user_id, b.billing_month,
+                SELECT b.bill_id, b.user_id, b.billing_month, b.total_amount,
+                       b.base_fee_amount, b.addon_fee_amount, b.micro_payment_amount,
+                       b.device_fee_amount, b.arrears_amount,
                        u.email_cipher, u.phone_cipher, u.name
                 FROM BILLS b
                 JOIN USERS u ON u.user_id = b.user_id
-                WHERE b.bill_id IN (:billIds)
-            """, Map.of("billIds", part),
+                WHERE b.billing_month = :billingMonth
+                  AND b.bill_id IN (:billIds)
+            """, Map.of("billingMonth", billingMonth.toString(), "billIds", part),
             (RowCallbackHandler) rs ->
                     billInfos.add(BillInfo.builder()
                             .billId(rs.getLong("bill_id"))
                             .userId(rs.getLong("user_id"))
                             .billingMonth(rs.getString("billing_month"))
+                            .totalAmount(rs.getLong("total_amount"))
+                            .baseFeeAmount(rs.getLong("base_fee_amount"))
+                            .addonFeeAmount(rs.getLong("addon_fee_amount"))
+                            .microPaymentAmount(rs.getLong("micro_payment_amount"))
+                            .deviceFeeAmount(rs.getLong("device_fee_amount"))
+                            .arrearsAmount(rs.getLong("arrears_amount"))
                             .emailCipher(rs.getString("email_cipher"))
                             .phoneCipher(rs.getString("phone_cipher"))
                             .name(rs.getString("name"))
@@ -245,63 +372,85 @@ public class MonthlyBillingService {
             );
         }
 
-        Map<Long, Long> totalAmountByBill = new HashMap<>();
-        for (List<Long> part : partition(billIds)) {
-            namedJdbc.query("""
-                SELECT bill_id, SUM(amount) total_amt
-                FROM BILL_DETAILS
-                WHERE bill_id IN (:billIds)
-                GROUP BY bill_id
-            """, Map.of("billIds", part),
-            (RowCallbackHandler) rs ->
-                    totalAmountByBill.put(rs.getLong("bill_id"), rs.getLong("total_amt"))
-            );
+        List<BillingMessageDto> messages = new ArrayList<>(billInfos.size());
+
+        for (BillInfo info : billInfos) {
+            // 총액 / 소계는 청구서 생성 시 BILLS에 기록됨 (BILL_DETAILS 집계 불필요)
+            messages.add(toBillingMessage(info));
         }
 
-        List<Object[]> outboxRows = new ArrayList<>();
+        // 직렬화 + 암호화는 워커 풀에서 병렬 처리
+        insertOutboxEvents(outboxRowEncoder.encode(messages), billingMonth, writeMode);
+    }
 
-        for (BillInfo info : billInfos) {
-            long total = totalAmountByBill.getOrDefault(info.getBillId(), 0L);
-
-            try {
-                BillingMessageDto dto = BillingMessageDto.builder()
-                        .billId(info.getBillId())
-                        .userId(info.getUserId())
-                        .billYearMonth(info.getBillingMonth().replace("-", ""))
-                        .billDate(LocalDate.now().format(ymd))
-                        .dueDate(LocalDate.now().plusDays(15).format(ymd))
-                        .timestamp(LocalDateTime.now().toString())
-                        .recipientEmail(info.getEmailCipher())
-                        .recipientPhone(info.getPhoneCipher())
-                        .name(info.getName())
-                        .totalAmount(total)
-                        .notificationType("EMAIL")
-                        .build();
-
-                String payload = AesUtil.encrypt(
-                        objectMapper.writeValueAsString(dto),
-                        keyProvider.getCurrentKey()
-                );
-
-                outboxRows.add(new Object[]{
-                        UUID.randomUUID().toString(),
-                        info.getBillId(),
-                        info.getUserId(),
-                        "BILLING_NOTIFY",
-                        "EMAIL",
-                        payload
-                });
-
-            } catch (Exception e) {
-                log.error("Outbox 생성 실패 billId={}", info.getBillId(), e);
-            }
+    /**
+     * 알림 메시지 생성 (fused 모드 / Outbox Step 공통 → 두 경로의 메시지 내용이 같음)
+     */
+    private BillingMessageDto toBillingMessage(BillInfo info) {
+        return BillingMessageDto.builder()
+                .billId(info.getBillId())
+                .userId(info.getUserId())
+                .billYearMonth(info.getBillingMonth().replace("-", ""))
+                .billDate(LocalDate.now().format(YMD))
+                .dueDate(LocalDate.now().plusDays(15).format(YMD))
+                .timestamp(LocalDateTime.now().toString())
+                .recipientEmail(info.getEmailCipher())
+                .recipientPhone(info.getPhoneCipher())
+                .name(info.getName())
+                .notificationType("EMAIL")
+                .totalAmount(info.getTotalAmount())
+                .planFee(info.getBaseFeeAmount())
+                .addonFee(info.getAddonFeeAmount())
+                .microPaymentFee(info.getMicroPaymentAmount())
+                .deviceFee(info.getDeviceFeeAmount())
+                .arrearsAmount(info.getArrearsAmount())
+                .build();
+    }
+
+    private void insertOutboxEvents(List<Object[]> outboxRows, YearMonth billingMonth, BillingWriteMode writeMode) {
+        if (outboxRows.isEmpty()) return;
+
+        String month = billingMonth.toString();
+        // 커밋 후 릴레이를 바로 깨움 (@TransactionalEventListener AFTER_COMMIT)
+        eventPublisher.publishEvent(new OutboxEventsCreated(month, outboxRows.size()));
+
+        if (writeMode == BillingWriteMode.BULK_LOAD) {
+            bulkLoader.loadOutboxEvents(outboxRows, month);
+            return;
         }
 
+        // 재실행 시 이미 만들어진 이벤트(uk_outbox_bill_type)는 그대로 둔다.
         jdbcTemplate.batchUpdate("""
             INSERT INTO OUTBOX_EVENTS
-              (event_id, bill_id, user_id, event_type, notification_type, payload, status, attempt_count)
-            VALUES (?, ?, ?, ?, ?, ?, 'READY', 0)
-        """, outboxRows);
+              (event_id, bill_id, user_id, event_type, notification_type, payload, billing_month, status, attempt_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 'READY', 0)
+            ON DUPLICATE KEY UPDATE
+              outbox_id = outbox_id
+        """, outboxRows, outboxRows.size(), (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setObject(i + 1, row[i]);
+            }
+            ps.setString(row.length + 1, month);
+        });
+    }
+
+    /**
+     * OUTBOX_EVENTS_ARCHIVE로 옮겨진(OutboxCompactionService) 이벤트가 있는 청구서
+     * - 라이브 테이블의 uk_outbox_bill_type은 보관된 이벤트를 모르므로 INSERT 전에 따로 제외한다.
+     */
+    private Set<Long> archivedBillIds(List<Long> billIds, YearMonth billingMonth) {
+        if (billIds.isEmpty()) return Set.of();
+
+        Set<Long> archived = new HashSet<>();
+        for (List<Long> part : partition(billIds)) {
+            archived.addAll(namedJdbc.queryForList("""
+                SELECT bill_id
+                FROM OUTBOX_EVENTS_ARCHIVE
+                WHERE billing_month = :billingMonth
+                  AND bill_id IN (:billIds)
+            """, Map.of("billingMonth", billingMonth.toString(), "billIds", part), Long.class));
+        }
+        return archived;
     }
 
     /* =========================
@@ -315,18 +464,17 @@ public class MonthlyBillingService {
         return result;
     }
 
-    @Getter @Builder
-    private static class UserContactInfo {
-        private String emailCipher;
-        private String phoneCipher;
-        private String name;
-    }
-
     @Getter @Builder
     private static class BillInfo {
         private Long billId;
         private Long userId;
         private String billingMonth;
+        private Long totalAmount;
+        private Long baseFeeAmount;
+        private Long addonFeeAmount;
+        private Long microPaymentAmount;
+        private Long deviceFeeAmount;
+        private Long arrearsAmount;
         private String emailCipher;
         private String phoneCipher;
         private String name;
@@ -0,0 +1,185 @@
+package com.ureca.billing.batch.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OUTBOX_EVENTS 정리 (PUBLISHED → OUTBOX_EVENTS_ARCHIVE)
+ *
+ * [목적]
+ * - 발행이 끝난 행이 계속 쌓이면 payload(LONGTEXT)와 인덱스가 버퍼 풀을 차지해
+ *   릴레이가 읽는 READY / IN_PROGRESS 행까지 디스크에서 읽게 된다.
+ * - 보존 기간(retention-days)이 지난 PUBLISHED 행만 보관 테이블로 옮겨 OUTBOX_EVENTS를 작게 유지
+ *
+ * [청크 처리] 청크 1개 = 트랜잭션 1개
+ * - idx_outbox_published로 대상 chunk-size건을 잠금 (SKIP LOCKED → 다른 인스턴스와 겹치지 않음)
+ * - 청구월별로 묶어 INSERT IGNORE ... SELECT → DELETE (billing_month 조건으로 파티션 1개만 접근)
+ * - 청크 사이 throttle-ms 대기, 1회 실행당 max-rows-per-run건까지 (복제 지연 / undo 증가 억제)
+ *
+ * [보관 테이블]
+ * - 선점/재시도용 컬럼 없이 조회에 필요한 컬럼만, 압축 행 포맷 (V34)
+ * - 청구월 파티션 분리(BillingPartitionService.archive) 대상이 아님
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxCompactionService {
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.batch.outbox.compaction.enabled:true}")
+    private boolean enabled;
+
+    // 발행 후 이 기간이 지난 PUBLISHED 행만 보관 테이블로 이동
+    @Value("${app.batch.outbox.compaction.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.batch.outbox.compaction.chunk-size:5000}")
+    private int chunkSize;
+
+    // 청크 사이 대기 시간
+    @Value("${app.batch.outbox.compaction.throttle-ms:200}")
+    private long throttleMs;
+
+    // 1회 실행당 최대 이동 건수 (남은 행은 다음 실행에서)
+    @Value("${app.batch.outbox.compaction.max-rows-per-run:2000000}")
+    private long maxRowsPerRun;
+
+    private TransactionTemplate chunkTransaction;
+    private Counter archivedCounter;
+
+    // 스케줄 실행과 수동 실행(API)이 겹치지 않도록
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        archivedCounter = meterRegistry.counter("outbox.compaction.archived");
+    }
+
+    /**
+     * 매일 새벽 정리 (기본 03:30)
+     */
+    @Scheduled(cron = "${app.batch.outbox.compaction.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (!enabled) return;
+
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("❌ [OUTBOX COMPACTION] failed", e);
+        }
+    }
+
+    /**
+     * @return 보관 테이블로 옮긴 건수 (이미 실행 중이면 -1)
+     */
+    public long compact() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("[OUTBOX COMPACTION] already running, skipped");
+            return -1;
+        }
+
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            long startMs = System.currentTimeMillis();
+            long total = 0;
+
+            log.info("🚀 [OUTBOX COMPACTION] start. publishedBefore={}, chunkSize={}", cutoff, chunkSize);
+
+            while (total < maxRowsPerRun) {
+                int limit = (int) Math.min(chunkSize, maxRowsPerRun - total);
+                Integer moved = chunkTransaction.execute(status -> compactChunk(cutoff, limit));
+                int count = moved != null ? moved : 0;
+
+                total += count;
+                archivedCounter.increment(count);
+
+                if (count < limit) break;
+
+                try {
+                    Thread.sleep(throttleMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            log.info("✅ [OUTBOX COMPACTION] done. archived={}, elapsed={}ms",
+                    total, System.currentTimeMillis() - startMs);
+            return total;
+
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 청크 1개 이동 (호출한 트랜잭션 안에서 실행)
+     */
+    private int compactChunk(LocalDateTime cutoff, int limit) {
+        // 1. 대상 잠금 (PUBLISHED는 릴레이가 더 이상 갱신하지 않으므로 경합은 다른 정리 인스턴스뿐)
+        List<Map<String, Object>> rows = namedJdbc.queryForList("""
+            SELECT outbox_id, billing_month
+            FROM OUTBOX_EVENTS
+            WHERE status = 'PUBLISHED'
+              AND published_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        """, Map.of("cutoff", cutoff, "limit", limit));
+
+        if (rows.isEmpty()) return 0;
+
+        // 2. 청구월별 이동 (파티션 pruning)
+        Map<String, List<Long>> idsByMonth = rows.stream()
+                .collect(Collectors.groupingBy(
+                        row -> (String) row.get("billing_month"),
+                        Collectors.mapping(row -> ((Number) row.get("outbox_id")).longValue(), Collectors.toList())));
+
+        int moved = 0;
+        for (Map.Entry<String, List<Long>> entry : idsByMonth.entrySet()) {
+            Map<String, Object> params = Map.of("billingMonth", entry.getKey(), "outboxIds", entry.getValue());
+
+            namedJdbc.update("""
+                INSERT IGNORE INTO OUTBOX_EVENTS_ARCHIVE
+                  (outbox_id, billing_month, event_id, bill_id, user_id, event_type, notification_type,
+                   payload, attempt_count, published_at, created_at)
+                SELECT outbox_id, billing_month, event_id, bill_id, user_id, event_type, notification_type,
+                       payload, attempt_count, published_at, created_at
+                FROM OUTBOX_EVENTS
+                WHERE billing_month = :billingMonth
+                  AND outbox_id IN (:outboxIds)
+                  AND status = 'PUBLISHED'
+            """, params);
+
+            moved += namedJdbc.update("""
+                DELETE FROM OUTBOX_EVENTS
+                WHERE billing_month = :billingMonth
+                  AND outbox_id IN (:outboxIds)
+                  AND status = 'PUBLISHED'
+            """, params);
+        }
+
+        log.debug("[OUTBOX COMPACTION] chunk archived={} months={}", moved, idsByMonth.keySet());
+        return moved;
+    }
+}
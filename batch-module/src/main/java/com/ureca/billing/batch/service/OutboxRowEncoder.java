@@ -0,0 +1,134 @@
+package com.ureca.billing.batch.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.core.dto.BillingMessageDto;
+import com.ureca.billing.core.security.crypto.AesUtil;
+import com.ureca.billing.core.security.crypto.CryptoKeyProvider;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * BillingMessageDto → OUTBOX_EVENTS 행 변환기 (직렬화 + AES-GCM 암호화)
+ *
+ * - 청크 단위 DTO 목록을 구간으로 나눠 고정 크기 워커 풀에서 병렬 처리
+ *   · 워커 스레드가 고정이므로 AesUtil의 스레드별 Cipher / SecureRandom이 계속 재사용됨
+ *   · 큐가 가득 차면 호출 스레드가 직접 처리 (CallerRunsPolicy) → 메모리 사용량 제한
+ * - event_id(UUID v4)는 AesUtil의 스레드별 SecureRandom으로 생성 (UUID.randomUUID의 공유 인스턴스 경합 제거)
+ *   · DB 유일성 검사는 월 내에서만 (uk_outbox_event_id = event_id + billing_month)
+ *   · 소비자 Redis 중복 제거는 월 구분 없이 event_id 기준 → 충돌하면 다른 달 알림이 누락되므로
+ *     ThreadLocalRandom(예측 가능 / 시드 공유 가능)이 아닌 암호학적 난수 사용
+ * - 결과 순서는 입력 순서와 동일, 실패한 DTO만 제외
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRowEncoder {
+
+    // 이 건수 미만이면 병렬화 이득보다 작업 분배 비용이 커서 호출 스레드에서 바로 처리
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final ObjectMapper objectMapper;
+    private final CryptoKeyProvider keyProvider;
+
+    // 암호화 워커 수 (0 이하면 CPU 코어 수)
+    @Value("${app.batch.billing.outbox-encrypt.threads:0}")
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.threads = size;
+        this.executor = new ThreadPoolExecutor(
+                size, size, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(size * 2),
+                r -> {
+                    Thread t = new Thread(r, "outbox-encrypt-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return event_id, bill_id, user_id, event_type, notification_type, payload 순서의 행 목록
+     */
+    public List<Object[]> encode(List<BillingMessageDto> messages) {
+        if (messages.isEmpty()) return new ArrayList<>();
+
+        SecretKey key = keyProvider.getCurrentKey();
+        Object[][] rows = new Object[messages.size()][];
+
+        if (messages.size() < PARALLEL_THRESHOLD) {
+            encodeRange(messages, rows, 0, messages.size(), key);
+        } else {
+            int sliceSize = (messages.size() + threads - 1) / threads;
+            List<CompletableFuture<Void>> futures = new ArrayList<>(threads);
+            for (int from = 0; from < messages.size(); from += sliceSize) {
+                int start = from;
+                int end = Math.min(from + sliceSize, messages.size());
+                futures.add(CompletableFuture.runAsync(
+                        () -> encodeRange(messages, rows, start, end, key), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        List<Object[]> result = new ArrayList<>(rows.length);
+        for (Object[] row : rows) {
+            if (row != null) result.add(row);
+        }
+        return result;
+    }
+
+    private void encodeRange(List<BillingMessageDto> messages, Object[][] rows,
+                             int from, int to, SecretKey key) {
+        for (int i = from; i < to; i++) {
+            rows[i] = toOutboxRow(messages.get(i), key);
+        }
+    }
+
+    /**
+     * @return 직렬화/암호화 실패 시 null (해당 청구서만 건너뜀)
+     */
+    private Object[] toOutboxRow(BillingMessageDto dto, SecretKey key) {
+        try {
+            String payload = AesUtil.encrypt(objectMapper.writeValueAsString(dto), key);
+
+            return new Object[]{
+                    AesUtil.randomUuid().toString(),
+                    dto.getBillId(),
+                    dto.getUserId(),
+                    "BILLING_NOTIFY",
+                    "EMAIL",
+                    payload
+            };
+
+        } catch (Exception e) {
+            log.error("Outbox 생성 실패 billId={}", dto.getBillId(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.ureca.billing.batch.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.util.BillDetailBuffer;
+import com.ureca.billing.batch.util.BillDetailBuffer.DetailKind;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사전 청구(pre-billing) 서비스
+ *
+ * [사전 청구] (preBillingJob, 월말 며칠 전)
+ * - 전체 사용자의 임시 청구서를 BILLS_STAGING / BILL_DETAILS_STAGING에 계산해 둔다. (bill_id 없음)
+ * - 완료 시 PRE_BILLING_SNAPSHOTS에 기준 시각(source_as_of)과 요금표 버전을 기록
+ *
+ * [마감] (monthlyBillingJob, deltaMode=true)
+ * - 기준 시각 이후 변경된 사용자만 BILLING_DELTA_USERS로 기록 → 청구 Step이 전체 재계산
+ *   · SUBSCRIPTION : USER_PLANS / USER_ADDONS 추가·변경
+ *                    + 행 삭제 (staging의 요금제 / 부가서비스 라인과 현재 가입 정보의 건수 / 금액 비교)
+ *   · MICRO_PAYMENT: 이번 달 소액결제가 새로 들어옴
+ *   · NEW          : 청구 대상인데 사전 청구 결과가 없음
+ * - 나머지는 staging을 BILLS / BILL_DETAILS로 승격(promote) → 월말 작업량 = 늦은 변경분
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PreBillingService {
+
+    private static final int DETAIL_BATCH_SIZE = 10000;
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final JdbcTemplate jdbcTemplate;
+    private final BillIdAllocator billIdAllocator;
+
+    /* =====================================================
+     * 사전 청구
+     * ===================================================== */
+    /**
+     * 해당 월 staging 일부 삭제 (대량 삭제를 트랜잭션 여러 개로 나누기 위해 limit 단위)
+     *
+     * @return 삭제한 청구서 수 (0이면 완료)
+     */
+    @Transactional
+    public int clearStaging(YearMonth billingMonth, int limit) {
+        namedJdbc.update("DELETE FROM PRE_BILLING_SNAPSHOTS WHERE billing_month = :month",
+                Map.of("month", billingMonth.toString()));
+        int details = jdbcTemplate.update(
+                "DELETE FROM BILL_DETAILS_STAGING WHERE billing_month = ? LIMIT ?",
+                billingMonth.toString(), limit);
+        int bills = jdbcTemplate.update(
+                "DELETE FROM BILLS_STAGING WHERE billing_month = ? LIMIT ?",
+                billingMonth.toString(), limit);
+        return details + bills;
+    }
+
+    /**
+     * 청크 단위 staging 적재 (BillingRecordItemReader 전체 재계산 결과)
+     */
+    @Transactional
+    public void stage(List<BillingRecord> records, YearMonth billingMonth) {
+        if (records == null || records.isEmpty()) return;
+
+        String month = billingMonth.toString();
+
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO BILLS_STAGING
+              (billing_month, user_id, total_amount, base_fee_amount, addon_fee_amount, micro_payment_amount)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+              total_amount = VALUES(total_amount),
+              base_fee_amount = VALUES(base_fee_amount),
+              addon_fee_amount = VALUES(addon_fee_amount),
+              micro_payment_amount = VALUES(micro_payment_amount)
+        """, records, records.size(), (ps, record) -> {
+            ps.setString(1, month);
+            ps.setLong(2, record.getUserId());
+            ps.setLong(3, record.getTotalAmount());
+            ps.setLong(4, record.getBaseFeeAmount());
+            ps.setLong(5, record.getAddonFeeAmount());
+            ps.setLong(6, record.getMicroPaymentAmount());
+        });
+
+        // bill_id 자리에 user_id를 담아 BillDetailBuffer 재사용
+        BillDetailBuffer buffer = new BillDetailBuffer(DETAIL_BATCH_SIZE);
+        for (BillingRecord record : records) {
+            long uid = record.getUserId();
+            if (record.getPlanFee() != null) {
+                buffer.add(uid, DetailKind.PLAN, record.getPlanFee(), uid);
+            }
+            for (long fee : record.getAddonFees()) {
+                buffer.add(uid, DetailKind.ADDON, fee, uid);
+            }
+            long[] microPayments = record.getMicroPayments();
+            String[] microPaymentTypes = record.getMicroPaymentTypes();
+            for (int i = 0; i < microPayments.length; i++) {
+                buffer.add(uid, DetailKind.microPayment(microPaymentTypes == null ? null : microPaymentTypes[i]),
+                        microPayments[i], uid);
+            }
+            // 할부 / 미납 사용자는 마감 시 항상 재계산되므로 미리보기 용도 (할부 차감 없음)
+            for (long fee : record.getDeviceFees()) {
+                buffer.add(uid, DetailKind.DEVICE, fee, uid);
+            }
+            if (record.getArrearsAmount() > 0) {
+                buffer.add(uid, DetailKind.ARREARS, record.getArrearsAmount(), uid);
+            }
+            if (buffer.size() >= DETAIL_BATCH_SIZE) {
+                flushStagingDetails(buffer, month);
+            }
+        }
+        flushStagingDetails(buffer, month);
+    }
+
+    private void flushStagingDetails(BillDetailBuffer buffer, String month) {
+        if (buffer.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO BILL_DETAILS_STAGING
+              (billing_month, user_id, detail_type, charge_category, amount, related_user_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DetailKind kind = buffer.kind(i);
+                ps.setString(1, month);
+                ps.setLong(2, buffer.billId(i));
+                ps.setString(3, kind.getDetailType());
+                ps.setString(4, kind.getChargeCategory().name());
+                ps.setLong(5, buffer.amount(i));
+                ps.setLong(6, buffer.userId(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return buffer.size();
+            }
+        });
+
+        buffer.clear();
+    }
+
+    public void recordSnapshot(YearMonth billingMonth, LocalDateTime sourceAsOf, String priceVersion,
+                               Long jobExecutionId) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("month", billingMonth.toString());
+        params.put("sourceAsOf", sourceAsOf);
+        params.put("priceVersion", priceVersion);
+        params.put("jobExecutionId", jobExecutionId);
+
+        namedJdbc.update("""
+            INSERT INTO PRE_BILLING_SNAPSHOTS
+              (billing_month, source_as_of, price_version, staged_users, job_execution_id)
+            SELECT :month, :sourceAsOf, :priceVersion, COUNT(*), :jobExecutionId
+            FROM BILLS_STAGING
+            WHERE billing_month = :month
+            ON DUPLICATE KEY UPDATE
+              source_as_of = VALUES(source_as_of),
+              price_version = VALUES(price_version),
+              staged_users = VALUES(staged_users),
+              job_execution_id = VALUES(job_execution_id)
+        """, params);
+    }
+
+    /* =====================================================
+     * 마감 (늦은 변경분 판단 + 승격)
+     * ===================================================== */
+    public Snapshot findSnapshot(YearMonth billingMonth) {
+        List<Snapshot> snapshots = namedJdbc.query("""
+            SELECT billing_month, source_as_of, price_version, staged_users
+            FROM PRE_BILLING_SNAPSHOTS
+            WHERE billing_month = :month
+        """, Map.of("month", billingMonth.toString()),
+        (rs, rowNum) -> Snapshot.builder()
+                .billingMonth(rs.getString("billing_month"))
+                .sourceAsOf(rs.getTimestamp("source_as_of").toLocalDateTime())
+                .priceVersion(rs.getString("price_version"))
+                .stagedUsers(rs.getInt("staged_users"))
+                .build());
+
+        return snapshots.isEmpty() ? null : snapshots.get(0);
+    }
+
+    /**
+     * 사전 청구 이후 변경된 사용자를 BILLING_DELTA_USERS에 기록
+     *
+     * @return 사유별 건수
+     */
+    @Transactional
+    public Map<String, Integer> planLateDeltaUsers(YearMonth billingMonth, Snapshot snapshot) {
+        Map<String, Object> params = monthParams(billingMonth);
+        params.put("sourceAsOf", snapshot.getSourceAsOf());
+
+        namedJdbc.update("DELETE FROM BILLING_DELTA_USERS WHERE billing_month = :month", params);
+
+        Map<String, Integer> counts = new HashMap<>();
+
+        counts.put("SUBSCRIPTION", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, up.user_id, 'SUBSCRIPTION' FROM USER_PLANS up WHERE up.updated_at >= :sourceAsOf
+            UNION
+            SELECT :month, ua.user_id, 'SUBSCRIPTION' FROM USER_ADDONS ua WHERE ua.updated_at >= :sourceAsOf
+        """, params));
+
+        // 가입 행 삭제(hard delete): updated_at으로 알 수 없으므로 staging 정기 항목과 현재 가입 정보 비교
+        // (DeltaBillingService.planDeltaUsers의 전월 청구서 비교와 같은 조건)
+        counts.put("SUBSCRIPTION_DELETED", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, s.user_id, 'SUBSCRIPTION'
+            FROM BILLS_STAGING s
+            LEFT JOIN (
+                SELECT sd.user_id,
+                       SUM(sd.charge_category = 'BASE_FEE') AS plan_lines,
+                       SUM(sd.charge_category = 'ADDON_FEE') AS addon_lines
+                FROM BILL_DETAILS_STAGING sd
+                WHERE sd.billing_month = :month
+                  AND sd.charge_category IN ('BASE_FEE', 'ADDON_FEE')
+                GROUP BY sd.user_id
+            ) staged ON staged.user_id = s.user_id
+            LEFT JOIN (
+                SELECT ua.user_id, COUNT(*) AS addon_count, SUM(a.monthly_fee) AS addon_fee
+                FROM USER_ADDONS ua
+                JOIN ADDONS a ON a.addon_id = ua.addon_id
+                WHERE ua.start_date < :nextMonthStart
+                  AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
+                GROUP BY ua.user_id
+            ) cur ON cur.user_id = s.user_id
+            WHERE s.billing_month = :month
+              AND (
+                  COALESCE(staged.addon_lines, 0) <> COALESCE(cur.addon_count, 0)
+                  OR s.addon_fee_amount <> COALESCE(cur.addon_fee, 0)
+                  OR NOT (
+                      EXISTS (
+                          SELECT 1 FROM USER_PLANS up
+                          JOIN PLANS p ON p.plan_id = up.plan_id
+                          WHERE up.user_id = s.user_id
+                            AND up.start_date < :nextMonthStart
+                            AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                            AND p.monthly_fee = s.base_fee_amount
+                      )
+                      OR (
+                          COALESCE(staged.plan_lines, 0) = 0
+                          AND NOT EXISTS (
+                              SELECT 1 FROM USER_PLANS up
+                              WHERE up.user_id = s.user_id
+                                AND up.start_date < :nextMonthStart
+                                AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                          )
+                      )
+                  )
+              )
+        """, params));
+
+        // 결제일이 이번 달이고 사전 청구 이후 적재된 소액결제
+        counts.put("MICRO_PAYMENT", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT DISTINCT :month, mp.user_id, 'MICRO_PAYMENT'
+            FROM MICRO_PAYMENTS mp
+            WHERE mp.payment_date >= :monthStart
+              AND mp.payment_date < :nextMonthStart
+              AND mp.created_at >= :sourceAsOf
+        """, params));
+
+        counts.putAll(DeltaBillingService.planInstallmentAndArrearsUsers(namedJdbc, params));
+
+        counts.put("NEW", namedJdbc.update("""
+            INSERT IGNORE INTO BILLING_DELTA_USERS (billing_month, user_id, reason)
+            SELECT :month, u.user_id, 'NEW'
+            FROM USERS u
+            WHERE (
+                EXISTS (
+                    SELECT 1 FROM USER_PLANS up
+                    WHERE up.user_id = u.user_id
+                      AND up.start_date < :nextMonthStart
+                      AND (up.end_date IS NULL OR up.end_date >= :monthStart)
+                )
+                OR
+                EXISTS (
+                    SELECT 1 FROM USER_ADDONS ua
+                    WHERE ua.user_id = u.user_id
+                      AND ua.start_date < :nextMonthStart
+                      AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
+                )
+            )
+            AND NOT EXISTS (
+                SELECT 1 FROM BILLS_STAGING s
+                WHERE s.billing_month = :month
+                  AND s.user_id = u.user_id
+            )
+        """, params));
+
+        log.info("[PRE-BILLING] {} late delta users planned: {}", billingMonth, counts);
+        return counts;
+    }
+
+    /**
+     * staging user_id 범위 [min, max] (없으면 null)
+     */
+    public long[] stagingRange(YearMonth billingMonth) {
+        return namedJdbc.queryForObject("""
+            SELECT MIN(user_id) AS min_id, MAX(user_id) AS max_id
+            FROM BILLS_STAGING
+            WHERE billing_month = :month
+        """, monthParams(billingMonth), (rs, rowNum) ->
+                rs.getObject("min_id") == null
+                        ? null
+                        : new long[]{rs.getLong("min_id"), rs.getLong("max_id")});
+    }
+
+    /**
+     * 변경 없는 사용자의 staging을 BILLS / BILL_DETAILS로 승격
+     *
+     * @return 이번 구간에서 새로 만든 청구서 수
+     */
+    @Transactional
+    public int promote(YearMonth billingMonth, long fromUserId, long toUserId) {
+        Map<String, Object> params = monthParams(billingMonth);
+        params.put("fromUserId", fromUserId);
+        params.put("toUserId", toUserId);
+        params.put("issueDate", LocalDate.now());
+        params.put("settlementDate", billingMonth.atEndOfMonth());
+
+        /* =========================
+         * 1️⃣ BILLS: 아직 청구서가 없는 승격 대상만 생성 (bill_id는 선할당 블록에서 순서대로)
+         * ========================= */
+        String newBillCondition = """
+            FROM BILLS_STAGING s
+            WHERE s.billing_month = :month
+              AND s.user_id BETWEEN :fromUserId AND :toUserId
+              AND NOT EXISTS (SELECT 1 FROM BILLING_DELTA_USERS d
+                              WHERE d.billing_month = :month AND d.user_id = s.user_id)
+              AND NOT EXISTS (SELECT 1 FROM BILLS cb
+                              WHERE cb.user_id = s.user_id AND cb.billing_month = :month)
+        """;
+
+        Integer newBills = namedJdbc.queryForObject("SELECT COUNT(*) " + newBillCondition, params, Integer.class);
+        if (newBills != null && newBills > 0) {
+            params.put("firstBillId", billIdAllocator.allocate(newBills));
+            params.put("newBills", newBills);
+            namedJdbc.update("""
+                INSERT INTO BILLS
+                  (bill_id, user_id, billing_month, settlement_date, bill_issue_date,
+                   total_amount, base_fee_amount, addon_fee_amount, micro_payment_amount)
+                SELECT :firstBillId + ROW_NUMBER() OVER (ORDER BY s.user_id) - 1,
+                       s.user_id, :month, :settlementDate, :issueDate,
+                       s.total_amount, s.base_fee_amount, s.addon_fee_amount, s.micro_payment_amount
+            """ + newBillCondition, params);
+
+            // bill_id 단독 유일성 검사 (V39, 다른 월과 겹치면 중복 키 오류)
+            namedJdbc.update("""
+                INSERT INTO BILL_ID_REGISTRY (bill_id, billing_month)
+                SELECT bill_id, billing_month
+                FROM BILLS
+                WHERE billing_month = :month
+                  AND bill_id BETWEEN :firstBillId AND :firstBillId + :newBills - 1
+            """, params);
+        }
+
+        // 이번 달 청구서 중 승격 대상 (staging 있음 + 재계산 대상 아님)
+        String promoted = """
+            JOIN BILLS_STAGING s ON s.user_id = cb.user_id AND s.billing_month = :month
+            WHERE cb.billing_month = :month
+              AND cb.user_id BETWEEN :fromUserId AND :toUserId
+              AND NOT EXISTS (SELECT 1 FROM BILLING_DELTA_USERS d
+                              WHERE d.billing_month = :month AND d.user_id = cb.user_id)
+        """;
+
+        /* =========================
+         * 2️⃣ BILL_DETAILS 교체 (재실행 시 기존 상세 삭제 후 staging 복사)
+         * ========================= */
+        namedJdbc.update("""
+            DELETE bd FROM BILL_DETAILS bd
+            JOIN BILLS cb ON cb.bill_id = bd.bill_id AND bd.billing_month = :month
+        """ + promoted, params);
+
+        namedJdbc.update("""
+            INSERT INTO BILL_DETAILS (bill_id, billing_month, detail_type, charge_category, amount, related_user_id)
+            SELECT cb.bill_id, :month, sd.detail_type, sd.charge_category, sd.amount, sd.related_user_id
+            FROM BILLS cb
+            JOIN BILL_DETAILS_STAGING sd ON sd.billing_month = :month AND sd.user_id = cb.user_id
+        """ + promoted, params);
+
+        /* =========================
+         * 3️⃣ BILLS 금액 (재실행으로 이미 있던 청구서 포함)
+         * ========================= */
+        namedJdbc.update("""
+            UPDATE BILLS cb
+        """ + promoted.replaceFirst("WHERE", """
+            SET cb.total_amount = s.total_amount,
+                cb.base_fee_amount = s.base_fee_amount,
+                cb.addon_fee_amount = s.addon_fee_amount,
+                cb.micro_payment_amount = s.micro_payment_amount,
+                cb.device_fee_amount = 0,
+                cb.arrears_amount = 0,
+                cb.bill_issue_date = :issueDate
+            WHERE"""), params);
+
+        return newBills == null ? 0 : newBills;
+    }
+
+    private Map<String, Object> monthParams(YearMonth billingMonth) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("month", billingMonth.toString());
+        params.put("monthStart", billingMonth.atDay(1));
+        params.put("nextMonthStart", billingMonth.plusMonths(1).atDay(1));
+        return params;
+    }
+
+    @Getter
+    @Builder
+    public static class Snapshot {
+        private String billingMonth;
+        private LocalDateTime sourceAsOf;
+        private String priceVersion;
+        private int stagedUsers;
+    }
+}
@@ -0,0 +1,199 @@
+package com.ureca.billing.batch.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+/**
+ * 청크 크기 자동 조절 CompletionPolicy
+ *
+ * [측정] (청크마다, afterChunk는 커밋 이후 호출됨)
+ * - 처리량: 트랜잭션 시작 ~ 커밋 완료(읽기 + 쓰기 + 커밋) 동안의 rows/sec
+ * - 쓰기 지연: Writer 시작 ~ 커밋 완료 (락 경합 / redo log flush 지연이 커밋에서 드러남)
+ *
+ * [조절] (hill climbing)
+ * - 처리량이 직전보다 tolerance 이상 좋아지면 같은 방향으로 계속 (×step / ÷step)
+ * - tolerance 이상 나빠지면 방향을 반대로
+ * - 쓰기 지연이 max-write-ms를 넘으면 처리량과 관계없이 줄임
+ * - 크기는 [min-size, max-size] 범위로 제한
+ *
+ * [기록]
+ * - Step ExecutionContext에 현재 크기 / 마지막 처리량 / 최근 결정 이력을 저장한다.
+ * - 저장은 beforeChunk(트랜잭션 안)에서 한다. 직전 청크 결과로 정한 크기가
+ *   이번 청크 커밋과 함께 BATCH_STEP_EXECUTION_CONTEXT에 반영된다.
+ *   (afterChunk는 커밋 이후라 여기서 넣으면 다음 청크 커밋까지 한 청크 늦게 저장됨)
+ *
+ * [주의]
+ * - Step 실행마다 상태가 따로 있어야 하므로 @StepScope 빈으로 등록한다. (파티션별 독립)
+ */
+public class AdaptiveChunkSizePolicy extends SimpleCompletionPolicy
+        implements ChunkListener, ItemWriteListener<Object>, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkSizePolicy.class);
+
+    public static final String CHUNK_SIZE = "adaptiveChunk.size";
+    public static final String THROUGHPUT = "adaptiveChunk.rowsPerSec";
+    public static final String WRITE_MS = "adaptiveChunk.writeMs";
+    public static final String DECISIONS = "adaptiveChunk.decisions";
+    public static final String HISTORY = "adaptiveChunk.history";
+
+    private static final double STEP = 1.5;         // 한 번에 늘리고 줄이는 비율
+    private static final double TOLERANCE = 0.05;   // 이 비율 이내 변화는 잡음으로 보고 유지
+    private static final int HISTORY_SIZE = 20;
+
+    private final String name;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxWriteMs;
+
+    private int size;
+    private boolean growing = true;
+    private double lastThroughput = -1;
+    private long decisions;
+    private final Deque<String> history = new ArrayDeque<>();
+
+    private long chunkStartNanos;
+    private long writeStartNanos;
+    private int chunkItems;
+    private long lastWriteMs;
+
+    /**
+     * @param name       로그 / 이력 식별용 (Step 이름)
+     * @param maxWriteMs 쓰기 ~ 커밋이 이 시간을 넘으면 크기를 줄임 (0이면 사용 안 함)
+     */
+    public AdaptiveChunkSizePolicy(String name, int initialSize, int minSize, int maxSize, long maxWriteMs) {
+        this.name = name;
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.maxWriteMs = maxWriteMs;
+        this.size = clamp(initialSize);
+        setChunkSize(size);
+    }
+
+    /* =========================
+     * 재시작: 마지막으로 기록된 크기부터
+     * ========================= */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(CHUNK_SIZE)) {
+            size = clamp(context.getInt(CHUNK_SIZE));
+            setChunkSize(size);
+        }
+        log.info("[CHUNK] {} start with chunk size {} (range {} ~ {})", name, size, minSize, maxSize);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("[CHUNK] {} finished. size={}, decisions={}, history={}",
+                name, size, decisions, String.join(" ", history));
+        return null;
+    }
+
+    /* =========================
+     * 측정
+     * ========================= */
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        // 트랜잭션 안: 이번 청크 커밋과 함께 저장됨
+        record(context.getStepContext().getStepExecution().getExecutionContext());
+
+        chunkStartNanos = System.nanoTime();
+        writeStartNanos = 0;
+        chunkItems = 0;
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        if (writeStartNanos == 0) {
+            writeStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        chunkItems += items.size();
+    }
+
+    // 커밋 이후 호출됨 → 측정 시간에 커밋이 포함된다.
+    @Override
+    public void afterChunk(ChunkContext context) {
+        long now = System.nanoTime();
+        long elapsedNanos = now - chunkStartNanos;
+
+        // 빈 청크 / 마지막(덜 찬) 청크는 처리량 비교에서 제외
+        if (chunkItems == 0 || chunkItems < size || elapsedNanos <= 0) return;
+
+        double throughput = chunkItems * 1_000_000_000.0 / elapsedNanos;
+        long writeMs = (now - writeStartNanos) / 1_000_000;
+
+        adjust(throughput, writeMs);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        // 실패(롤백)한 청크는 크기를 줄여 다음 시도의 락 범위를 좁힌다.
+        resize(false, "error");
+    }
+
+    /* =========================
+     * 조절
+     * ========================= */
+    void adjust(double throughput, long writeMs) {
+        lastWriteMs = writeMs;
+        if (maxWriteMs > 0 && writeMs > maxWriteMs) {
+            growing = false;
+            resize(false, "slow-write " + writeMs + "ms");
+        } else if (lastThroughput < 0) {
+            resize(growing, "probe");
+        } else if (throughput > lastThroughput * (1 + TOLERANCE)) {
+            resize(growing, "better");
+        } else if (throughput < lastThroughput * (1 - TOLERANCE)) {
+            growing = !growing;
+            resize(growing, "worse");
+        }
+        lastThroughput = throughput;
+    }
+
+    private void resize(boolean grow, String reason) {
+        int next = clamp((int) (grow ? size * STEP : size / STEP));
+        if (next == size) return;
+
+        log.info("[CHUNK] {} chunk size {} -> {} ({})", name, size, next, reason);
+        size = next;
+        setChunkSize(size);
+        decisions++;
+
+        history.addLast(next + ":" + reason);
+        if (history.size() > HISTORY_SIZE) {
+            history.removeFirst();
+        }
+    }
+
+    void record(ExecutionContext context) {
+        context.putInt(CHUNK_SIZE, size);
+        context.putLong(THROUGHPUT, Math.round(Math.max(0, lastThroughput)));
+        context.putLong(WRITE_MS, lastWriteMs);
+        context.putLong(DECISIONS, decisions);
+        context.putString(HISTORY, String.join(" ", history));
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minSize, Math.min(maxSize, value));
+    }
+}
@@ -0,0 +1,121 @@
+package com.ureca.billing.batch.util;
+
+import java.util.Arrays;
+
+import com.ureca.billing.core.entity.ChargeCategory;
+
+/**
+ * BILL_DETAILS INSERT용 컬럼형(columnar) 버퍼
+ *
+ * - 행마다 Object[]를 만들던 방식 대신 컬럼별 primitive 배열에 누적한다.
+ * - BatchPreparedStatementSetter가 배열에서 바로 값을 읽어 바인딩한다.
+ * - 스레드 안전하지 않음 (createBills 호출 1회 안에서만 사용)
+ */
+public class BillDetailBuffer {
+
+    /**
+     * 청구 상세 종류 (detail_type + charge_category 조합)
+     */
+    public enum DetailKind {
+        PLAN("PLAN", ChargeCategory.BASE_FEE),
+        ADDON("ADDON", ChargeCategory.ADDON_FEE),
+        MICRO_PAYMENT("MICRO_PAYMENT", ChargeCategory.MICRO_PAYMENT),
+        DEVICE("DEVICE", ChargeCategory.DEVICE_FEE),
+        ARREARS("ARREARS", ChargeCategory.ARREARS),
+        // 소액결제 결제유형별 합계 1라인 (건별 라인 MICRO_PAYMENT와 구분, 결제유형 = detail_type 접미사)
+        MICRO_PAYMENT_APP("MICRO_PAYMENT_APP", ChargeCategory.MICRO_PAYMENT),
+        MICRO_PAYMENT_CONTENT("MICRO_PAYMENT_CONTENT", ChargeCategory.MICRO_PAYMENT),
+        MICRO_PAYMENT_GAME("MICRO_PAYMENT_GAME", ChargeCategory.MICRO_PAYMENT);
+
+        // 합계 라인 detail_type = MICRO_PAYMENT_SUMMARY_PREFIX + payment_type
+        public static final String MICRO_PAYMENT_SUMMARY_PREFIX = "MICRO_PAYMENT_";
+
+        private static final DetailKind[] VALUES = values();
+
+        private final String detailType;
+        private final ChargeCategory chargeCategory;
+
+        DetailKind(String detailType, ChargeCategory chargeCategory) {
+            this.detailType = detailType;
+            this.chargeCategory = chargeCategory;
+        }
+
+        public String getDetailType() {
+            return detailType;
+        }
+
+        public ChargeCategory getChargeCategory() {
+            return chargeCategory;
+        }
+
+        /**
+         * @param paymentType MICRO_PAYMENTS.payment_type (null이면 건별 라인)
+         */
+        public static DetailKind microPayment(String paymentType) {
+            if (paymentType == null) return MICRO_PAYMENT;
+            return switch (paymentType) {
+                case "APP" -> MICRO_PAYMENT_APP;
+                case "CONTENT" -> MICRO_PAYMENT_CONTENT;
+                case "GAME" -> MICRO_PAYMENT_GAME;
+                default -> throw new IllegalArgumentException("unknown payment_type: " + paymentType);
+            };
+        }
+    }
+
+    private long[] billIds;
+    private long[] userIds;
+    private long[] amounts;
+    private byte[] kinds;
+    private int size;
+
+    public BillDetailBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.billIds = new long[capacity];
+        this.userIds = new long[capacity];
+        this.amounts = new long[capacity];
+        this.kinds = new byte[capacity];
+    }
+
+    public void add(long billId, DetailKind kind, long amount, long userId) {
+        if (size == billIds.length) {
+            int capacity = billIds.length * 2;
+            billIds = Arrays.copyOf(billIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+        billIds[size] = billId;
+        userIds[size] = userId;
+        amounts[size] = amount;
+        kinds[size] = (byte) kind.ordinal();
+        size++;
+    }
+
+    public long billId(int index) {
+        return billIds[index];
+    }
+
+    public long userId(int index) {
+        return userIds[index];
+    }
+
+    public long amount(int index) {
+        return amounts[index];
+    }
+
+    public DetailKind kind(int index) {
+        return DetailKind.VALUES[kinds[index]];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ureca.billing.batch.util;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Objects;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.batch.service.DeltaBillingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 월 청구 마감 기록 (BILLING_CLOSES)
+ *
+ * - monthlyBillingJob이 COMPLETED로 끝나면 청구월 마감을 기록한다.
+ * - source_as_of는 같은 JobInstance의 최초 실행 시작 시각
+ *   (재시작된 경우에도 첫 실행이 읽은 시점 이후의 변경은 다음 달에 재계산되도록)
+ * - 다음 달 증분 청구는 이 기록을 기준으로 변경 사용자를 찾는다.
+ * - 청구 기준일 cohort 실행(cycleDay)은 월 전체 마감이 아니므로 기록하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BillingCloseListener implements JobExecutionListener {
+
+    private final DeltaBillingService deltaBillingService;
+    private final JobExplorer jobExplorer;
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) return;
+        if (jobExecution.getJobParameters().getString("cycleDay") != null) return;
+
+        YearMonth billingMonth = YearMonth.parse(jobExecution.getJobParameters().getString("billingMonth"));
+        ExecutionContext context = jobExecution.getExecutionContext();
+
+        LocalDateTime sourceAsOf = jobExplorer.getJobExecutions(jobExecution.getJobInstance()).stream()
+                .map(JobExecution::getStartTime)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(jobExecution.getStartTime());
+
+        boolean delta = Boolean.TRUE.equals(context.get(DeltaCarryForwardTasklet.DELTA_ACTIVE));
+
+        deltaBillingService.recordClose(billingMonth, sourceAsOf,
+                context.getString(ProductCatalogHolder.CATALOG_PRICE_VERSION),
+                delta, jobExecution.getId());
+
+        log.info("[CLOSE] {} closed (mode={}, sourceAsOf={})", billingMonth, delta ? "DELTA" : "FULL", sourceAsOf);
+    }
+}
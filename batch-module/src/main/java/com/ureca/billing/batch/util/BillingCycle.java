@@ -0,0 +1,59 @@
+package com.ureca.billing.batch.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * 청구 주기(cycle) 계산
+ *
+ * - 사용자마다 청구 기준일(USERS.billing_cycle_day, 1 ~ 28)이 있다.
+ * - 청구월 M, 기준일 d의 청구 구간 = [M-d, (M+1)-d)
+ *   · d = 1 이면 달력 월과 같다. (기존 월 청구와 동일)
+ *   · 예) d = 15, M = 2025-08 → 2025-08-15 ~ 2025-09-14
+ * - 구간이 끝나는 날((M+1)-d)에 해당 기준일 사용자(cohort)만 청구한다.
+ * - cycleDay가 null이면 기준일 구분 없이 전체 사용자를 달력 월로 청구 (기존 monthlyBillingJob)
+ */
+public final class BillingCycle {
+
+    public static final int MIN_CYCLE_DAY = 1;
+    public static final int MAX_CYCLE_DAY = 28;
+
+    private BillingCycle() {
+    }
+
+    public static LocalDate windowStart(YearMonth billingMonth, Integer cycleDay) {
+        return billingMonth.atDay(cycleDay == null ? 1 : cycleDay);
+    }
+
+    // 구간 끝 (미포함)
+    public static LocalDate windowEnd(YearMonth billingMonth, Integer cycleDay) {
+        return windowStart(billingMonth, cycleDay).plusMonths(1);
+    }
+
+    // 정산 기준일 = 구간 마지막 날
+    public static LocalDate settlementDate(YearMonth billingMonth, Integer cycleDay) {
+        return windowEnd(billingMonth, cycleDay).minusDays(1);
+    }
+
+    /**
+     * 오늘 청구할 cohort의 청구월 (오늘 끝나는 구간 = 전월 청구월)
+     *
+     * @return 오늘이 29일 이후면 null (청구할 기준일 없음)
+     */
+    public static YearMonth billingMonthClosingOn(LocalDate today) {
+        return isCycleDay(today.getDayOfMonth()) ? YearMonth.from(today).minusMonths(1) : null;
+    }
+
+    public static boolean isCycleDay(int day) {
+        return day >= MIN_CYCLE_DAY && day <= MAX_CYCLE_DAY;
+    }
+
+    public static Integer parse(String cycleDay) {
+        if (cycleDay == null || cycleDay.isBlank()) return null;
+        int day = Integer.parseInt(cycleDay.trim());
+        if (!isCycleDay(day)) {
+            throw new IllegalArgumentException("cycleDay는 " + MIN_CYCLE_DAY + " ~ " + MAX_CYCLE_DAY + " 사이여야 합니다: " + cycleDay);
+        }
+        return day;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ureca.billing.batch.util;
+
+import java.time.YearMonth;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.batch.service.BillingPartitionService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 청구 Job 시작 전 청구월 파티션 준비
+ *
+ * - BILLS / BILL_DETAILS / OUTBOX_EVENTS에 청구월 파티션이 없으면 만든다.
+ *   (없으면 행이 p_max에 쌓여 월 단위 pruning / 분리가 불가능해짐)
+ * - 파티션 DDL은 메타데이터 락을 잡으므로 청크 처리 전에 1회만 수행
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingPartitionListener implements JobExecutionListener {
+
+    private final BillingPartitionService billingPartitionService;
+
+    @Value("${app.batch.billing.table-partition.auto-create:true}")
+    private boolean autoCreate;
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (!autoCreate) return;
+
+        String billingMonth = jobExecution.getJobParameters().getString("billingMonth");
+        int created = billingPartitionService.ensurePartition(YearMonth.parse(billingMonth));
+        if (created > 0) {
+            jobExecution.getExecutionContext().putInt("partition.created", created);
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.ureca.billing.batch.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.support.SingleItemPeekableItemReader;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.service.BillIdAllocator;
+import com.ureca.billing.core.catalog.ProductCatalog;
+
+/**
+ * 정렬-병합(sort-merge) 방식 청구 데이터 Reader
+ *
+ * [동작]
+ * - USERS(청구 대상) / USER_PLANS / USER_ADDONS / MICRO_PAYMENTS / DEVICE_INSTALLMENTS / BILL_ARREARS
+ *   소스를 각각 user_id 오름차순 스트리밍 커서로 연다. (소스마다 별도 커넥션)
+ * - USERS 커서를 기준으로 한 명씩 읽고, 나머지 커서에서 같은 user_id 행만 꺼내 합친다.
+ * - 청구 대상 = 요금제 / 부가서비스가 유효하거나, 청구할 단말 할부 / 미이월 미납액이 남은 사용자
+ *   (모두 해지했어도 할부 / 미납 청구서는 발행)
+ * - 청구 대상이 아닌 사용자의 행(user_id가 기준보다 작은 행)은 건너뛴다.
+ * - USER_PLANS / USER_ADDONS는 plan_id / addon_id만 읽고,
+ *   월정액은 Job 단위 ProductCatalog 스냅샷에서 조회한다. (PLANS / ADDONS JOIN 없음)
+ * - 소액결제는 기본적으로 MICRO_PAYMENT_MONTHLY(사용자/결제유형별 합계)를 읽는다.
+ *   itemizedMicroPayments = true 이면 기존처럼 MICRO_PAYMENTS 건별로 읽어 건별 상세 라인을 만든다.
+ * - 단말 할부는 이번 달 청구 대상 할부(진행 중 + 이번 달 미청구, 또는 이번 달에 이미 청구됨)의
+ *   installment_id / 월 할부금을 읽는다. remaining_months 차감은 Writer가 청크당 1회 일괄 UPDATE
+ * - 미납액은 청구 구간 종료 전에 납기가 지난 UNPAID / PARTIAL 건 중 아직 다른 청구서에 이월하지 않은 건
+ *   (또는 이번 달에 이미 이월한 건)의 arrears_id / 금액을 읽는다. 이월 기록은 Writer가 청크당 1회 일괄 UPDATE
+ * - bill_id도 Reader 단계에서 확정한다.
+ *   · 이미 해당 월 BILLS가 있으면(재실행) 기존 bill_id를 같은 방식으로 병합해서 사용
+ *   · 없으면 BillIdAllocator로 선할당한 블록에서 순서대로 부여
+ *
+ * [효과]
+ * - 청크마다 IN 절로 재조회하던 방식 제거 (할부 / 미납도 사용자별 조회 없음)
+ * - BILLS INSERT 후 bill_id를 다시 조회하던 쿼리 제거
+ * - 메모리에는 사용자 1명 분량의 행만 유지
+ *
+ * [소스 미리 읽기]
+ * - sourcePrefetch > 0 이면 요금제 / 부가서비스 / 소액결제 / 기존 청구서 커서를 각각
+ *   PrefetchingItemReader로 감싸 별도 스레드에서 동시에 스트리밍한다. (소스별 bounded 큐)
+ *   → 병합 스레드가 한 사용자를 조립하는 동안 나머지 커서의 다음 행이 미리 도착해 있음
+ *
+ * [증분 청구]
+ * - changedUsersOnly = true 이면 BILLING_DELTA_USERS(해당 월 재계산 대상)에 있는 사용자만 읽는다.
+ *   (나머지 사용자는 DeltaCarryForwardTasklet이 전월 정기 항목을 집합 복사로 이월)
+ *
+ * [청구 주기]
+ * - cycleDay가 있으면 해당 청구 기준일 사용자(cohort)만 읽고, 구간은 [M-d, (M+1)-d)로 이동한다.
+ * - 기준일이 1이 아니면 달력 월 집계(MICRO_PAYMENT_MONTHLY)를 쓸 수 없으므로
+ *   MICRO_PAYMENTS를 구간 조건으로 결제유형별 합산해서 읽는다.
+ *
+ * [검증]
+ * - billIdAllocator가 null이면 bill_id를 할당하지 않는다. (재계산 결과 비교 전용, 새 청구서는 bill_id = 0)
+ *
+ * [재시작]
+ * - 청크 커밋마다 마지막으로 읽은 user_id를 Step ExecutionContext에 저장한다.
+ * - 같은 JobInstance(billingMonth)를 재시작하면 그 다음 user_id부터 커서를 연다.
+ *   (커서 SQL은 open 시점에 재개 구간을 반영해서 만든다)
+ *
+ * [주의]
+ * - MySQL Connector/J는 fetchSize = Integer.MIN_VALUE 일 때만 행 단위 스트리밍을 한다.
+ * - 스트리밍 중인 커넥션은 다른 쿼리를 실행할 수 없으므로 커서 7개가 커넥션 7개를 점유한다.
+ */
+public class BillingRecordItemReader implements ItemStreamReader<BillingRecord> {
+
+    // 한 번에 선할당하는 bill_id 개수 (청크 크기와 동일)
+    private static final int BILL_ID_BLOCK_SIZE = 10000;
+
+    private static final Logger log = LoggerFactory.getLogger(BillingRecordItemReader.class);
+
+    // 마지막으로 커밋된 청크의 마지막 user_id (Step ExecutionContext 키)
+    public static final String LAST_USER_ID = "billing.lastUserId";
+
+    private final DataSource dataSource;
+    private final YearMonth billingMonth;
+    private final Long minUserId;
+    private final Long maxUserId;
+    private final boolean itemizedMicroPayments;
+    private final int sourcePrefetch;
+    private boolean changedUsersOnly;
+    private Integer cycleDay;
+
+    private JdbcCursorItemReader<UserRow> userCursor;
+    private SingleItemPeekableItemReader<UserValueRow> planCursor;
+    private SingleItemPeekableItemReader<UserValueRow> addonCursor;
+    private SingleItemPeekableItemReader<MicroPaymentRow> microPaymentCursor;
+    private SingleItemPeekableItemReader<UserValueRow> billCursor;
+    private SingleItemPeekableItemReader<ChargeRow> installmentCursor;
+    private SingleItemPeekableItemReader<ChargeRow> arrearsCursor;
+
+    private final ProductCatalog catalog;
+
+    private Long lastUserId;
+
+    // drain() 결과를 모으는 재사용 버퍼 (사용자 1명 분량)
+    private final LongBuffer scratch = new LongBuffer(64);
+    private final LongBuffer installmentIds = new LongBuffer(4);
+    private final LongBuffer deviceFees = new LongBuffer(4);
+    private final LongBuffer arrearsIds = new LongBuffer(4);
+    private final LongBuffer arrearsAmounts = new LongBuffer(4);
+    private final LongBuffer microAmounts = new LongBuffer(16);
+    private final List<String> microTypes = new ArrayList<>(4);
+
+    private final BillIdAllocator billIdAllocator;
+    private long nextBillId;
+    private long billIdBlockEnd;     // 현재 블록의 마지막 bill_id 다음 값
+
+    /**
+     * @param minUserId 파티션 시작 user_id (포함, null이면 전체)
+     * @param maxUserId 파티션 끝 user_id (포함, null이면 전체)
+     * @param itemizedMicroPayments true면 소액결제를 건별로 읽음 (false면 월별 집계 테이블)
+     * @param sourcePrefetch 소스 커서별 미리 읽기 행 수 (0이면 병합 스레드에서 직접 읽음)
+     */
+    public BillingRecordItemReader(DataSource dataSource, BillIdAllocator billIdAllocator,
+                                   ProductCatalog catalog, YearMonth billingMonth,
+                                   Long minUserId, Long maxUserId, boolean itemizedMicroPayments,
+                                   int sourcePrefetch) {
+        this.dataSource = dataSource;
+        this.billIdAllocator = billIdAllocator;
+        this.catalog = catalog;
+        this.billingMonth = billingMonth;
+        this.minUserId = minUserId;
+        this.maxUserId = maxUserId;
+        this.itemizedMicroPayments = itemizedMicroPayments;
+        this.sourcePrefetch = sourcePrefetch;
+    }
+
+    /**
+     * true면 BILLING_DELTA_USERS에 있는 사용자만 읽음 (증분 청구)
+     */
+    public void setChangedUsersOnly(boolean changedUsersOnly) {
+        this.changedUsersOnly = changedUsersOnly;
+    }
+
+    /**
+     * 청구 기준일 cohort만 읽음 (null이면 전체 사용자, 달력 월)
+     */
+    public void setCycleDay(Integer cycleDay) {
+        this.cycleDay = cycleDay;
+    }
+
+    /**
+     * user_id 구간 [minUserId, maxUserId]에 대한 커서 7개 생성 (minUserId가 null이면 전체)
+     * - monthStart / nextMonthStart는 청구 구간 (청구 기준일 1이면 달력 월)
+     */
+    private void createCursors(Long minUserId, Long maxUserId) {
+        LocalDate monthStart = BillingCycle.windowStart(billingMonth, cycleDay);
+        LocalDate nextMonthStart = BillingCycle.windowEnd(billingMonth, cycleDay);
+
+        List<Object> range = new ArrayList<>();
+        if (minUserId != null) range.addAll(List.of(minUserId, maxUserId));
+        if (changedUsersOnly) range.add(billingMonth.toString());
+        if (cycleDay != null) range.add(cycleDay);
+
+        // 청구 대상 사용자: 요금제 또는 부가서비스가 해당 월에 유효한 사용자
+        //   + 해지 후에도 남은 단말 할부 / 미이월 미납액이 있는 사용자 (할부 / 미납 커서와 같은 조건)
+        String month = billingMonth.toString();
+        List<Object> userArgs = new ArrayList<>(range);
+        userArgs.addAll(List.of(nextMonthStart, monthStart, nextMonthStart, monthStart,
+                nextMonthStart, month, month, nextMonthStart, month));
+        this.userCursor = cursor(dataSource, """
+            SELECT u.user_id, u.email_cipher, u.phone_cipher, u.name
+            FROM USERS u
+            WHERE %s(
+                EXISTS (
+                    SELECT 1
+                    FROM USER_PLANS up
+                    WHERE up.user_id = u.user_id
+                      AND up.start_date < ?
+                      AND (up.end_date IS NULL OR up.end_date >= ?)
+                )
+                OR
+                EXISTS (
+                    SELECT 1
+                    FROM USER_ADDONS ua
+                    WHERE ua.user_id = u.user_id
+                      AND ua.start_date < ?
+                      AND (ua.end_date IS NULL OR ua.end_date >= ?)
+                )
+                OR
+                EXISTS (
+                    SELECT 1
+                    FROM DEVICE_INSTALLMENTS di
+                    WHERE di.user_id = u.user_id
+                      AND di.created_at < ?
+                      AND (
+                          (di.status = 'ONGOING'
+                           AND di.remaining_months > 0
+                           AND (di.last_billed_month IS NULL OR di.last_billed_month < ?))
+                          OR di.last_billed_month = ?
+                      )
+                )
+                OR
+                EXISTS (
+                    SELECT 1
+                    FROM BILL_ARREARS ba
+                    WHERE ba.user_id = u.user_id
+                      AND ba.arrears_status IN ('UNPAID', 'PARTIAL')
+                      AND ba.due_date < ?
+                      AND (ba.carried_month IS NULL OR ba.carried_month = ?)
+                )
+            )
+            ORDER BY u.user_id
+        """.formatted(filterCondition("u", minUserId)), userArgs,
+        (rs, rowNum) -> new UserRow(
+                rs.getLong("user_id"),
+                rs.getString("email_cipher"),
+                rs.getString("phone_cipher"),
+                rs.getString("name")));
+
+        List<Object> periodArgs = new ArrayList<>(range);
+        periodArgs.addAll(List.of(nextMonthStart, monthStart));
+
+        // PLAN (value = plan_id)
+        this.planCursor = peekable("plan", cursor(dataSource, """
+            SELECT up.user_id, up.plan_id
+            FROM USER_PLANS up
+            WHERE %sup.start_date < ?
+              AND (up.end_date IS NULL OR up.end_date >= ?)
+            ORDER BY up.user_id
+        """.formatted(filterCondition("up", minUserId)), periodArgs,
+        (rs, rowNum) -> new UserValueRow(rs.getLong("user_id"), rs.getLong("plan_id"))));
+
+        // ADDON (value = addon_id)
+        this.addonCursor = peekable("addon", cursor(dataSource, """
+            SELECT ua.user_id, ua.addon_id
+            FROM USER_ADDONS ua
+            WHERE %sua.start_date < ?
+              AND (ua.end_date IS NULL OR ua.end_date >= ?)
+            ORDER BY ua.user_id
+        """.formatted(filterCondition("ua", minUserId)), periodArgs,
+        (rs, rowNum) -> new UserValueRow(rs.getLong("user_id"), rs.getLong("addon_id"))));
+
+        // MICRO PAYMENT
+        List<Object> paymentArgs = new ArrayList<>(range);
+        if (itemizedMicroPayments) {
+            // 건별 (결제 1건 = 상세 1라인)
+            paymentArgs.addAll(List.of(monthStart, nextMonthStart));
+            this.microPaymentCursor = peekable("microPayment", cursor(dataSource, """
+                SELECT mp.user_id, mp.amount
+                FROM MICRO_PAYMENTS mp
+                WHERE %smp.payment_date >= ?
+                  AND mp.payment_date < ?
+                ORDER BY mp.user_id
+            """.formatted(filterCondition("mp", minUserId)), paymentArgs,
+            (rs, rowNum) -> new MicroPaymentRow(rs.getLong("user_id"), null, rs.getLong("amount"))));
+        } else if (cycleDay != null && cycleDay != 1) {
+            // 청구 구간이 달력 월과 다름 → 구간 내 결제를 결제유형별로 합산 (결제유형 1개 = 상세 1라인)
+            paymentArgs.addAll(List.of(monthStart, nextMonthStart));
+            this.microPaymentCursor = peekable("microPayment", cursor(dataSource, """
+                SELECT mp.user_id, mp.payment_type, SUM(mp.amount) AS total_amount
+                FROM MICRO_PAYMENTS mp
+                WHERE %smp.payment_date >= ?
+                  AND mp.payment_date < ?
+                GROUP BY mp.user_id, mp.payment_type
+                ORDER BY mp.user_id
+            """.formatted(filterCondition("mp", minUserId)), paymentArgs,
+            (rs, rowNum) -> new MicroPaymentRow(
+                    rs.getLong("user_id"), rs.getString("payment_type"), rs.getLong("total_amount"))));
+        } else {
+            // 월별 집계 (결제유형 1개 = 상세 1라인)
+            paymentArgs.add(billingMonth.toString());
+            this.microPaymentCursor = peekable("microPayment", cursor(dataSource, """
+                SELECT mpm.user_id, mpm.payment_type, mpm.total_amount
+                FROM MICRO_PAYMENT_MONTHLY mpm
+                WHERE %smpm.billing_month = ?
+                ORDER BY mpm.user_id
+            """.formatted(filterCondition("mpm", minUserId)), paymentArgs,
+            (rs, rowNum) -> new MicroPaymentRow(
+                    rs.getLong("user_id"), rs.getString("payment_type"), rs.getLong("total_amount"))));
+        }
+
+        // 기존 청구서 (재실행 시)
+        List<Object> billArgs = new ArrayList<>(range);
+        billArgs.add(billingMonth.toString());
+        this.billCursor = peekable("bill", cursor(dataSource, """
+            SELECT b.user_id, b.bill_id
+            FROM BILLS b
+            WHERE %sb.billing_month = ?
+            ORDER BY b.user_id
+        """.formatted(filterCondition("b", minUserId)), billArgs,
+        (rs, rowNum) -> new UserValueRow(rs.getLong("user_id"), rs.getLong("bill_id"))));
+
+        // 단말 할부: 진행 중이고 이번 달 아직 청구하지 않은 할부 + (재실행) 이번 달에 이미 청구한 할부
+        List<Object> installmentArgs = new ArrayList<>(range);
+        installmentArgs.addAll(List.of(nextMonthStart, billingMonth.toString(), billingMonth.toString()));
+        this.installmentCursor = peekable("installment", cursor(dataSource, """
+            SELECT di.user_id, di.installment_id, di.monthly_fee
+            FROM DEVICE_INSTALLMENTS di
+            WHERE %sdi.created_at < ?
+              AND (
+                  (di.status = 'ONGOING'
+                   AND di.remaining_months > 0
+                   AND (di.last_billed_month IS NULL OR di.last_billed_month < ?))
+                  OR di.last_billed_month = ?
+              )
+            ORDER BY di.user_id
+        """.formatted(filterCondition("di", minUserId)), installmentArgs,
+        (rs, rowNum) -> new ChargeRow(
+                rs.getLong("user_id"), rs.getLong("installment_id"), rs.getLong("monthly_fee"))));
+
+        // 미납액: 청구 구간 종료 전에 납기가 지난 미납 / 부분 납부 건 중 미이월 + (재실행) 이번 달에 이월한 건
+        List<Object> arrearsArgs = new ArrayList<>(range);
+        arrearsArgs.addAll(List.of(nextMonthStart, billingMonth.toString()));
+        this.arrearsCursor = peekable("arrears", cursor(dataSource, """
+            SELECT ba.user_id, ba.arrears_id, ba.arrears_amount
+            FROM BILL_ARREARS ba
+            WHERE %sba.arrears_status IN ('UNPAID', 'PARTIAL')
+              AND ba.due_date < ?
+              AND (ba.carried_month IS NULL OR ba.carried_month = ?)
+            ORDER BY ba.user_id
+        """.formatted(filterCondition("ba", minUserId)), arrearsArgs,
+        (rs, rowNum) -> new ChargeRow(
+                rs.getLong("user_id"), rs.getLong("arrears_id"), rs.getLong("arrears_amount"))));
+    }
+
+    @Override
+    public BillingRecord read() throws Exception {
+        UserRow user = userCursor.read();
+        if (user == null) return null;
+
+        long userId = user.userId();
+        lastUserId = userId;
+
+        // 요금제가 여러 건이면 마지막 행 기준 (기존 Map.put 동작과 동일)
+        long[] plans = drain(planCursor, userId);
+        long[] existingBill = drain(billCursor, userId);
+
+        // addon_id → 월정액 (drain 결과 배열을 그대로 재사용)
+        long[] addonFees = drain(addonCursor, userId);
+        for (int i = 0; i < addonFees.length; i++) {
+            addonFees[i] = catalog.addonFee(addonFees[i]);
+        }
+
+        drainCharges(installmentCursor, userId, installmentIds, deviceFees);
+        drainCharges(arrearsCursor, userId, arrearsIds, arrearsAmounts);
+        drainMicroPayments(userId);
+
+        long arrearsAmount = 0L;
+        for (int i = 0; i < arrearsAmounts.size(); i++) arrearsAmount += arrearsAmounts.get(i);
+
+        return BillingRecord.builder()
+                .billId(existingBill.length == 0 ? nextBillId() : existingBill[0])
+                .existingBill(existingBill.length > 0)
+                .userId(userId)
+                .emailCipher(user.emailCipher())
+                .phoneCipher(user.phoneCipher())
+                .name(user.name())
+                .planFee(plans.length == 0 ? null : (long) catalog.planFee(plans[plans.length - 1]))
+                .addonFees(addonFees)
+                .microPayments(microAmounts.toArray())
+                .microPaymentTypes(itemizedMicroPayments ? null : microTypes.toArray(new String[0]))
+                .installmentIds(installmentIds.toArray())
+                .deviceFees(deviceFees.toArray())
+                .arrearsIds(arrearsIds.toArray())
+                .arrearsAmount(arrearsAmount)
+                .build();
+    }
+
+    /**
+     * 할부 / 미납 커서에서 user_id 이하인 행을 모두 소비하고, 같은 user_id의 행만 ids / amounts에 모음
+     */
+    private void drainCharges(SingleItemPeekableItemReader<ChargeRow> source, long userId,
+                              LongBuffer ids, LongBuffer amounts) throws Exception {
+        ids.clear();
+        amounts.clear();
+        ChargeRow row;
+        while ((row = source.peek()) != null && row.userId() <= userId) {
+            source.read();
+            if (row.userId() == userId) {
+                ids.add(row.id());
+                amounts.add(row.amount());
+            }
+        }
+    }
+
+    /**
+     * 소액결제 커서에서 user_id 이하인 행을 모두 소비하고, 같은 user_id의 금액 / 결제유형만 모음
+     */
+    private void drainMicroPayments(long userId) throws Exception {
+        microAmounts.clear();
+        microTypes.clear();
+        MicroPaymentRow row;
+        while ((row = microPaymentCursor.peek()) != null && row.userId() <= userId) {
+            microPaymentCursor.read();
+            if (row.userId() == userId) {
+                microAmounts.add(row.amount());
+                microTypes.add(row.paymentType());
+            }
+        }
+    }
+
+    /**
+     * 커서에서 user_id 이하인 행을 모두 소비하고, 같은 user_id의 값만 모아 반환
+     */
+    private long[] drain(SingleItemPeekableItemReader<UserValueRow> source, long userId) throws Exception {
+        scratch.clear();
+        UserValueRow row;
+        while ((row = source.peek()) != null && row.userId() <= userId) {
+            source.read();
+            if (row.userId() == userId) {
+                scratch.add(row.value());
+            }
+        }
+        return scratch.toArray();
+    }
+
+    private long nextBillId() {
+        if (billIdAllocator == null) return 0L;
+        if (nextBillId >= billIdBlockEnd) {
+            nextBillId = billIdAllocator.allocate(BILL_ID_BLOCK_SIZE);
+            billIdBlockEnd = nextBillId + BILL_ID_BLOCK_SIZE;
+        }
+        return nextBillId++;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        Long from = minUserId;
+        Long to = maxUserId;
+
+        // 재시작: 마지막으로 커밋된 user_id 다음부터
+        if (executionContext.containsKey(LAST_USER_ID)) {
+            lastUserId = executionContext.getLong(LAST_USER_ID);
+            from = lastUserId + 1;
+            if (to == null) to = Long.MAX_VALUE;
+            log.info("[BILLING] restart from user_id > {} (billingMonth={})", lastUserId, billingMonth);
+        }
+
+        createCursors(from, to);
+
+        userCursor.open(executionContext);
+        planCursor.open(executionContext);
+        addonCursor.open(executionContext);
+        microPaymentCursor.open(executionContext);
+        billCursor.open(executionContext);
+        installmentCursor.open(executionContext);
+        arrearsCursor.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        // 청크 커밋 직전에 호출됨 → 이 청크의 마지막 user_id가 커밋 지점
+        if (lastUserId != null) {
+            executionContext.putLong(LAST_USER_ID, lastUserId);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (userCursor == null) return;
+        userCursor.close();
+        planCursor.close();
+        addonCursor.close();
+        microPaymentCursor.close();
+        billCursor.close();
+        installmentCursor.close();
+        arrearsCursor.close();
+    }
+
+    /* =========================
+     * 공통 util
+     * ========================= */
+    // user_id 구간 + (증분 청구 시) 재계산 대상 + (청구 주기 cohort) 기준일 조건. 바인딩 순서는 createCursors의 range 목록과 같음
+    private String filterCondition(String alias, Long minUserId) {
+        String condition = minUserId != null ? alias + ".user_id BETWEEN ? AND ? AND " : "";
+        if (changedUsersOnly) {
+            condition += "EXISTS (SELECT 1 FROM BILLING_DELTA_USERS d WHERE d.billing_month = ? AND d.user_id = "
+                    + alias + ".user_id) AND ";
+        }
+        if (cycleDay != null) {
+            condition += alias.equals("u")
+                    ? "u.billing_cycle_day = ? AND "
+                    : "EXISTS (SELECT 1 FROM USERS cu WHERE cu.billing_cycle_day = ? AND cu.user_id = "
+                            + alias + ".user_id) AND ";
+        }
+        return condition;
+    }
+
+    private static <T> JdbcCursorItemReader<T> cursor(DataSource dataSource, String sql,
+                                                      List<Object> args, RowMapper<T> rowMapper) {
+        JdbcCursorItemReader<T> reader = new JdbcCursorItemReader<>();
+        reader.setDataSource(dataSource);
+        reader.setSql(sql);
+        reader.setPreparedStatementSetter(new ArgumentPreparedStatementSetter(args.toArray()));
+        reader.setRowMapper(rowMapper);
+        // MySQL 스트리밍 결과셋 (행 단위 전송)
+        reader.setFetchSize(Integer.MIN_VALUE);
+        reader.setVerifyCursorPosition(false);
+        reader.setSaveState(false);
+        return reader;
+    }
+
+    private <T> SingleItemPeekableItemReader<T> peekable(String source, JdbcCursorItemReader<T> cursor) {
+        SingleItemPeekableItemReader<T> reader = new SingleItemPeekableItemReader<>();
+        reader.setDelegate(sourcePrefetch > 0
+                ? new PrefetchingItemReader<>(cursor, "billing-prefetch-" + source, sourcePrefetch)
+                : cursor);
+        return reader;
+    }
+
+    private record UserRow(long userId, String emailCipher, String phoneCipher, String name) {}
+
+    private record UserValueRow(long userId, long value) {}
+
+    // 결제유형별 합계면 paymentType 있음 (건별이면 null)
+    private record MicroPaymentRow(long userId, String paymentType, long amount) {}
+
+    // 할부(installment_id, 월 할부금) / 미납(arrears_id, 미납액)
+    private record ChargeRow(long userId, long id, long amount) {}
+}
@@ -0,0 +1,165 @@
+package com.ureca.billing.batch.util;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.batch.service.DeltaBillingService;
+import com.ureca.billing.batch.service.DeltaBillingService.PreviousClose;
+import com.ureca.billing.batch.service.PreBillingService;
+import com.ureca.billing.batch.service.PreBillingService.Snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 증분 청구 준비 + 이월 Tasklet (monthlyBillingJob 첫 Step)
+ *
+ * [1회차 호출] deltaMode=true 일 때 기준 선택 (요금표가 같은 경우만)
+ * - STAGING       : 이번 달 사전 청구(PRE_BILLING_SNAPSHOTS)가 있으면 그 이후 늦은 변경분만 재계산
+ * - PREVIOUS_MONTH: 없으면 전월 마감(BILLING_CLOSES) 이후 변경분만 재계산
+ *   → BILLING_DELTA_USERS 기록, Job ExecutionContext에 billing.deltaActive = true
+ * - 둘 다 없으면 비활성(전체 재계산)으로 바로 종료
+ *
+ * [이후 호출]
+ * - 기준 청구서(staging 또는 전월) user_id 범위를 slice-size 구간씩
+ *   승격/이월 (호출 1회 = 트랜잭션 1개)
+ * - 진행 위치는 Step ExecutionContext에 저장 → 실패 후 재시작 시 다음 구간부터
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeltaCarryForwardTasklet implements Tasklet {
+
+    // Job ExecutionContext: 증분 청구 활성 여부 (Reader / Decider / 마감 기록에서 사용)
+    public static final String DELTA_ACTIVE = "billing.deltaActive";
+
+    private static final String PLANNED = "delta.planned";
+    private static final String FALLBACK_REASON = "delta.fallbackReason";
+    private static final String SOURCE = "delta.source";
+    private static final String SOURCE_STAGING = "STAGING";
+    private static final String SOURCE_PREVIOUS_MONTH = "PREVIOUS_MONTH";
+    private static final String NEXT_USER_ID = "delta.nextUserId";
+    private static final String MAX_USER_ID = "delta.maxUserId";
+    private static final String CARRIED_BILLS = "delta.carriedBills";
+
+    private final DeltaBillingService deltaBillingService;
+    private final PreBillingService preBillingService;
+
+    // 이월 1회(트랜잭션 1개)에 처리할 user_id 구간 크기
+    @Value("${app.batch.billing.delta.slice-size:50000}")
+    private long sliceSize;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        StepExecution stepExecution = contribution.getStepExecution();
+        ExecutionContext context = stepExecution.getExecutionContext();
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        JobParameters parameters = stepExecution.getJobParameters();
+        YearMonth billingMonth = YearMonth.parse(parameters.getString("billingMonth"));
+
+        /* =========================
+         * 1️⃣ 증분 청구 가능 여부 판단 + 재계산 대상 기록
+         * ========================= */
+        if (!context.containsKey(PLANNED)) {
+            String fallbackReason = plan(billingMonth, parameters, context, jobContext);
+            context.putString(PLANNED, "true");
+
+            if (fallbackReason != null) {
+                log.info("[DELTA] {} full billing ({})", billingMonth, fallbackReason);
+                context.putString(FALLBACK_REASON, fallbackReason);
+                jobContext.put(DELTA_ACTIVE, false);
+                return RepeatStatus.FINISHED;
+            }
+            jobContext.put(DELTA_ACTIVE, true);
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        if (context.containsKey(FALLBACK_REASON)) {
+            jobContext.put(DELTA_ACTIVE, false);
+            return RepeatStatus.FINISHED;
+        }
+        jobContext.put(DELTA_ACTIVE, true);
+
+        /* =========================
+         * 2️⃣ 승격 / 이월 (구간 1개)
+         * ========================= */
+        if (!context.containsKey(NEXT_USER_ID)) {
+            return RepeatStatus.FINISHED;   // 전월 청구서 없음
+        }
+
+        long from = context.getLong(NEXT_USER_ID);
+        long max = context.getLong(MAX_USER_ID);
+        if (from > max) return RepeatStatus.FINISHED;
+
+        long to = Math.min(from + sliceSize - 1, max);
+        boolean fromStaging = SOURCE_STAGING.equals(context.getString(SOURCE));
+        int carried = fromStaging
+                ? preBillingService.promote(billingMonth, from, to)
+                : deltaBillingService.carryForward(billingMonth, from, to,
+                        Boolean.parseBoolean(parameters.getString("itemizedMicroPayments")));
+
+        contribution.incrementWriteCount(carried);
+        context.putLong(NEXT_USER_ID, to + 1);
+        context.putLong(CARRIED_BILLS, context.getLong(CARRIED_BILLS, 0L) + carried);
+
+        log.info("[DELTA] {} {} user_id {} ~ {} (new bills={})",
+                billingMonth, fromStaging ? "promoted staging" : "carried forward", from, to, carried);
+        return to >= max ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * @return 전체 재계산으로 대체하는 사유 (증분 청구 가능하면 null)
+     */
+    private String plan(YearMonth billingMonth, JobParameters parameters,
+                        ExecutionContext context, ExecutionContext jobContext) {
+        if (!Boolean.parseBoolean(parameters.getString("deltaMode"))) {
+            return "deltaMode=false";
+        }
+        // 이월 / 승격 기준(전월 마감, 사전 청구)은 달력 월 단위라 청구 기준일 cohort에는 적용하지 않음
+        if (parameters.getString("cycleDay") != null) {
+            return "rolling cycle cohort (cycleDay=" + parameters.getString("cycleDay") + ")";
+        }
+
+        String priceVersion = jobContext.getString(ProductCatalogHolder.CATALOG_PRICE_VERSION, null);
+
+        Map<String, Integer> counts;
+        long[] range;
+
+        Snapshot snapshot = preBillingService.findSnapshot(billingMonth);
+        PreviousClose previousClose = deltaBillingService.findPreviousClose(billingMonth);
+
+        if (snapshot != null && snapshot.getPriceVersion().equals(priceVersion)) {
+            // 사전 청구 결과 승격 + 늦은 변경분만 재계산
+            context.putString(SOURCE, SOURCE_STAGING);
+            counts = preBillingService.planLateDeltaUsers(billingMonth, snapshot);
+            range = preBillingService.stagingRange(billingMonth);
+        } else if (previousClose != null && previousClose.getPriceVersion().equals(priceVersion)) {
+            // 전월 정기 항목 이월 + 변경분만 재계산
+            context.putString(SOURCE, SOURCE_PREVIOUS_MONTH);
+            counts = deltaBillingService.planDeltaUsers(billingMonth, previousClose);
+            range = deltaBillingService.previousBillRange(billingMonth);
+        } else if (snapshot == null && previousClose == null) {
+            return "no pre-billing snapshot or close record for " + billingMonth.minusMonths(1);
+        } else {
+            return "price table changed (current " + priceVersion + ")";
+        }
+
+        counts.forEach((reason, count) -> context.putInt("delta.users." + reason, count));
+
+        if (range != null) {
+            context.putLong(NEXT_USER_ID, range[0]);
+            context.putLong(MAX_USER_ID, range[1]);
+        }
+        return null;
+    }
+}
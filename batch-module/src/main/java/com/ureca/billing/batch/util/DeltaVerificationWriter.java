@@ -0,0 +1,131 @@
+package com.ureca.billing.batch.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.batch.dto.BillingRecord;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 증분 청구 검증 Writer (verifyDelta=true)
+ *
+ * - 전체 재계산 결과(BillingRecord)와 저장된 BILLS 금액을 사용자별로 비교한다. (DB에 쓰지 않음)
+ * - 비교 항목: total / base_fee / addon_fee / micro_payment / device_fee / arrears 금액
+ * - 결과는 Step ExecutionContext(verify.*)에 기록하고, 불일치가 있으면 Step을 FAILED로 끝낸다.
+ *   · mismatched : 금액이 다른 청구서
+ *   · missing    : 재계산으로는 청구 대상인데 청구서가 없음
+ *   · extra      : 청구서는 있는데 재계산 대상이 아님 (청구서 수 - 재계산 건수 + missing)
+ */
+@Slf4j
+@Component
+@StepScope
+@RequiredArgsConstructor
+public class DeltaVerificationWriter implements ItemWriter<BillingRecord>, StepExecutionListener {
+
+    public static final String MISMATCHED = "verify.mismatched";
+    public static final String MISSING = "verify.missing";
+    public static final String EXTRA = "verify.extra";
+
+    // 로그로 남길 불일치 예시 수
+    private static final int SAMPLE_LIMIT = 20;
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+
+    @Value("#{jobParameters['billingMonth']}")
+    private String billingMonth;
+
+    private long verified;
+    private long mismatched;
+    private long missing;
+
+    @Override
+    public void write(Chunk<? extends BillingRecord> chunk) {
+        List<Long> userIds = new ArrayList<>(chunk.size());
+        for (BillingRecord record : chunk) {
+            userIds.add(record.getUserId());
+        }
+
+        Map<Long, long[]> stored = new HashMap<>();
+        namedJdbc.query("""
+            SELECT user_id, total_amount, base_fee_amount, addon_fee_amount, micro_payment_amount,
+                   device_fee_amount, arrears_amount
+            FROM BILLS
+            WHERE billing_month = :month
+              AND user_id IN (:userIds)
+        """, Map.of("month", billingMonth, "userIds", userIds), rs -> {
+            stored.put(rs.getLong("user_id"), new long[]{
+                    rs.getLong("total_amount"),
+                    rs.getLong("base_fee_amount"),
+                    rs.getLong("addon_fee_amount"),
+                    rs.getLong("micro_payment_amount"),
+                    rs.getLong("device_fee_amount"),
+                    rs.getLong("arrears_amount")});
+        });
+
+        for (BillingRecord record : chunk) {
+            verified++;
+            long[] amounts = stored.get(record.getUserId());
+            if (amounts == null) {
+                if (missing++ < SAMPLE_LIMIT) {
+                    log.warn("[VERIFY] {} missing bill. user_id={}", billingMonth, record.getUserId());
+                }
+                continue;
+            }
+
+            long[] expected = {
+                    record.getTotalAmount(),
+                    record.getBaseFeeAmount(),
+                    record.getAddonFeeAmount(),
+                    record.getMicroPaymentAmount(),
+                    record.getDeviceFeeAmount(),
+                    record.getArrearsAmount()};
+
+            if (!Arrays.equals(amounts, expected)) {
+                if (mismatched++ < SAMPLE_LIMIT) {
+                    log.warn("[VERIFY] {} mismatch user_id={} stored(total/base/addon/micro/device/arrears)={} full={}",
+                            billingMonth, record.getUserId(),
+                            Arrays.toString(amounts), Arrays.toString(expected));
+                }
+            }
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Long billCount = namedJdbc.queryForObject(
+                "SELECT COUNT(*) FROM BILLS WHERE billing_month = :month",
+                Map.of("month", billingMonth), Long.class);
+        long extra = Math.max(0, (billCount == null ? 0 : billCount) - (verified - missing));
+
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(MISMATCHED, mismatched);
+        context.putLong(MISSING, missing);
+        context.putLong(EXTRA, extra);
+
+        log.info("[VERIFY] {} verified={}, mismatched={}, missing={}, extra={}",
+                billingMonth, verified, mismatched, missing, extra);
+
+        if (mismatched + missing + extra > 0) {
+            return ExitStatus.FAILED.addExitDescription(
+                    "delta verification failed: mismatched=" + mismatched
+                            + ", missing=" + missing + ", extra=" + extra);
+        }
+        return stepExecution.getExitStatus();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ureca.billing.batch.util;
+
+import java.util.Arrays;
+
+/**
+ * long 전용 가변 배열
+ * - List<Long> 대신 사용해서 박싱(Long 객체)과 ArrayList 할당을 없앤다.
+ * - 스레드 안전하지 않음 (Reader/Writer 인스턴스 내부에서만 사용)
+ */
+public class LongBuffer {
+
+    public static final long[] EMPTY = new long[0];
+
+    private long[] values;
+    private int size;
+
+    public LongBuffer(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 현재 값들을 정확한 길이의 배열로 복사 (비어 있으면 공유 EMPTY 반환)
+     */
+    public long[] toArray() {
+        return size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+}
@@ -1,6 +1,5 @@
 package com.ureca.billing.batch.util;
 
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Map;
 
@@ -8,6 +7,7 @@ import javax.sql.DataSource;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.support.MySqlPagingQueryProvider;
@@ -15,6 +15,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.service.BillIdAllocator;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -22,68 +25,87 @@ import lombok.RequiredArgsConstructor;
 public class MonthlyBillingItemReader {
 
     private final DataSource dataSource;
-
+    private final BillIdAllocator billIdAllocator;
+    private final ProductCatalogHolder productCatalogHolder;
+
+    // 청구 레코드 미리 조립 개수 (0이면 Step 스레드에서 직접 조립) — 청크 1개 분량이면 커밋과 다음 청크 조립이 겹침
+    // 기본 0 (사용 안 함): 운영에서 필요할 때 켠다.
+    @Value("${app.batch.billing.pipeline.record-buffer:0}")
+    private int recordBuffer;
+
+    // 소스 커서(요금제/부가서비스/소액결제/기존 청구서)별 미리 읽기 행 수 (0이면 사용 안 함)
+    @Value("${app.batch.billing.pipeline.source-buffer:0}")
+    private int sourceBuffer;
+
+    /**
+     * 청구 대상 사용자 + 요금 데이터 스트리밍 Reader
+     * - 파티션 모드에서는 UserIdRangePartitioner가 stepExecutionContext에 넣은 user_id 구간만 읽는다.
+     * - 단일 Step 모드에서는 minUserId/maxUserId가 없으므로 전체를 읽는다.
+     * - 요금제/부가서비스 월정액은 Job 단위 카탈로그 스냅샷에서 조회한다.
+     *   (원격 워커가 새로 적재한 카탈로그는 Job ExecutionContext의 catalogVersion과 같아야 함)
+     * - itemizedMicroPayments=true 이면 소액결제를 건별로 읽는다. (기본: 월별 집계)
+     * - record-buffer > 0 이면 별도 스레드에서 다음 청크 레코드를 미리 조립한다.
+     *   (Writer가 청크 N을 커밋하는 동안 청크 N+1 소스 쿼리 진행, 큐 크기로 메모리 제한)
+     *   재시작 지점은 Writer로 넘어간 마지막 레코드의 user_id로 기록한다.
+     * - 증분 청구가 활성화된 실행(billing.deltaActive)이면 BILLING_DELTA_USERS 사용자만 읽는다.
+     * - cycleDay가 있으면 해당 청구 기준일 사용자만, 기준일에 맞춘 청구 구간으로 읽는다.
+     */
     @Bean
     @StepScope
-    public ItemReader<Long> billingUserReader(
-        @Value("#{jobParameters['billingMonth']}") String billingMonth
+    public ItemStreamReader<BillingRecord> billingRecordReader(
+        @Value("#{jobParameters['billingMonth']}") String billingMonth,
+        @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+        @Value("#{stepExecutionContext['minUserId']}") Long minUserId,
+        @Value("#{stepExecutionContext['maxUserId']}") Long maxUserId,
+        @Value("#{jobParameters['itemizedMicroPayments']}") String itemizedMicroPayments,
+        @Value("#{jobExecutionContext['billing.deltaActive']}") Boolean deltaActive,
+        @Value("#{jobParameters['cycleDay']}") String cycleDay,
+        @Value("#{jobExecutionContext['catalogVersion']}") String catalogVersion
     ) {
-        YearMonth ym = YearMonth.parse(billingMonth);
-        LocalDate monthStart = ym.atDay(1);
-        LocalDate nextMonthStart = ym.plusMonths(1).atDay(1);
-
-        JdbcPagingItemReader<Long> reader = new JdbcPagingItemReader<>();
-        reader.setDataSource(dataSource);
-        
-        // MySQL Connector/J는 setFetchSize()에 양수 값을 허용하지 않음
-        // 양수 값(예: 100) 설정 시 "Illegal value for setFetchSize()" 에러 발생
-        // 허용 값: 0 또는 Integer.MIN_VALUE만 가능
-        // JdbcPagingItemReader는 페이지 단위로 데이터를 읽으므로 fetchSize 설정이 필수는 아님
-        // 서버 DB에서 에러가 나서 주석처리 합니다.
-        // reader.setFetchSize(100); 
-        
-        reader.setPageSize(1000);
-        reader.setRowMapper((rs, rowNum) -> rs.getLong("user_id"));
-
-        MySqlPagingQueryProvider qp = new MySqlPagingQueryProvider();
-        qp.setSelectClause("u.user_id");
-        qp.setFromClause("FROM USERS u");
-        qp.setWhereClause("""
-            (
-                EXISTS (
-                    SELECT 1
-                    FROM USER_PLANS up
-                    WHERE up.user_id = u.user_id
-                      AND up.start_date < :nextMonthStart
-                      AND (up.end_date IS NULL OR up.end_date >= :monthStart)
-                )
-                OR
-                EXISTS (
-                    SELECT 1
-                    FROM USER_ADDONS ua
-                    WHERE ua.user_id = u.user_id
-                      AND ua.start_date < :nextMonthStart
-                      AND (ua.end_date IS NULL OR ua.end_date >= :monthStart)
-                )
-            )
-        """);
-
-        qp.setSortKeys(Map.of("u.user_id", Order.ASCENDING));
-
-        reader.setQueryProvider(qp);
-        reader.setParameterValues(Map.of(
-            "monthStart", monthStart,
-            "nextMonthStart", nextMonthStart
-        ));
+        YearMonth month = YearMonth.parse(billingMonth);
+        BillingRecordItemReader reader = new BillingRecordItemReader(
+            dataSource, billIdAllocator, productCatalogHolder.get(jobExecutionId, month, catalogVersion),
+            month, minUserId, maxUserId, Boolean.parseBoolean(itemizedMicroPayments), sourceBuffer
+        );
+        reader.setChangedUsersOnly(Boolean.TRUE.equals(deltaActive));
+        reader.setCycleDay(BillingCycle.parse(cycleDay));
+        if (recordBuffer <= 0) {
+            return reader;
+        }
+        return new PrefetchingItemReader<>(reader, "billing-prefetch-records", recordBuffer,
+            (record, context) -> context.putLong(BillingRecordItemReader.LAST_USER_ID, record.getUserId()));
+    }
 
+    /**
+     * 전체 재계산 Reader (bill_id 할당 없음)
+     * - 증분 청구 검증(deltaVerificationStep)과 사전 청구(preBillingStep)에서 사용
+     * - 모든 청구 대상 사용자를 읽는다.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<BillingRecord> fullRecomputeRecordReader(
+        @Value("#{jobParameters['billingMonth']}") String billingMonth,
+        @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+        @Value("#{jobParameters['itemizedMicroPayments']}") String itemizedMicroPayments,
+        @Value("#{jobParameters['cycleDay']}") String cycleDay,
+        @Value("#{jobExecutionContext['catalogVersion']}") String catalogVersion
+    ) {
+        YearMonth month = YearMonth.parse(billingMonth);
+        BillingRecordItemReader reader = new BillingRecordItemReader(
+            dataSource, null, productCatalogHolder.get(jobExecutionId, month, catalogVersion),
+            month, null, null, Boolean.parseBoolean(itemizedMicroPayments), sourceBuffer
+        );
+        reader.setCycleDay(BillingCycle.parse(cycleDay));
         return reader;
     }
 
     @Bean
     @StepScope
     public ItemReader<Long> billItemReader(
-            @Value("#{jobParameters['billingMonth']}") String billingMonth
+            @Value("#{jobParameters['billingMonth']}") String billingMonth,
+            @Value("#{jobParameters['cycleDay']}") String cycleDay
     ) {
+        Integer cohort = BillingCycle.parse(cycleDay);
         JdbcPagingItemReader<Long> reader = new JdbcPagingItemReader<>();
         reader.setDataSource(dataSource);
         reader.setPageSize(1000);
@@ -99,16 +121,27 @@ public class MonthlyBillingItemReader {
 
         // 2. FROM: 청구서(BILLS)를 기준으로 아웃박스(OUTBOX_EVENTS)를 LEFT JOIN
         //    -> 이렇게 하면 매칭되는 아웃박스가 없으면 o.event_id가 NULL이 됩니다.
-        qp.setFromClause("FROM BILLS b LEFT JOIN OUTBOX_EVENTS o ON b.bill_id = o.bill_id");
+        //    -> 두 테이블 모두 청구월 파티션 1개만 읽도록 billing_month 조건을 함께 건다.
+        qp.setFromClause("FROM BILLS b LEFT JOIN OUTBOX_EVENTS o"
+                + " ON o.billing_month = :billingMonth AND b.bill_id = o.bill_id");
 
         // 3. WHERE: '이번 달 청구서' 중에서 AND '아웃박스에 기록이 없는(IS NULL)' 것만 골라라
-        qp.setWhereClause("WHERE b.billing_month = :billingMonth AND o.event_id IS NULL");
+        //    -> 보존 기간이 지나 OUTBOX_EVENTS_ARCHIVE로 옮겨진 발행 완료 이벤트도 '기록 있음'으로 본다.
+        //       (지난 월 재실행/재시작 시 알림을 다시 만들지 않도록, uk_outbox_archive_bill_type 사용)
+        qp.setWhereClause("WHERE b.billing_month = :billingMonth AND o.event_id IS NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM OUTBOX_EVENTS_ARCHIVE a"
+                + " WHERE a.bill_id = b.bill_id AND a.billing_month = :billingMonth)"
+                + (cohort != null
+                        ? " AND EXISTS (SELECT 1 FROM USERS u WHERE u.user_id = b.user_id AND u.billing_cycle_day = :cycleDay)"
+                        : ""));
 
         // 4. 정렬: 페이징 Reader의 필수 조건
         qp.setSortKeys(Map.of("b.bill_id", Order.ASCENDING));
 
         reader.setQueryProvider(qp);
-        reader.setParameterValues(Map.of("billingMonth", billingMonth));
+        reader.setParameterValues(cohort != null
+                ? Map.of("billingMonth", billingMonth, "cycleDay", cohort)
+                : Map.of("billingMonth", billingMonth));
 
         return reader;
     }
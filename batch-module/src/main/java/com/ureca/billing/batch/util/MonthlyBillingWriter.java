@@ -9,6 +9,8 @@ import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.service.BillingWriteMode;
 import com.ureca.billing.batch.service.MonthlyBillingService;
 
 import lombok.RequiredArgsConstructor;
@@ -16,15 +18,27 @@ import lombok.RequiredArgsConstructor;
 @Component
 @StepScope
 @RequiredArgsConstructor
-public class MonthlyBillingWriter implements ItemWriter<Long> {
+public class MonthlyBillingWriter implements ItemWriter<BillingRecord> {
 
     private final MonthlyBillingService billingService;
 
     @Value("#{jobParameters['billingMonth']}")
     private String billingMonth;
 
+    // 청구 기준일 cohort (없으면 전체 사용자, 달력 월)
+    @Value("#{jobParameters['cycleDay']}")
+    private String cycleDay;
+
+    // "true"면 청구서와 함께 OUTBOX_EVENTS까지 생성 (monthlyOutboxStep 생략)
+    @Value("#{jobParameters['fusedOutbox']}")
+    private String fusedOutbox;
+
+    // BATCH(기본) | BULK_LOAD
+    @Value("#{jobParameters['writeMode']}")
+    private String writeMode;
+
     @Override
-    public void write(Chunk<? extends Long> chunk) {
+    public void write(Chunk<? extends BillingRecord> chunk) {
         if (billingMonth == null) {
             throw new IllegalStateException("billingMonth 파라미터가 없습니다");
         }
@@ -32,7 +46,10 @@ public class MonthlyBillingWriter implements ItemWriter<Long> {
         // billingService.process(
         billingService.createBills(
                 new ArrayList<>(chunk.getItems()),
-                YearMonth.parse(billingMonth)
+                YearMonth.parse(billingMonth),
+                BillingCycle.parse(cycleDay),
+                Boolean.parseBoolean(fusedOutbox),
+                BillingWriteMode.from(writeMode)
         );
     }
 
@@ -0,0 +1,174 @@
+package com.ureca.billing.batch.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+/**
+ * 백그라운드 스레드로 미리 읽어두는(read-ahead) Reader 래퍼
+ *
+ * [동작]
+ * - open 시 전용 스레드를 띄워 delegate.read()를 계속 호출하고 결과를 bounded 큐에 넣는다.
+ * - read()는 큐에서 꺼내기만 한다. → Writer가 커밋하는 동안 다음 데이터를 미리 읽음
+ * - 큐가 가득 차면 읽기 스레드가 대기한다. (backpressure: 메모리는 capacity 개로 제한)
+ * - 읽기 스레드에서 예외가 나면 read() 호출 스레드로 다시 던진다.
+ *
+ * [재시작]
+ * - delegate.update()는 호출하지 않는다. (delegate 상태는 이미 capacity 만큼 앞서 있음)
+ * - 대신 checkpoint가 있으면 "마지막으로 read()가 반환한 항목" 기준으로 상태를 기록한다.
+ *
+ * [종료]
+ * - open 이후 delegate.close()는 읽기 스레드가 직접 호출한다. (읽기를 마친 뒤 / 중단 요청을 확인한 뒤)
+ * - close()는 중단을 요청하고 읽기 스레드가 끝나기를 기다린다.
+ *   JDBC 소켓 읽기는 interrupt로 풀리지 않으므로, 대기 시간을 넘겨도 다른 스레드에서 delegate를 닫지 않는다.
+ *   (읽던 행이 도착하면 읽기 스레드가 멈추고 커서를 닫음 → read()와 close()가 동시에 실행되지 않음)
+ *
+ * [주의]
+ * - delegate는 읽기 스레드 하나에서만 호출된다. (thread-safe 할 필요 없음, open 제외)
+ * - read()는 Step 스레드 하나에서만 호출해야 한다.
+ */
+public class PrefetchingItemReader<T> implements ItemStreamReader<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(PrefetchingItemReader.class);
+
+    // 읽기 종료 표시
+    private static final Object END = new Object();
+
+    private static final long CLOSE_WAIT_MS = 30_000;
+
+    private final ItemStreamReader<T> delegate;
+    private final String name;
+    private final BlockingQueue<Object> queue;
+    private final BiConsumer<T, ExecutionContext> checkpoint;
+
+    private Thread producer;
+    private volatile boolean stopped;
+    private volatile Throwable failure;
+    private boolean exhausted;
+    private T lastItem;
+
+    /**
+     * @param name       읽기 스레드 이름 (로그 / 스레드 덤프 식별용)
+     * @param capacity   미리 읽어둘 최대 항목 수
+     * @param checkpoint update() 시 마지막 반환 항목으로 재시작 상태를 기록 (null이면 기록 안 함)
+     */
+    public PrefetchingItemReader(ItemStreamReader<T> delegate, String name, int capacity,
+                                 BiConsumer<T, ExecutionContext> checkpoint) {
+        this.delegate = delegate;
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.checkpoint = checkpoint;
+    }
+
+    public PrefetchingItemReader(ItemStreamReader<T> delegate, String name, int capacity) {
+        this(delegate, name, capacity, null);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (producer != null && producer.isAlive()) {
+            throw new ItemStreamException("[" + name + "] previous read-ahead thread is still running");
+        }
+        delegate.open(executionContext);
+        queue.clear();
+        stopped = false;
+        failure = null;
+        exhausted = false;
+        lastItem = null;
+
+        producer = new Thread(this::produce, name);
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce() {
+        try {
+            T item;
+            while (!stopped && (item = delegate.read()) != null) {
+                queue.put(item);
+            }
+        } catch (InterruptedException e) {
+            // close() 요청
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            closeDelegate();
+        }
+
+        if (stopped) return;
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 읽기 스레드에서만 호출 (read 중인 커서를 다른 스레드가 닫지 않도록)
+    private void closeDelegate() {
+        try {
+            delegate.close();
+        } catch (Throwable e) {
+            if (failure == null && !stopped) {
+                failure = e;
+            } else {
+                log.warn("[PREFETCH] {} close failed", name, e);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+        if (exhausted) return null;
+
+        Object next = queue.take();
+        if (next == END) {
+            exhausted = true;
+            if (failure != null) {
+                throw new ItemStreamException("[" + name + "] read-ahead failed", failure);
+            }
+            return null;
+        }
+
+        lastItem = (T) next;
+        return lastItem;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (checkpoint != null && lastItem != null) {
+            checkpoint.accept(lastItem, executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (producer == null) {
+            // 읽기 스레드를 띄우기 전 (open 실패 등)
+            delegate.close();
+            return;
+        }
+
+        // 중단 요청 → 읽기 스레드가 읽던 행까지만 처리하고 커서를 닫는다.
+        stopped = true;
+        producer.interrupt();
+        queue.clear();
+        try {
+            producer.join(CLOSE_WAIT_MS);
+            if (producer.isAlive()) {
+                log.warn("[PREFETCH] {} did not stop within {}ms (cursor is closed when the pending read returns)",
+                        name, CLOSE_WAIT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ureca.billing.batch.util;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.core.catalog.ProductCatalog;
+import com.ureca.billing.core.catalog.ProductCatalogLoader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Job 실행 단위 상품 카탈로그 보관소
+ *
+ * - beforeJob: 청구월 기준 PLANS / ADDONS 스냅샷을 1회 적재하고,
+ *   버전/건수를 Job ExecutionContext에 기록 (BATCH_JOB_EXECUTION_CONTEXT로 감사 가능)
+ * - Reader는 jobExecutionId로 같은 스냅샷을 공유 (LOCAL 파티션 워커 포함)
+ * - afterJob: 스냅샷 해제
+ *
+ * [원격 파티션 워커]
+ * - 워커 JVM에서는 beforeJob / afterJob이 실행되지 않으므로 첫 Reader 생성 시 PLANS / ADDONS를 새로 적재한다.
+ * - 적재한 카탈로그의 version이 Job ExecutionContext의 catalogVersion(manager가 beforeJob에서 기록)과
+ *   다르면 실패시킨다. (manager 적재 이후 요금이 바뀌면 파티션마다 다른 요금으로 청구되므로)
+ * - 워커 Step의 afterStep에서 해제 (이 JVM이 beforeJob을 실행하지 않은 Job만)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogHolder implements JobExecutionListener, StepExecutionListener {
+
+    public static final String CATALOG_VERSION = "catalogVersion";
+    public static final String CATALOG_PRICE_VERSION = "catalogPriceVersion";
+    public static final String CATALOG_PLAN_COUNT = "catalogPlanCount";
+    public static final String CATALOG_ADDON_COUNT = "catalogAddonCount";
+
+    private final ProductCatalogLoader productCatalogLoader;
+
+    private final Map<Long, ProductCatalog> catalogs = new ConcurrentHashMap<>();
+
+    // 이 JVM에서 beforeJob을 실행한 Job (afterJob에서 해제)
+    private final Set<Long> ownedJobs = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        ownedJobs.add(jobExecution.getId());
+        String billingMonth = jobExecution.getJobParameters().getString("billingMonth");
+        ProductCatalog catalog = get(jobExecution.getId(), YearMonth.parse(billingMonth), null);
+
+        jobExecution.getExecutionContext().putString(CATALOG_VERSION, catalog.getVersion());
+        jobExecution.getExecutionContext().putString(CATALOG_PRICE_VERSION, catalog.getPriceVersion());
+        jobExecution.getExecutionContext().putInt(CATALOG_PLAN_COUNT, catalog.planCount());
+        jobExecution.getExecutionContext().putInt(CATALOG_ADDON_COUNT, catalog.addonCount());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        catalogs.remove(jobExecution.getId());
+        ownedJobs.remove(jobExecution.getId());
+    }
+
+    // 원격 파티션 워커: afterJob이 오지 않으므로 Step 종료 시 해제 (다음 파티션은 다시 적재 + 검증)
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Long jobExecutionId = stepExecution.getJobExecutionId();
+        if (!ownedJobs.contains(jobExecutionId)) {
+            catalogs.remove(jobExecutionId);
+        }
+        return null;
+    }
+
+    /**
+     * 해당 Job 실행의 스냅샷 반환 (없으면 적재)
+     *
+     * @param expectedVersion Job ExecutionContext의 catalogVersion (null이면 검증 생략 → beforeJob 적재)
+     */
+    public ProductCatalog get(Long jobExecutionId, YearMonth billingMonth, String expectedVersion) {
+        ProductCatalog catalog = catalogs.computeIfAbsent(jobExecutionId,
+                id -> productCatalogLoader.load(billingMonth));
+
+        if (!catalog.getBillingMonth().equals(billingMonth)) {
+            throw new IllegalStateException("카탈로그 청구월 불일치: expected=" + billingMonth
+                    + ", actual=" + catalog.getBillingMonth());
+        }
+        if (expectedVersion != null && !Objects.equals(expectedVersion, catalog.getVersion())) {
+            catalogs.remove(jobExecutionId, catalog);
+            throw new IllegalStateException("카탈로그 버전 불일치 (Job 시작 이후 PLANS / ADDONS 변경): expected="
+                    + expectedVersion + ", actual=" + catalog.getVersion());
+        }
+        return catalog;
+    }
+}
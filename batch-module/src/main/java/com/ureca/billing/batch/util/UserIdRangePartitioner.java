@@ -0,0 +1,73 @@
+package com.ureca.billing.batch.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * USERS.user_id 구간 분할 Partitioner
+ *
+ * - MIN(user_id) ~ MAX(user_id) 구간을 gridSize 개의 연속 구간으로 나눈다.
+ * - 각 파티션의 ExecutionContext에 minUserId / maxUserId(포함)를 저장하며,
+ *   워커 Step의 Reader가 이 구간만 읽는다.
+ * - 파티션별 진행 상황은 BATCH_STEP_EXECUTION(monthlyBillingWorkerStep:partitionN)에 기록된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIdRangePartitioner implements Partitioner {
+
+    public static final String MIN_USER_ID = "minUserId";
+    public static final String MAX_USER_ID = "maxUserId";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Long> range = jdbcTemplate.queryForObject(
+                "SELECT MIN(user_id) AS min_id, MAX(user_id) AS max_id FROM USERS",
+                (rs, rowNum) -> {
+                    Map<String, Long> m = new HashMap<>();
+                    m.put("min", rs.getObject("min_id") != null ? rs.getLong("min_id") : null);
+                    m.put("max", rs.getObject("max_id") != null ? rs.getLong("max_id") : null);
+                    return m;
+                });
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+
+        // USERS가 비어 있으면 빈 구간 1개만 생성 (워커는 읽을 데이터 없이 종료)
+        if (range == null || range.get("min") == null) {
+            partitions.put("partition0", rangeContext(1L, 0L));
+            return partitions;
+        }
+
+        long min = range.get("min");
+        long max = range.get("max");
+        int grid = Math.max(1, gridSize);
+        long span = (max - min) / grid + 1;
+
+        int index = 0;
+        for (long start = min; start <= max; start += span) {
+            long end = Math.min(start + span - 1, max);
+            partitions.put("partition" + index, rangeContext(start, end));
+            log.info("[PARTITION] partition{} user_id {} ~ {}", index, start, end);
+            index++;
+        }
+
+        return partitions;
+    }
+
+    private ExecutionContext rangeContext(long minUserId, long maxUserId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_USER_ID, minUserId);
+        context.putLong(MAX_USER_ID, maxUserId);
+        return context;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ureca.billing.batch.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 재시도 백오프 / 배치 크기 조절 확인 (Kafka / DB 없이 계산만)
+ */
+class OutboxMessageRelayTest {
+
+    private OutboxMessageRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxMessageRelay(null, null, null, null, null, null);
+        ReflectionTestUtils.setField(relay, "retryBaseSeconds", 5L);
+        ReflectionTestUtils.setField(relay, "retryMaxSeconds", 600L);
+        ReflectionTestUtils.setField(relay, "minBatchSize", 100);
+        ReflectionTestUtils.setField(relay, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(relay, "targetLatencyMs", 1000L);
+    }
+
+    @Test
+    void retryDelayDoublesPerAttemptUpToMax() {
+        assertThat(relay.retryDelaySeconds(1)).isEqualTo(5);
+        assertThat(relay.retryDelaySeconds(2)).isEqualTo(10);
+        assertThat(relay.retryDelaySeconds(3)).isEqualTo(20);
+        assertThat(relay.retryDelaySeconds(7)).isEqualTo(320);
+        assertThat(relay.retryDelaySeconds(8)).isEqualTo(600);
+
+        // 시도 횟수가 커도 shift 상한(30)으로 오버플로 없이 max 유지
+        assertThat(relay.retryDelaySeconds(64)).isEqualTo(600);
+        assertThat(relay.retryDelaySeconds(Integer.MAX_VALUE)).isEqualTo(600);
+    }
+
+    @Test
+    void fullBatchWithinTargetDoublesUpToMax() {
+        relay.adjustBatchSize(400, 400, 200, false);
+        assertThat(batchSize()).isEqualTo(800);
+
+        relay.adjustBatchSize(800, 800, 200, false);
+        assertThat(batchSize()).isEqualTo(1000);
+    }
+
+    @Test
+    void partialBatchKeepsSize() {
+        batchSizeRef().set(400);
+        relay.adjustBatchSize(400, 150, 200, false);
+        assertThat(batchSize()).isEqualTo(400);
+    }
+
+    @Test
+    void slowOrFailedBatchHalvesDownToMin() {
+        relay.adjustBatchSize(800, 800, 1500, false);
+        assertThat(batchSize()).isEqualTo(400);
+
+        relay.adjustBatchSize(400, 400, 200, true);
+        assertThat(batchSize()).isEqualTo(200);
+
+        relay.adjustBatchSize(150, 150, 5000, false);
+        assertThat(batchSize()).isEqualTo(100);
+    }
+
+    private int batchSize() {
+        return batchSizeRef().get();
+    }
+
+    private AtomicInteger batchSizeRef() {
+        return (AtomicInteger) ReflectionTestUtils.getField(relay, "batchSize");
+    }
+}
@@ -0,0 +1,137 @@
+package com.ureca.billing.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.support.MySqlTestSupport;
+import com.ureca.billing.batch.util.BillingRecordItemReader;
+import com.ureca.billing.core.catalog.ProductCatalog;
+import com.ureca.billing.core.catalog.ProductCatalogLoader;
+
+/**
+ * 증분 청구 결과가 전체 재계산과 같은지 확인 (가입 행이 삭제된 경우)
+ * - 부가서비스 행을 DELETE하면 updated_at으로는 변경을 알 수 없으므로
+ *   전월 청구서와 현재 가입 정보 비교로 재계산 대상이 되어야 한다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DeltaBillingDeletedSubscriptionTest extends MySqlTestSupport {
+
+    private static final YearMonth PREV_MONTH = YearMonth.of(2025, 1);
+    private static final YearMonth MONTH = YearMonth.of(2025, 2);
+    private static final LocalDate JOINED = LocalDate.of(2024, 12, 1);
+
+    private static final long CHANGED_USER = 1L;
+    private static final long UNCHANGED_USER = 2L;
+
+    private MonthlyBillingService billingService;
+    private DeltaBillingService deltaService;
+    private BillIdAllocator billIdAllocator;
+    private ProductCatalog catalog;
+    private long deletedAddonId;
+
+    @BeforeEach
+    void setUp() {
+        cleanBillingTables();
+
+        OutboxRowEncoder encoder = new OutboxRowEncoder(new ObjectMapper(),
+                () -> new SecretKeySpec(new byte[32], "AES"));
+        encoder.init();
+        billingService = new MonthlyBillingService(namedJdbc, jdbcTemplate,
+                new BillingBulkLoader(jdbcTemplate), encoder, event -> { });
+        billIdAllocator = new BillIdAllocator(jdbcTemplate);
+        deltaService = new DeltaBillingService(namedJdbc, billIdAllocator);
+        catalog = new ProductCatalogLoader(jdbcTemplate).load(MONTH);
+
+        long planId = jdbcTemplate.queryForObject("SELECT MIN(plan_id) FROM PLANS", Long.class);
+        List<Long> addonIds = jdbcTemplate.queryForList(
+                "SELECT addon_id FROM ADDONS ORDER BY addon_id LIMIT 2", Long.class);
+        deletedAddonId = addonIds.get(1);
+
+        insertUser(CHANGED_USER);
+        insertUserPlan(CHANGED_USER, planId, JOINED);
+        insertUserAddon(CHANGED_USER, addonIds.get(0), JOINED);
+        insertUserAddon(CHANGED_USER, deletedAddonId, JOINED);
+
+        insertUser(UNCHANGED_USER);
+        insertUserPlan(UNCHANGED_USER, planId, JOINED);
+        insertUserAddon(UNCHANGED_USER, addonIds.get(0), JOINED);
+
+        // 전월: 전체 청구 + 마감
+        billingService.createBills(read(PREV_MONTH, billIdAllocator, false), PREV_MONTH, null, false,
+                BillingWriteMode.BATCH);
+        deltaService.recordClose(PREV_MONTH, LocalDateTime.of(2025, 2, 1, 0, 0),
+                catalog.getPriceVersion(), false, 1L);
+    }
+
+    @Test
+    void deletedAddonIsRecomputedInsteadOfCarriedForward() {
+        jdbcTemplate.update("DELETE FROM USER_ADDONS WHERE user_id = ? AND addon_id = ?",
+                CHANGED_USER, deletedAddonId);
+
+        // 증분 청구: 재계산 대상 기록 → 나머지 이월 → 재계산 대상만 청구
+        deltaService.planDeltaUsers(MONTH, deltaService.findPreviousClose(MONTH));
+        assertThat(count("SELECT COUNT(*) FROM BILLING_DELTA_USERS WHERE billing_month = ? AND user_id = ?",
+                MONTH.toString(), CHANGED_USER)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM BILLING_DELTA_USERS WHERE billing_month = ? AND user_id = ?",
+                MONTH.toString(), UNCHANGED_USER)).isZero();
+
+        long[] range = deltaService.previousBillRange(MONTH);
+        deltaService.carryForward(MONTH, range[0], range[1], false);
+        billingService.createBills(read(MONTH, billIdAllocator, true), MONTH, null, false, BillingWriteMode.BATCH);
+
+        // 전체 재계산 결과와 비교
+        List<BillingRecord> full = read(MONTH, null, false);
+        assertThat(full).hasSize(2);
+        for (BillingRecord record : full) {
+            assertThat(storedAmount("total_amount", record.getUserId()))
+                    .as("total_amount user_id=%d", record.getUserId())
+                    .isEqualTo(record.getTotalAmount());
+            assertThat(storedAmount("addon_fee_amount", record.getUserId()))
+                    .as("addon_fee_amount user_id=%d", record.getUserId())
+                    .isEqualTo(record.getAddonFeeAmount());
+            assertThat(count("""
+                SELECT COUNT(*) FROM BILL_DETAILS bd
+                JOIN BILLS b ON b.bill_id = bd.bill_id AND b.billing_month = bd.billing_month
+                WHERE bd.billing_month = ? AND b.user_id = ? AND bd.charge_category = 'ADDON_FEE'
+            """, MONTH.toString(), record.getUserId())).isEqualTo(record.getAddonFees().length);
+        }
+    }
+
+    private long storedAmount(String column, long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT " + column + " FROM BILLS WHERE billing_month = ? AND user_id = ?",
+                Long.class, MONTH.toString(), userId);
+    }
+
+    private List<BillingRecord> read(YearMonth billingMonth, BillIdAllocator allocator, boolean changedUsersOnly) {
+        BillingRecordItemReader reader = new BillingRecordItemReader(dataSource, allocator, catalog,
+                billingMonth, null, null, false, 0);
+        reader.setChangedUsersOnly(changedUsersOnly);
+        try {
+            reader.open(new ExecutionContext());
+            List<BillingRecord> records = new ArrayList<>();
+            for (BillingRecord record = reader.read(); record != null; record = reader.read()) {
+                records.add(record);
+            }
+            return records;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ureca.billing.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ureca.billing.batch.dto.BillingRecord;
+import com.ureca.billing.batch.support.MySqlTestSupport;
+import com.ureca.billing.batch.util.MonthlyBillingItemReader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 보존 기간이 지나 OUTBOX_EVENTS_ARCHIVE로 옮겨진 월을 다시 돌려도 알림 이벤트를 새로 만들지 않는지 확인
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxCompactionRerunTest extends MySqlTestSupport {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+    private static final long USER_ID = 1L;
+    private static final long BILL_ID = 1001L;
+
+    private MonthlyBillingService billingService;
+    private OutboxCompactionService compactionService;
+
+    @BeforeEach
+    void setUp() {
+        cleanBillingTables();
+
+        OutboxRowEncoder encoder = new OutboxRowEncoder(new ObjectMapper(),
+                () -> new SecretKeySpec(new byte[32], "AES"));
+        encoder.init();
+        billingService = new MonthlyBillingService(namedJdbc, jdbcTemplate,
+                new BillingBulkLoader(jdbcTemplate), encoder, event -> { });
+
+        compactionService = new OutboxCompactionService(namedJdbc, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(compactionService, "enabled", true);
+        ReflectionTestUtils.setField(compactionService, "retentionDays", 7);
+        ReflectionTestUtils.setField(compactionService, "chunkSize", 100);
+        ReflectionTestUtils.setField(compactionService, "throttleMs", 0L);
+        ReflectionTestUtils.setField(compactionService, "maxRowsPerRun", 10_000L);
+        compactionService.init();
+
+        insertUser(USER_ID);
+        insertBill(BILL_ID, USER_ID, MONTH, 55_000L);
+
+        // 최초 실행: Outbox Step → 발행 완료 → 보존 기간 경과 → 정리
+        assertThat(readUnnotifiedBills()).containsExactly(BILL_ID);
+        billingService.createOutboxEvents(List.of(BILL_ID), MONTH, BillingWriteMode.BATCH);
+        jdbcTemplate.update("""
+            UPDATE OUTBOX_EVENTS
+            SET status = 'PUBLISHED', published_at = NOW() - INTERVAL 30 DAY
+        """);
+
+        assertThat(compactionService.compact()).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM OUTBOX_EVENTS")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM OUTBOX_EVENTS_ARCHIVE WHERE bill_id = ?", BILL_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void rerunOfOutboxStepAfterCompactionCreatesNoEvents() {
+        // 재실행: Reader가 청구서를 다시 고르지 않음
+        assertThat(readUnnotifiedBills()).isEmpty();
+
+        // 재시작: Reader가 정리 전에 읽어 둔 bill_id로 Writer만 다시 실행되는 경우
+        billingService.createOutboxEvents(List.of(BILL_ID), MONTH, BillingWriteMode.BATCH);
+
+        assertThat(count("SELECT COUNT(*) FROM OUTBOX_EVENTS")).isZero();
+    }
+
+    @Test
+    void fusedRerunAfterCompactionCreatesNoEvents() {
+        BillingRecord record = BillingRecord.builder()
+                .billId(BILL_ID)
+                .existingBill(true)
+                .userId(USER_ID)
+                .emailCipher("email-1")
+                .phoneCipher("phone-1")
+                .name("user1")
+                .planFee(55_000L)
+                .addonFees(new long[0])
+                .microPayments(new long[0])
+                .installmentIds(new long[0])
+                .deviceFees(new long[0])
+                .arrearsIds(new long[0])
+                .build();
+
+        billingService.createBills(List.of(record), MONTH, null, true, BillingWriteMode.BATCH);
+
+        assertThat(count("SELECT COUNT(*) FROM OUTBOX_EVENTS")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM BILL_DETAILS WHERE bill_id = ?", BILL_ID)).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> readUnnotifiedBills() {
+        MonthlyBillingItemReader config = new MonthlyBillingItemReader(dataSource, null, null);
+        JdbcPagingItemReader<Long> reader =
+                (JdbcPagingItemReader<Long>) config.billItemReader(MONTH.toString(), null);
+        try {
+            reader.afterPropertiesSet();
+            reader.open(new ExecutionContext());
+            List<Long> billIds = new ArrayList<>();
+            for (Long billId = reader.read(); billId != null; billId = reader.read()) {
+                billIds.add(billId);
+            }
+            reader.close();
+            return billIds;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ureca.billing.batch.support;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+/**
+ * 청구 SQL 통합 테스트 공통
+ * - MySQL 8 컨테이너에 Flyway 전체 마이그레이션을 적용한다. (파티션 / SKIP LOCKED / ON DUPLICATE KEY 그대로 검증)
+ * - 하위 클래스에 @Testcontainers(disabledWithoutDocker = true)를 붙인다. → Docker가 없으면 건너뜀
+ * - 서비스는 스프링 컨텍스트 없이 직접 생성한다. (Kafka / Redis 불필요)
+ */
+public abstract class MySqlTestSupport {
+
+    @Container
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36")
+            .withDatabaseName("billing");
+
+    protected static DataSource dataSource;
+    protected static JdbcTemplate jdbcTemplate;
+    protected static NamedParameterJdbcTemplate namedJdbc;
+    protected static PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void migrate() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * 테스트 간 청구 / 가입 데이터 초기화 (PLANS / ADDONS 마스터는 유지)
+     */
+    protected static void cleanBillingTables() {
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 0");
+        for (String table : new String[]{
+                "OUTBOX_EVENTS", "OUTBOX_EVENTS_ARCHIVE", "BILL_DETAILS", "BILLS", "BILL_ID_REGISTRY", "BILL_ARREARS",
+                "DEVICE_INSTALLMENTS", "MICRO_PAYMENTS", "MICRO_PAYMENT_MONTHLY", "USER_ADDONS", "USER_PLANS",
+                "BILLING_CLOSES", "BILLING_DELTA_USERS", "BILLS_STAGING", "BILL_DETAILS_STAGING",
+                "PRE_BILLING_SNAPSHOTS", "USERS"}) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + table);
+        }
+        // MICRO_PAYMENTS AUTO_INCREMENT가 초기화되므로 집계 반영 위치도 처음으로
+        jdbcTemplate.update("UPDATE MICRO_PAYMENT_ROLLUP_WATERMARK SET last_payment_id = 0 WHERE id = 1");
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 1");
+    }
+
+    protected static void insertUser(long userId) {
+        String hash = String.format("%064d", userId);
+        jdbcTemplate.update("""
+            INSERT INTO USERS (user_id, name, birth_date, status,
+                               email_cipher, email_hash, phone_cipher, phone_hash)
+            VALUES (?, ?, '1990-01-01', 'ACTIVE', ?, ?, ?, ?)
+        """, userId, "user" + userId, "email-" + userId, hash, "phone-" + userId, hash);
+    }
+
+    protected static void insertBill(long billId, long userId, YearMonth billingMonth, long totalAmount) {
+        jdbcTemplate.update("""
+            INSERT INTO BILLS (bill_id, user_id, billing_month, settlement_date, bill_issue_date, total_amount)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """, billId, userId, billingMonth.toString(), billingMonth.atEndOfMonth(), LocalDate.now(), totalAmount);
+    }
+
+    /**
+     * 가입 정보 (updated_at = start_date → 증분 기준 시각보다 이전 변경으로 취급)
+     */
+    protected static void insertUserPlan(long userId, long planId, LocalDate startDate) {
+        jdbcTemplate.update("""
+            INSERT INTO USER_PLANS (user_id, plan_id, start_date, status, created_at, updated_at)
+            VALUES (?, ?, ?, 'ACTIVE', ?, ?)
+        """, userId, planId, startDate, startDate.atStartOfDay(), startDate.atStartOfDay());
+    }
+
+    protected static void insertUserAddon(long userId, long addonId, LocalDate startDate) {
+        jdbcTemplate.update("""
+            INSERT INTO USER_ADDONS (user_id, addon_id, start_date, status, created_at, updated_at)
+            VALUES (?, ?, ?, 'ACTIVE', ?, ?)
+        """, userId, addonId, startDate, startDate.atStartOfDay(), startDate.atStartOfDay());
+    }
+
+    protected static int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ureca.billing.batch.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * 청크 크기 조절 범위 / 방향 확인
+ */
+class AdaptiveChunkSizePolicyTest {
+
+    @Test
+    void growsWhileThroughputImprovesAndStopsAtMax() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy("step", 1000, 500, 3000, 0);
+
+        policy.adjust(100, 10);   // probe: 1000 -> 1500
+        assertThat(policy.getSize()).isEqualTo(1500);
+        policy.adjust(200, 10);   // better: 1500 -> 2250
+        assertThat(policy.getSize()).isEqualTo(2250);
+        policy.adjust(300, 10);   // better: 2250 -> 3000 (max)
+        policy.adjust(400, 10);
+        assertThat(policy.getSize()).isEqualTo(3000);
+    }
+
+    @Test
+    void reversesWhenThroughputDropsAndHoldsWithinTolerance() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy("step", 1000, 100, 10000, 0);
+
+        policy.adjust(100, 10);   // probe: 1000 -> 1500
+        policy.adjust(80, 10);    // worse: 방향 반대 1500 -> 1000
+        assertThat(policy.getSize()).isEqualTo(1000);
+        policy.adjust(81, 10);    // 5% 이내: 유지
+        assertThat(policy.getSize()).isEqualTo(1000);
+    }
+
+    @Test
+    void slowWriteShrinksDownToMin() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy("step", 1000, 400, 10000, 100);
+
+        for (int i = 0; i < 10; i++) {
+            policy.adjust(1_000_000 + i, 500);   // 처리량이 좋아도 쓰기 ~ 커밋 지연이 길면 줄임
+        }
+        assertThat(policy.getSize()).isEqualTo(400);
+    }
+
+    @Test
+    void initialSizeIsClampedAndFixedRangeNeverChanges() {
+        assertThat(new AdaptiveChunkSizePolicy("step", 50, 100, 200, 0).getSize()).isEqualTo(100);
+        assertThat(new AdaptiveChunkSizePolicy("step", 500, 100, 200, 0).getSize()).isEqualTo(200);
+
+        // adaptive=false 설정: min = max = initial
+        AdaptiveChunkSizePolicy fixed = new AdaptiveChunkSizePolicy("step", 1000, 1000, 1000, 0);
+        fixed.adjust(100, 10);
+        fixed.adjust(50, 10);
+        fixed.adjust(100, 100_000);
+        assertThat(fixed.getSize()).isEqualTo(1000);
+    }
+
+    @Test
+    void decidedSizeIsRecordedBeforeNextCommitAndRestoredOnRestart() {
+        StepExecution stepExecution = new StepExecution("step", new JobExecution(1L));
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy("step", 1000, 100, 10000, 0);
+
+        policy.adjust(100, 10);            // 직전 청크 결과: 1000 -> 1500
+        policy.beforeChunk(chunkContext);  // 다음 청크 트랜잭션 안에서 기록
+        ExecutionContext context = stepExecution.getExecutionContext();
+        assertThat(context.getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE)).isEqualTo(1500);
+
+        policy.afterChunkError(chunkContext);   // 1500 -> 1000
+        policy.beforeChunk(chunkContext);
+        assertThat(context.getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE)).isEqualTo(1000);
+
+        AdaptiveChunkSizePolicy restarted = new AdaptiveChunkSizePolicy("step", 5000, 100, 10000, 0);
+        restarted.beforeStep(stepExecution);
+        assertThat(restarted.getSize()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ureca.billing.batch.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.ureca.billing.batch.util.BillDetailBuffer.DetailKind;
+import com.ureca.billing.core.entity.ChargeCategory;
+
+/**
+ * 컬럼형 상세 버퍼 확장 / 재사용 확인
+ */
+class BillDetailBufferTest {
+
+    @Test
+    void growsBeyondInitialCapacityKeepingEveryColumn() {
+        BillDetailBuffer buffer = new BillDetailBuffer(2);
+        DetailKind[] kinds = DetailKind.values();
+
+        for (int i = 0; i < 100; i++) {
+            buffer.add(1000L + i, kinds[i % kinds.length], i * 10L, 10L + i);
+        }
+
+        assertThat(buffer.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(buffer.billId(i)).isEqualTo(1000L + i);
+            assertThat(buffer.userId(i)).isEqualTo(10L + i);
+            assertThat(buffer.amount(i)).isEqualTo(i * 10L);
+            assertThat(buffer.kind(i)).isEqualTo(kinds[i % kinds.length]);
+        }
+    }
+
+    @Test
+    void zeroCapacityStillAcceptsRows() {
+        BillDetailBuffer buffer = new BillDetailBuffer(0);
+        buffer.add(1L, DetailKind.PLAN, 55000L, 7L);
+        buffer.add(1L, DetailKind.ADDON, 3300L, 7L);
+
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.kind(1)).isEqualTo(DetailKind.ADDON);
+    }
+
+    @Test
+    void clearEmptiesBufferForNextChunkAndOverwritesOldRows() {
+        BillDetailBuffer buffer = new BillDetailBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i, DetailKind.DEVICE, 100L, i);
+        }
+
+        buffer.clear();
+        assertThat(buffer.isEmpty()).isTrue();
+
+        buffer.add(99L, DetailKind.ARREARS, 5000L, 9L);
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.billId(0)).isEqualTo(99L);
+        assertThat(buffer.kind(0)).isEqualTo(DetailKind.ARREARS);
+        assertThat(buffer.amount(0)).isEqualTo(5000L);
+    }
+
+    @Test
+    void microPaymentKindFollowsPaymentType() {
+        assertThat(DetailKind.microPayment(null)).isEqualTo(DetailKind.MICRO_PAYMENT);
+        for (String type : new String[] {"APP", "CONTENT", "GAME"}) {
+            DetailKind kind = DetailKind.microPayment(type);
+            assertThat(kind.getDetailType()).isEqualTo(DetailKind.MICRO_PAYMENT_SUMMARY_PREFIX + type);
+            assertThat(kind.getChargeCategory()).isEqualTo(ChargeCategory.MICRO_PAYMENT);
+        }
+        assertThatThrownBy(() -> DetailKind.microPayment("UNKNOWN"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
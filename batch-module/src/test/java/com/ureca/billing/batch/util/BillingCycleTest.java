@@ -0,0 +1,72 @@
+package com.ureca.billing.batch.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 청구 구간 / 정산일 계산 확인
+ */
+class BillingCycleTest {
+
+    @Test
+    void cycleDayOneAndNullMatchCalendarMonth() {
+        for (YearMonth month : new YearMonth[] {YearMonth.of(2025, 1), YearMonth.of(2024, 2), YearMonth.of(2025, 12)}) {
+            for (Integer day : new Integer[] {null, 1}) {
+                assertThat(BillingCycle.windowStart(month, day)).isEqualTo(month.atDay(1));
+                assertThat(BillingCycle.windowEnd(month, day)).isEqualTo(month.plusMonths(1).atDay(1));
+                assertThat(BillingCycle.settlementDate(month, day)).isEqualTo(month.atEndOfMonth());
+            }
+        }
+    }
+
+    @Test
+    void windowRunsFromCycleDayToDayBeforeNextCycleDay() {
+        YearMonth august = YearMonth.of(2025, 8);
+        assertThat(BillingCycle.windowStart(august, 15)).isEqualTo(LocalDate.of(2025, 8, 15));
+        assertThat(BillingCycle.windowEnd(august, 15)).isEqualTo(LocalDate.of(2025, 9, 15));
+        assertThat(BillingCycle.settlementDate(august, 15)).isEqualTo(LocalDate.of(2025, 9, 14));
+
+        // 2월을 지나는 구간 (윤년 / 평년)
+        assertThat(BillingCycle.settlementDate(YearMonth.of(2025, 1), 28)).isEqualTo(LocalDate.of(2025, 2, 27));
+        assertThat(BillingCycle.windowEnd(YearMonth.of(2024, 2), 28)).isEqualTo(LocalDate.of(2024, 3, 28));
+        // 연도 경계
+        assertThat(BillingCycle.settlementDate(YearMonth.of(2025, 12), 10)).isEqualTo(LocalDate.of(2026, 1, 9));
+    }
+
+    @Test
+    void cohortClosingTodayIsPreviousBillingMonth() {
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2025, 2, 1))).isEqualTo(YearMonth.of(2025, 1));
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2025, 9, 15))).isEqualTo(YearMonth.of(2025, 8));
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2026, 1, 28))).isEqualTo(YearMonth.of(2025, 12));
+
+        // 정산일 다음 날 = 구간이 끝난 날 → 같은 청구월로 돌아옴
+        YearMonth month = YearMonth.of(2025, 8);
+        LocalDate closing = BillingCycle.settlementDate(month, 15).plusDays(1);
+        assertThat(BillingCycle.billingMonthClosingOn(closing)).isEqualTo(month);
+    }
+
+    @Test
+    void days29To31HaveNoCohort() {
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2025, 1, 29))).isNull();
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2025, 1, 30))).isNull();
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2025, 1, 31))).isNull();
+        assertThat(BillingCycle.billingMonthClosingOn(LocalDate.of(2024, 2, 29))).isNull();
+        assertThat(BillingCycle.isCycleDay(0)).isFalse();
+        assertThat(BillingCycle.isCycleDay(28)).isTrue();
+    }
+
+    @Test
+    void parseAcceptsOnly1To28() {
+        assertThat(BillingCycle.parse(null)).isNull();
+        assertThat(BillingCycle.parse(" ")).isNull();
+        assertThat(BillingCycle.parse(" 15 ")).isEqualTo(15);
+        assertThatThrownBy(() -> BillingCycle.parse("29")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BillingCycle.parse("0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BillingCycle.parse("x")).isInstanceOf(NumberFormatException.class);
+    }
+}
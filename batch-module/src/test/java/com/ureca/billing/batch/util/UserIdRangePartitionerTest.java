@@ -0,0 +1,89 @@
+package com.ureca.billing.batch.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * user_id 구간 분할 경계 확인
+ */
+class UserIdRangePartitionerTest {
+
+    @Test
+    void emptyUsersTableYieldsSingleEmptyRange() {
+        Map<String, ExecutionContext> partitions = partitioner(null, null).partition(4);
+
+        assertThat(partitions).hasSize(1);
+        ExecutionContext context = partitions.get("partition0");
+        assertThat(context.getLong(UserIdRangePartitioner.MIN_USER_ID))
+                .isGreaterThan(context.getLong(UserIdRangePartitioner.MAX_USER_ID));
+    }
+
+    @Test
+    void gridLargerThanUsersCreatesOnePartitionPerIdWithoutEmptyRanges() {
+        Map<String, ExecutionContext> partitions = partitioner(1L, 3L).partition(10);
+
+        assertThat(partitions).hasSize(3);
+        assertContiguous(partitions, 1L, 3L);
+    }
+
+    @Test
+    void singleUserAndNonPositiveGrid() {
+        assertContiguous(partitioner(5L, 5L).partition(4), 5L, 5L);
+        assertThat(partitioner(5L, 5L).partition(4)).hasSize(1);
+
+        Map<String, ExecutionContext> partitions = partitioner(1L, 100L).partition(0);
+        assertThat(partitions).hasSize(1);
+        assertContiguous(partitions, 1L, 100L);
+    }
+
+    @Test
+    void rangesCoverMinToMaxWithoutGapsOrOverlap() {
+        for (long max : new long[] {9L, 10L, 12L, 1_000_003L}) {
+            Map<String, ExecutionContext> partitions = partitioner(1L, max).partition(4);
+            assertThat(partitions.size()).isBetween(1, 4);
+            assertContiguous(partitions, 1L, max);
+        }
+    }
+
+    private static void assertContiguous(Map<String, ExecutionContext> partitions, long min, long max) {
+        List<long[]> ranges = new ArrayList<>();
+        for (ExecutionContext context : partitions.values()) {
+            ranges.add(new long[] {
+                    context.getLong(UserIdRangePartitioner.MIN_USER_ID),
+                    context.getLong(UserIdRangePartitioner.MAX_USER_ID)});
+        }
+        ranges.sort(Comparator.comparingLong(r -> r[0]));
+
+        long expectedStart = min;
+        for (long[] range : ranges) {
+            assertThat(range[0]).isEqualTo(expectedStart);
+            assertThat(range[1]).isGreaterThanOrEqualTo(range[0]);
+            expectedStart = range[1] + 1;
+        }
+        assertThat(expectedStart - 1).isEqualTo(max);
+    }
+
+    private static UserIdRangePartitioner partitioner(Long min, Long max) {
+        Map<String, Long> range = new HashMap<>();
+        range.put("min", min);
+        range.put("max", max);
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenReturn(range);
+        return new UserIdRangePartitioner(jdbcTemplate);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ureca.billing.core.catalog;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * ProductCatalog
+ *
+ * [역할]
+ * - PLANS / ADDONS 마스터의 읽기 전용 스냅샷
+ * - plan_id / addon_id → 월정액, 이름, 카테고리 조회
+ *
+ * [설계 포인트]
+ * - id 오름차순 정렬된 primitive 배열 + 이진 탐색 (Map/박싱 객체 없음)
+ * - 청구월(billingMonth)에 고정되며, 한 번 만들어지면 변경되지 않음
+ * - version: 스냅샷 내용(id, 월정액) 기반 해시 → 어떤 요금표로 청구했는지 감사용으로 기록
+ * - priceVersion: 청구월을 제외한 요금표 해시 → 월 사이에 요금이 바뀌었는지 비교용 (증분 청구)
+ */
+@Getter
+public final class ProductCatalog {
+
+    private final YearMonth billingMonth;
+    private final String version;
+    private final String priceVersion;
+    private final LocalDateTime loadedAt;
+
+    private final Entries plans;
+    private final Entries addons;
+
+    ProductCatalog(YearMonth billingMonth, String version, String priceVersion, Entries plans, Entries addons) {
+        this.billingMonth = billingMonth;
+        this.version = version;
+        this.priceVersion = priceVersion;
+        this.loadedAt = LocalDateTime.now();
+        this.plans = plans;
+        this.addons = addons;
+    }
+
+    /* =========================
+     * 요금제
+     * ========================= */
+    public int planFee(long planId) {
+        return plans.fee(plans.require(planId, "plan_id"));
+    }
+
+    public String planName(long planId) {
+        return plans.name(plans.require(planId, "plan_id"));
+    }
+
+    public String planCategory(long planId) {
+        return plans.category(plans.require(planId, "plan_id"));
+    }
+
+    public int planCount() {
+        return plans.size();
+    }
+
+    /* =========================
+     * 부가서비스
+     * ========================= */
+    public int addonFee(long addonId) {
+        return addons.fee(addons.require(addonId, "addon_id"));
+    }
+
+    public String addonName(long addonId) {
+        return addons.name(addons.require(addonId, "addon_id"));
+    }
+
+    public String addonCategory(long addonId) {
+        return addons.category(addons.require(addonId, "addon_id"));
+    }
+
+    public int addonCount() {
+        return addons.size();
+    }
+
+    /**
+     * 마스터 1종(PLANS 또는 ADDONS)의 컬럼 배열
+     * - ids는 오름차순 (ORDER BY id 로 적재)
+     */
+    static final class Entries {
+        private final long[] ids;
+        private final int[] fees;
+        private final String[] names;
+        private final String[] categories;
+
+        Entries(long[] ids, int[] fees, String[] names, String[] categories) {
+            this.ids = ids;
+            this.fees = fees;
+            this.names = names;
+            this.categories = categories;
+        }
+
+        int require(long id, String label) {
+            int idx = Arrays.binarySearch(ids, id);
+            if (idx < 0) {
+                throw new IllegalStateException("카탈로그에 없는 " + label + ": " + id);
+            }
+            return idx;
+        }
+
+        int fee(int idx) {
+            return fees[idx];
+        }
+
+        String name(int idx) {
+            return names[idx];
+        }
+
+        String category(int idx) {
+            return categories[idx];
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+}
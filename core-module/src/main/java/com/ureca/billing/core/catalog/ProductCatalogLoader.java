@@ -0,0 +1,90 @@
+package com.ureca.billing.core.catalog;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.ureca.billing.core.security.crypto.HashUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ProductCatalogLoader
+ *
+ * [역할]
+ * - PLANS / ADDONS 전체를 한 번에 읽어 ProductCatalog 스냅샷 생성
+ *
+ * [주의]
+ * - 비활성(is_active = false) 상품도 포함한다. (기존 가입자는 판매 중단 상품으로도 청구됨)
+ * - 호출할 때마다 DB를 읽으므로, 배치에서는 Job 실행당 1회만 호출해서 재사용한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogLoader {
+
+    // 버전 문자열 길이 (SHA-256 hex 앞부분)
+    private static final int VERSION_LENGTH = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductCatalog load(YearMonth billingMonth) {
+        StringBuilder fingerprint = new StringBuilder();
+
+        ProductCatalog.Entries plans = loadEntries("""
+            SELECT plan_id AS id, plan_name AS name, plan_category AS category, monthly_fee
+            FROM PLANS
+            ORDER BY plan_id
+        """, "P", fingerprint);
+
+        ProductCatalog.Entries addons = loadEntries("""
+            SELECT addon_id AS id, addon_name AS name, addon_category AS category, monthly_fee
+            FROM ADDONS
+            ORDER BY addon_id
+        """, "A", fingerprint);
+
+        String version = HashUtil.sha256(billingMonth + fingerprint.toString())
+                .substring(0, VERSION_LENGTH);
+        String priceVersion = HashUtil.sha256(fingerprint.toString())
+                .substring(0, VERSION_LENGTH);
+
+        log.info("[CATALOG] billingMonth={}, version={}, plans={}, addons={}",
+                billingMonth, version, plans.size(), addons.size());
+
+        return new ProductCatalog(billingMonth, version, priceVersion, plans, addons);
+    }
+
+    private ProductCatalog.Entries loadEntries(String sql, String prefix, StringBuilder fingerprint) {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            rows.add(new Object[]{
+                    rs.getLong("id"),
+                    rs.getInt("monthly_fee"),
+                    rs.getString("name"),
+                    rs.getString("category")
+            });
+        });
+
+        int size = rows.size();
+        long[] ids = new long[size];
+        int[] fees = new int[size];
+        String[] names = new String[size];
+        String[] categories = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            ids[i] = (Long) row[0];
+            fees[i] = (Integer) row[1];
+            names[i] = (String) row[2];
+            categories[i] = (String) row[3];
+            fingerprint.append(prefix).append(ids[i]).append(':').append(fees[i]).append(';');
+        }
+
+        return new ProductCatalog.Entries(ids, fees, names, categories);
+    }
+}
@@ -179,6 +179,7 @@ public class DummyDataJobConfig {
         });
         writer.afterPropertiesSet();
 
+        // 월별 집계(MICRO_PAYMENT_MONTHLY)는 청구 Job이 watermark 이후 결제를 누적 (MicroPaymentRollupService)
         return new StepBuilder("microPaymentsDummyStep", jobRepository)
                 .<Long, MicroPayments>chunk(1000, transactionManager)
                 .reader(reader)
@@ -31,6 +31,8 @@ public class BillingMessageDto implements Serializable {
     private Long planFee;
     private Long addonFee;
     private Long microPaymentFee;
+    private Long deviceFee;            // 단말 할부금
+    private Long arrearsAmount;        // 미납액 이월
 
     // 컨텐츠 정보
     private String planName;
@@ -20,6 +20,12 @@ public class Bill {
     private LocalDate settlementDate;
     private LocalDate billIssueDate;
     private String billingMonth;
+    private Long totalAmount;           // 청구 총액 (BILL_DETAILS 합계, 청구서 생성 시 기록)
+    private Long baseFeeAmount;         // 요금제 소계
+    private Long addonFeeAmount;        // 부가서비스 소계
+    private Long microPaymentAmount;    // 소액결제 소계
+    private Long deviceFeeAmount;       // 단말 할부금 소계
+    private Long arrearsAmount;         // 미납액 이월 소계
     
 	public void setId(Long id) {
 		this.id = id;
@@ -39,4 +45,22 @@ public class Bill {
 	public void setBillingMonth(String billingMonth) {
 		this.billingMonth = billingMonth;
 	}
+	public void setTotalAmount(Long totalAmount) {
+		this.totalAmount = totalAmount;
+	}
+	public void setBaseFeeAmount(Long baseFeeAmount) {
+		this.baseFeeAmount = baseFeeAmount;
+	}
+	public void setAddonFeeAmount(Long addonFeeAmount) {
+		this.addonFeeAmount = addonFeeAmount;
+	}
+	public void setMicroPaymentAmount(Long microPaymentAmount) {
+		this.microPaymentAmount = microPaymentAmount;
+	}
+	public void setDeviceFeeAmount(Long deviceFeeAmount) {
+		this.deviceFeeAmount = deviceFeeAmount;
+	}
+	public void setArrearsAmount(Long arrearsAmount) {
+		this.arrearsAmount = arrearsAmount;
+	}
 }
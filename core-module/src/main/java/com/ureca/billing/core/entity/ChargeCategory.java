@@ -1,5 +1,5 @@
 package com.ureca.billing.core.entity;
 
 public enum ChargeCategory {
-    BASE_FEE, DEVICE_FEE, ADDON_FEE, DISCOUNT, MICRO_PAYMENT
+    BASE_FEE, DEVICE_FEE, ADDON_FEE, DISCOUNT, MICRO_PAYMENT, ARREARS
 }
@@ -5,6 +5,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.UUID;
 
 /**
  * AesUtil
@@ -23,6 +24,12 @@ import java.util.Base64;
  * - 위변조 발생 시 복호화 단계에서 즉시 예외 발생
  * - IV + 암호문(+Auth Tag)을 함께 저장
  * - 결과는 Base64 문자열로 변환하여 DB 저장 가능
+ *
+ * [성능 포인트]
+ * - Cipher / SecureRandom은 스레드별로 1개씩 재사용 (ThreadLocal)
+ *   · Cipher.getInstance(프로바이더 조회)와 SecureRandom 생성/시드 비용을 호출마다 내지 않음
+ *   · 스레드 간 공유하지 않으므로 락 경합 없음
+ * - IV는 여전히 매 호출마다 새로 생성하고, Cipher도 매 호출 init 하므로 보안 특성은 동일
  */
 public class AesUtil {
 
@@ -43,6 +50,22 @@ public class AesUtil {
      */
     private static final int TAG_LENGTH_BIT = 128;
 
+    /**
+     * 스레드별 Cipher (init 할 때마다 모드/키/IV가 다시 설정되므로 재사용 가능)
+     */
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (Exception e) {
+            throw new IllegalStateException("AES-GCM cipher not available", e);
+        }
+    });
+
+    /**
+     * 스레드별 난수 생성기 (IV / 랜덤 UUID)
+     */
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
     /**
      * 유틸 클래스이므로 인스턴스 생성 방지
      */
@@ -64,8 +87,8 @@ public class AesUtil {
             // 2️⃣ GCM 파라미터 설정 (IV + 인증 태그 길이)
             GCMParameterSpec gcmSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
 
-            // 3️⃣ Cipher 생성 및 초기화
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            // 3️⃣ Cipher 초기화 (스레드별 인스턴스 재사용)
+            Cipher cipher = CIPHER.get();
             cipher.init(
                     Cipher.ENCRYPT_MODE,
                     secretKey,
@@ -121,8 +144,8 @@ public class AesUtil {
             // 3️⃣ GCM 파라미터 설정
             GCMParameterSpec gcmSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
 
-            // 4️⃣ Cipher 초기화 (복호화 모드)
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            // 4️⃣ Cipher 초기화 (복호화 모드, 스레드별 인스턴스 재사용)
+            Cipher cipher = CIPHER.get();
             cipher.init(
                     Cipher.DECRYPT_MODE,
                     secretKey,
@@ -142,13 +165,35 @@ public class AesUtil {
     /**
      * 안전한 랜덤 IV 생성
      *
-     * - SecureRandom 사용
+     * - SecureRandom 사용 (스레드별 인스턴스)
      * - GCM 모드에서 IV 재사용은 치명적이므로
      *   매 암호화마다 반드시 새로 생성
      */
     private static byte[] generateIv() {
         byte[] iv = new byte[IV_LENGTH];
-        new SecureRandom().nextBytes(iv);
+        SECURE_RANDOM.get().nextBytes(iv);
         return iv;
     }
+
+    /**
+     * 랜덤 UUID (version 4) 생성
+     *
+     * - UUID.randomUUID()와 같은 암호학적 난수 (122bit)
+     * - 공유 SecureRandom 대신 스레드별 인스턴스 사용 → 병렬 생성 시 락 경합 없음
+     * - 월 / 모듈을 넘어 유일해야 하는 식별자(Outbox event_id 등)용
+     */
+    public static UUID randomUuid() {
+        byte[] bytes = new byte[16];
+        SECURE_RANDOM.get().nextBytes(bytes);
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x40);  // version 4
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80);  // IETF variant
+
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xff);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xff);
+        }
+        return new UUID(msb, lsb);
+    }
 }
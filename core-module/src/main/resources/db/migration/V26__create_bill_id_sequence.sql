@@ -0,0 +1,15 @@
+-- =========================================================
+-- Flyway Migration: V26__create_bill_id_sequence.sql
+-- 설명: 청구 배치용 bill_id 블록 선할당 시퀀스 테이블 생성
+--       (BILLS INSERT 후 bill_id를 다시 조회하지 않기 위함)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE BILL_ID_SEQUENCE (
+    seq_name VARCHAR(50) NOT NULL PRIMARY KEY,
+    next_id BIGINT NOT NULL COMMENT '다음에 할당할 bill_id'
+) ENGINE=InnoDB;
+
+INSERT INTO BILL_ID_SEQUENCE (seq_name, next_id)
+SELECT 'BILLS', COALESCE(MAX(bill_id), 0) + 1
+FROM BILLS;
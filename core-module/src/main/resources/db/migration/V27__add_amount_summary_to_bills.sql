@@ -0,0 +1,28 @@
+-- =========================================================
+-- Flyway Migration: V27__add_amount_summary_to_bills.sql
+-- 설명: BILLS 테이블에 청구 총액/항목별 소계 컬럼 추가 (역정규화)
+--       청구서 조회 시 BILL_DETAILS SUM 집계를 하지 않기 위함
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE BILLS
+ADD COLUMN total_amount BIGINT NOT NULL DEFAULT 0 COMMENT '청구 총액 (BILL_DETAILS 합계)',
+ADD COLUMN base_fee_amount BIGINT NOT NULL DEFAULT 0 COMMENT '요금제(BASE_FEE) 소계',
+ADD COLUMN addon_fee_amount BIGINT NOT NULL DEFAULT 0 COMMENT '부가서비스(ADDON_FEE) 소계',
+ADD COLUMN micro_payment_amount BIGINT NOT NULL DEFAULT 0 COMMENT '소액결제(MICRO_PAYMENT) 소계';
+
+-- 기존 청구서 backfill
+UPDATE BILLS b
+JOIN (
+    SELECT bill_id,
+           SUM(amount) AS total_amount,
+           SUM(CASE WHEN charge_category = 'BASE_FEE' THEN amount ELSE 0 END) AS base_fee_amount,
+           SUM(CASE WHEN charge_category = 'ADDON_FEE' THEN amount ELSE 0 END) AS addon_fee_amount,
+           SUM(CASE WHEN charge_category = 'MICRO_PAYMENT' THEN amount ELSE 0 END) AS micro_payment_amount
+    FROM BILL_DETAILS
+    GROUP BY bill_id
+) d ON d.bill_id = b.bill_id
+SET b.total_amount = d.total_amount,
+    b.base_fee_amount = d.base_fee_amount,
+    b.addon_fee_amount = d.addon_fee_amount,
+    b.micro_payment_amount = d.micro_payment_amount;
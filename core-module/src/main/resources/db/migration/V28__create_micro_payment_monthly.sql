@@ -0,0 +1,37 @@
+-- =========================================================
+-- Flyway Migration: V28__create_micro_payment_monthly.sql
+-- 설명: 소액결제 월별 집계(rollup) 테이블 생성
+--       청구 배치가 MICRO_PAYMENTS 전체 행 대신 사용자/결제유형별 1행만 읽기 위함
+--       - 결제 적재 시 증분 갱신 (payment_count / total_amount 누적)
+--       - 누락/불일치 시 microPaymentRollupJob 으로 월 단위 재생성
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE MICRO_PAYMENT_MONTHLY (
+    user_id BIGINT NOT NULL,
+    billing_month CHAR(7) NOT NULL COMMENT 'YYYY-MM (payment_date 기준)',
+    payment_type ENUM('APP','CONTENT','GAME') NOT NULL,
+
+    payment_count INT NOT NULL DEFAULT 0,
+    total_amount BIGINT NOT NULL DEFAULT 0,
+
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (user_id, billing_month, payment_type),
+
+    CONSTRAINT fk_micro_payment_monthly_user
+        FOREIGN KEY (user_id) REFERENCES USERS(user_id),
+
+    -- 청구 배치: billing_month 조건 + user_id 순 스트리밍
+    INDEX idx_micro_payment_monthly_month_user (billing_month, user_id)
+) ENGINE=InnoDB;
+
+-- 기존 소액결제 backfill
+INSERT INTO MICRO_PAYMENT_MONTHLY (user_id, billing_month, payment_type, payment_count, total_amount)
+SELECT user_id,
+       DATE_FORMAT(payment_date, '%Y-%m'),
+       payment_type,
+       COUNT(*),
+       SUM(amount)
+FROM MICRO_PAYMENTS
+GROUP BY user_id, DATE_FORMAT(payment_date, '%Y-%m'), payment_type;
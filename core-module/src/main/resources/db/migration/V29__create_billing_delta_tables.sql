@@ -0,0 +1,44 @@
+-- =========================================================
+-- Flyway Migration: V29__create_billing_delta_tables.sql
+-- 설명: 증분(delta) 청구 지원
+--       - USER_PLANS / USER_ADDONS 변경 시각(updated_at) 추적
+--       - BILLING_CLOSES: 월별 청구 마감 기록 (다음 달 증분 기준점)
+--       - BILLING_DELTA_USERS: 월별 재계산 대상 사용자 (나머지는 전월 정기 항목 이월)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE USER_PLANS
+ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP AFTER created_at,
+ADD INDEX idx_user_plans_updated_at (updated_at);
+
+ALTER TABLE USER_ADDONS
+ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP AFTER created_at,
+ADD INDEX idx_user_addons_updated_at (updated_at);
+
+-- 기존 행은 생성 시각을 변경 시각으로 사용
+UPDATE USER_PLANS SET updated_at = created_at;
+UPDATE USER_ADDONS SET updated_at = created_at;
+
+-- BILLING_CLOSES: 월별 청구 마감
+CREATE TABLE BILLING_CLOSES (
+    billing_month CHAR(7) NOT NULL PRIMARY KEY COMMENT 'YYYY-MM',
+
+    -- 청구 Job 최초 시작 시각: 이 시각 이후 변경된 가입 정보는 다음 달 재계산 대상
+    source_as_of TIMESTAMP NOT NULL,
+    price_version VARCHAR(16) NOT NULL COMMENT 'ProductCatalog.priceVersion (요금표 변경 감지)',
+    billing_mode ENUM('FULL','DELTA') NOT NULL,
+    bill_count INT NOT NULL,
+    job_execution_id BIGINT NOT NULL,
+
+    closed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- BILLING_DELTA_USERS: 증분 청구 시 전체 재계산 대상
+CREATE TABLE BILLING_DELTA_USERS (
+    billing_month CHAR(7) NOT NULL,
+    user_id BIGINT NOT NULL,
+    reason ENUM('NEW','SUBSCRIPTION','PERIOD') NOT NULL
+        COMMENT 'NEW: 전월 청구서 없음 / SUBSCRIPTION: 가입 정보 변경 / PERIOD: 가입 기간 시작·종료',
+
+    PRIMARY KEY (billing_month, user_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,58 @@
+-- =========================================================
+-- Flyway Migration: V30__create_pre_billing_staging_tables.sql
+-- 설명: 월말 이전 사전 청구(pre-billing) 지원
+--       - BILLS_STAGING / BILL_DETAILS_STAGING: 사전 계산한 임시 청구서 (bill_id 없음)
+--       - PRE_BILLING_SNAPSHOTS: 사전 계산 기준 시각 (이후 변경분만 마감 시 재계산)
+--       - BILLING_DELTA_USERS.reason에 MICRO_PAYMENT(기준 시각 이후 소액결제) 추가
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE BILLS_STAGING (
+    billing_month CHAR(7) NOT NULL COMMENT 'YYYY-MM',
+    user_id BIGINT NOT NULL,
+
+    total_amount BIGINT NOT NULL DEFAULT 0,
+    base_fee_amount BIGINT NOT NULL DEFAULT 0,
+    addon_fee_amount BIGINT NOT NULL DEFAULT 0,
+    micro_payment_amount BIGINT NOT NULL DEFAULT 0,
+
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (billing_month, user_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE BILL_DETAILS_STAGING (
+    staging_detail_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    billing_month CHAR(7) NOT NULL,
+    user_id BIGINT NOT NULL,
+
+    detail_type VARCHAR(50) NOT NULL,
+    charge_category ENUM(
+        'BASE_FEE',
+        'DEVICE_FEE',
+        'ADDON_FEE',
+        'DISCOUNT',
+        'MICRO_PAYMENT'
+    ) NOT NULL,
+    amount INT NOT NULL,
+    related_user_id BIGINT NULL,
+
+    -- 마감 시 user_id 구간 단위 승격(promote)
+    INDEX idx_bill_details_staging_month_user (billing_month, user_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE PRE_BILLING_SNAPSHOTS (
+    billing_month CHAR(7) NOT NULL PRIMARY KEY COMMENT 'YYYY-MM',
+
+    -- 사전 청구 Job 최초 시작 시각: 이후 변경된 사용자는 마감 시 재계산
+    source_as_of TIMESTAMP NOT NULL,
+    price_version VARCHAR(16) NOT NULL,
+    staged_users INT NOT NULL,
+    job_execution_id BIGINT NOT NULL,
+
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+ALTER TABLE BILLING_DELTA_USERS
+MODIFY COLUMN reason ENUM('NEW','SUBSCRIPTION','PERIOD','MICRO_PAYMENT') NOT NULL
+    COMMENT 'NEW: 기준 청구서 없음 / SUBSCRIPTION: 가입 정보 변경 / PERIOD: 가입 기간 시작·종료 / MICRO_PAYMENT: 사전 청구 이후 소액결제';
@@ -0,0 +1,14 @@
+-- =========================================================
+-- Flyway Migration: V31__add_billing_cycle_day_to_users.sql
+-- 설명: 사용자별 청구 기준일(billing cycle day) 추가
+--       - 청구월 M의 청구 구간 = [M-d, (M+1)-d), 구간이 끝나는 날 해당 cohort만 청구
+--       - 기본값 1 = 달력 월 (기존 청구와 동일)
+--       - 기준일 분산(예: MOD(user_id, 28) + 1)은 청구 주기 전환 월에 운영 작업으로 수행
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE USERS
+ADD COLUMN billing_cycle_day TINYINT NOT NULL DEFAULT 1 COMMENT '청구 기준일 (1 ~ 28)',
+ADD CONSTRAINT chk_users_billing_cycle_day CHECK (billing_cycle_day BETWEEN 1 AND 28),
+-- 일별 cohort 청구: 기준일 조건 + user_id 순 스트리밍
+ADD INDEX idx_users_cycle_day_user (billing_cycle_day, user_id);
@@ -0,0 +1,115 @@
+-- =========================================================
+-- Flyway Migration: V32__partition_billing_tables_by_month.sql
+-- 설명: BILLS / BILL_DETAILS / OUTBOX_EVENTS 청구월(billing_month) RANGE 파티셔닝
+--       - 월 단위 조회/배치(WHERE billing_month = ?)가 파티션 1개만 읽도록 (partition pruning)
+--       - 지난 달은 행 DELETE 대신 EXCHANGE PARTITION으로 분리/보관 (BillingPartitionService)
+--
+--       MySQL 파티션 제약
+--       - 파티션 테이블은 FK를 가질 수도, 참조될 수도 없음
+--         → BILLS를 참조하던 FK(BILL_DETAILS, BILL_ARREARS, OUTBOX_EVENTS, NOTIFICATIONS)와
+--           파티션 테이블의 FK를 제거 (FK가 만든 인덱스는 일반 인덱스로 남음)
+--         → BILL_DETAILS / BILL_ARREARS / OUTBOX_EVENTS는 청구 배치만 쓰므로 참조 무결성은 배치가 보장
+--         → NOTIFICATIONS는 notification-module이 쓰는 테이블 (fk_notifications_bill 제거)
+--           · bill_id가 존재하는 청구서인지 DB가 더 이상 검사하지 않음
+--           · bill_id는 Outbox 메시지(= 배치가 만든 청구서)에서만 오므로 배치가 간접 보장
+--           · 지난 달 파티션을 분리(EXCHANGE PARTITION)하면 NOTIFICATIONS.bill_id가 BILLS에 없는 청구서를 가리킬 수 있음
+--             (조회 시 BILLS와 LEFT JOIN 필요, 알림 이력은 삭제하지 않음)
+--       - 모든 PK / UNIQUE KEY에 billing_month 포함
+--         → bill_id 단독 유일성은 DB가 검사하지 않음
+--           · 이 시점 bill_id는 AUTO_INCREMENT + BILL_ID_SEQUENCE 선할당 블록
+--           · V36에서 AUTO_INCREMENT 제거 → 선할당 블록에만 의존
+--           · V39 BILL_ID_REGISTRY(비파티션, PK bill_id)로 새 청구서 INSERT 시 유일성 검사
+--         → detail_id / outbox_id는 AUTO_INCREMENT라 단독으로도 유일
+--         → uk_outbox_bill_type은 bill_id가 월을 결정하므로 의미 변화 없음
+--         → event_id(UUID)는 월 내에서만 DB 유일성 검사
+--       - 기존 월은 p_old, 현재 월(2026-10)만 미리 생성
+--         → 이후 월은 청구 Job 시작 시 p_max에서 분할 (BillingPartitionService.ensurePartition)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+/* =========================
+ * 1️⃣ FK 제거
+ * ========================= */
+ALTER TABLE BILL_DETAILS
+DROP FOREIGN KEY fk_bill_details_bill,
+DROP FOREIGN KEY fk_bill_details_related_user;
+
+ALTER TABLE BILL_ARREARS
+DROP FOREIGN KEY fk_arrears_bill;
+
+ALTER TABLE OUTBOX_EVENTS
+DROP FOREIGN KEY fk_outbox_bill,
+DROP FOREIGN KEY fk_outbox_user;
+
+ALTER TABLE NOTIFICATIONS
+DROP FOREIGN KEY fk_notifications_bill;
+
+ALTER TABLE BILLS
+DROP FOREIGN KEY fk_bills_user;
+
+/* =========================
+ * 2️⃣ BILL_DETAILS / OUTBOX_EVENTS 청구월 컬럼 추가 + backfill
+ * ========================= */
+ALTER TABLE BILL_DETAILS
+ADD COLUMN billing_month CHAR(7) NOT NULL DEFAULT '' COMMENT 'YYYY-MM (BILLS.billing_month)' AFTER bill_id;
+
+UPDATE BILL_DETAILS bd
+JOIN BILLS b ON b.bill_id = bd.bill_id
+SET bd.billing_month = b.billing_month;
+
+ALTER TABLE BILL_DETAILS
+ALTER COLUMN billing_month DROP DEFAULT;
+
+ALTER TABLE OUTBOX_EVENTS
+ADD COLUMN billing_month CHAR(7) NOT NULL DEFAULT '' COMMENT 'YYYY-MM (BILLS.billing_month)' AFTER user_id;
+
+UPDATE OUTBOX_EVENTS o
+JOIN BILLS b ON b.bill_id = o.bill_id
+SET o.billing_month = b.billing_month;
+
+ALTER TABLE OUTBOX_EVENTS
+ALTER COLUMN billing_month DROP DEFAULT;
+
+/* =========================
+ * 3️⃣ PK / UNIQUE KEY에 billing_month 포함
+ * ========================= */
+ALTER TABLE BILLS
+DROP PRIMARY KEY,
+ADD PRIMARY KEY (bill_id, billing_month);
+
+ALTER TABLE BILL_DETAILS
+DROP PRIMARY KEY,
+ADD PRIMARY KEY (detail_id, billing_month);
+
+ALTER TABLE OUTBOX_EVENTS
+DROP PRIMARY KEY,
+ADD PRIMARY KEY (outbox_id, billing_month),
+DROP INDEX uk_outbox_event_id,
+ADD UNIQUE KEY uk_outbox_event_id (event_id, billing_month),
+DROP INDEX uk_outbox_bill_type,
+ADD UNIQUE KEY uk_outbox_bill_type (bill_id, notification_type, event_type, billing_month);
+
+/* =========================
+ * 4️⃣ 청구월 RANGE 파티셔닝
+ * - 파티션 이름: pYYYYMM (해당 월 1개), p_old(2026-10 이전), p_max(미생성 월)
+ * ========================= */
+ALTER TABLE BILLS
+PARTITION BY RANGE COLUMNS (billing_month) (
+    PARTITION p_old VALUES LESS THAN ('2026-10'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
+
+ALTER TABLE BILL_DETAILS
+PARTITION BY RANGE COLUMNS (billing_month) (
+    PARTITION p_old VALUES LESS THAN ('2026-10'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
+
+ALTER TABLE OUTBOX_EVENTS
+PARTITION BY RANGE COLUMNS (billing_month) (
+    PARTITION p_old VALUES LESS THAN ('2026-10'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,46 @@
+-- =========================================================
+-- Flyway Migration: V33__add_installment_and_arrears_billing.sql
+-- 설명: 단말 할부금 / 미납액을 청구 배치에서 함께 청구
+--       - DEVICE_INSTALLMENTS.last_billed_month: 마지막으로 할부금을 청구한 월
+--         (같은 월 재실행/재시작 시 remaining_months를 두 번 차감하지 않기 위함)
+--       - BILL_DETAILS / BILL_DETAILS_STAGING.charge_category에 ARREARS(미납액 이월) 추가
+--       - BILLS에 단말 할부금 / 미납액 소계 컬럼 추가
+--       - BILLING_DELTA_USERS.reason에 INSTALLMENT / ARREARS 추가
+--         (할부/미납이 있는 사용자는 매월 금액이 달라지므로 증분 청구에서도 항상 재계산)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE DEVICE_INSTALLMENTS
+ADD COLUMN last_billed_month CHAR(7) NULL COMMENT '마지막 할부금 청구월 (YYYY-MM)' AFTER remaining_months;
+
+ALTER TABLE BILL_DETAILS
+MODIFY COLUMN charge_category ENUM(
+    'BASE_FEE',
+    'DEVICE_FEE',
+    'ADDON_FEE',
+    'DISCOUNT',
+    'MICRO_PAYMENT',
+    'ARREARS'
+) NOT NULL;
+
+ALTER TABLE BILL_DETAILS_STAGING
+MODIFY COLUMN charge_category ENUM(
+    'BASE_FEE',
+    'DEVICE_FEE',
+    'ADDON_FEE',
+    'DISCOUNT',
+    'MICRO_PAYMENT',
+    'ARREARS'
+) NOT NULL;
+
+ALTER TABLE BILLS
+ADD COLUMN device_fee_amount BIGINT NOT NULL DEFAULT 0 COMMENT '단말 할부금(DEVICE_FEE) 소계' AFTER addon_fee_amount,
+ADD COLUMN arrears_amount BIGINT NOT NULL DEFAULT 0 COMMENT '미납액 이월(ARREARS) 소계' AFTER micro_payment_amount;
+
+ALTER TABLE BILLING_DELTA_USERS
+MODIFY COLUMN reason ENUM('NEW','SUBSCRIPTION','PERIOD','MICRO_PAYMENT','INSTALLMENT','ARREARS') NOT NULL
+    COMMENT 'NEW: 기준 청구서 없음 / SUBSCRIPTION: 가입 정보 변경 / PERIOD: 가입 기간 시작·종료 / MICRO_PAYMENT: 사전 청구 이후 소액결제 / INSTALLMENT: 단말 할부 / ARREARS: 미납액';
+
+-- 청구 Reader: 미납(UNPAID / PARTIAL) 사용자를 user_id 순으로 스트리밍
+ALTER TABLE BILL_ARREARS
+ADD INDEX idx_arrears_status_user (arrears_status, user_id, due_date);
@@ -0,0 +1,42 @@
+-- =========================================================
+-- Flyway Migration: V34__create_outbox_events_archive.sql
+-- 설명: 발행 완료(PUBLISHED) Outbox 이벤트 보관 테이블 + 정리 대상 조회 인덱스
+--       - OUTBOX_EVENTS에는 READY / IN_PROGRESS / FAILED와 최근 발행분만 남기고
+--         보존 기간이 지난 PUBLISHED 행은 OutboxCompactionService가 청크 단위로 옮긴 뒤 삭제
+--       - 보관 테이블은 선점/재시도용 컬럼(status, next_retry_at, claim_token 등)을 두지 않고
+--         payload(LONGTEXT)가 대부분이므로 압축 행 포맷 사용
+--       - 이미 알림을 보낸 청구서 판단은 OUTBOX_EVENTS + OUTBOX_EVENTS_ARCHIVE 둘 다 확인
+--         (보존 기간이 지난 월을 재실행해도 알림을 다시 만들지 않도록)
+--       - 청구월 파티션 분리(BillingPartitionService.archive)와는 별개
+--         (월 분리 시점에 OUTBOX_EVENTS에 남아 있던 행만 OUTBOX_EVENTS_ARCHIVE_YYYYMM으로 이동)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE `OUTBOX_EVENTS_ARCHIVE` (
+                                         `outbox_id`         BIGINT NOT NULL,
+                                         `billing_month`     CHAR(7) NOT NULL COMMENT 'YYYY-MM (BILLS.billing_month)',
+                                         `event_id`          CHAR(36) NOT NULL COMMENT 'UUID',
+                                         `bill_id`           BIGINT NOT NULL,
+                                         `user_id`           BIGINT NOT NULL,
+
+                                         `event_type`        VARCHAR(100) NOT NULL,
+                                         `notification_type` ENUM('EMAIL','SMS','PUSH') COLLATE utf8mb4_unicode_ci NOT NULL,
+
+                                         `payload`           LONGTEXT NOT NULL,
+
+                                         `attempt_count`     INT NOT NULL DEFAULT 0,
+                                         `published_at`      TIMESTAMP NULL DEFAULT NULL,
+                                         `created_at`        TIMESTAMP NOT NULL,
+                                         `archived_at`       TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                         PRIMARY KEY (`outbox_id`, `billing_month`),
+    -- 재실행 중복 방지: 라이브 테이블 uk_outbox_bill_type과 같은 키 (청구서/채널당 1건)
+    --   청구 배치는 OUTBOX_EVENTS + 이 테이블 둘 다 확인 후 이벤트를 만든다. (bill_id 선두 → 청구서 단위 조회)
+                                         UNIQUE KEY `uk_outbox_archive_bill_type` (`bill_id`, `notification_type`, `event_type`, `billing_month`),
+                                         KEY `idx_outbox_archive_month` (`billing_month`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- 정리 대상 조회: status = 'PUBLISHED' AND published_at < ? (파티션별 인덱스 범위 스캔)
+ALTER TABLE OUTBOX_EVENTS
+ADD KEY `idx_outbox_published` (`status`, `published_at`);
@@ -0,0 +1,20 @@
+-- =========================================================
+-- Flyway Migration: V35__track_carried_arrears.sql
+-- 설명: 미납액(BILL_ARREARS) 이월 기록
+--       - carried_bill_id / carried_month: 이 미납 건을 청구서에 이월한 청구서 / 청구월
+--       - 청구 배치는 아직 이월하지 않은 건(carried_month IS NULL)과
+--         같은 월 재실행분(carried_month = 청구월)만 읽는다.
+--         → 미납 건이 납부 전까지 매월 다시 청구되어 누적되지 않음
+--         → 이월된 청구서가 다시 미납되면 그 청구서의 미납 건으로 새로 기록된다.
+--       - DEVICE_INSTALLMENTS.last_billed_month(V33)와 같은 방식 (같은 월 재실행/재시작에도 한 번만 이월)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE BILL_ARREARS
+ADD COLUMN carried_bill_id BIGINT NULL COMMENT '이월된 청구서 bill_id' AFTER bill_id,
+ADD COLUMN carried_month CHAR(7) NULL COMMENT '이월된 청구월 (YYYY-MM)' AFTER carried_bill_id;
+
+-- 청구 Reader: 미납 + 미이월 건을 user_id 순으로 스트리밍 (idx_arrears_status_user 대체)
+ALTER TABLE BILL_ARREARS
+DROP INDEX idx_arrears_status_user,
+ADD INDEX idx_arrears_status_user (arrears_status, user_id, carried_month, due_date);
@@ -0,0 +1,12 @@
+-- =========================================================
+-- Flyway Migration: V36__drop_bills_auto_increment.sql
+-- 설명: BILLS.bill_id AUTO_INCREMENT 제거
+--       - 청구 배치의 모든 경로(청구 / 이월 / 승격)는 BILL_ID_SEQUENCE(BillIdAllocator) 선할당 블록에서 bill_id를 받는다.
+--       - AUTO_INCREMENT가 남아 있으면 bill_id 없는 INSERT가 선할당된(아직 쓰지 않은) 블록 안의 값을 가져갈 수 있음
+--         → 이후 배치 INSERT가 같은 bill_id로 충돌
+--       - bill_id 없이 INSERT하면 이제 오류 (시퀀스를 거치지 않는 경로 차단)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+ALTER TABLE BILLS
+MODIFY COLUMN bill_id BIGINT NOT NULL;
@@ -0,0 +1,21 @@
+-- =========================================================
+-- Flyway Migration: V37__create_partition_archive_log.sql
+-- 설명: 청구월 파티션 분리(BillingPartitionService.archive) 진행 기록
+--       - 테이블마다 EXCHANGE / DROP 단계가 끝날 때 기록 → 중간 실패 후 재실행 시 남은 단계만 수행
+--       - status
+--         EXCHANGED : 파티션 행을 보관 테이블로 옮김 (빈 파티션 DROP 전)
+--         DROPPED   : 빈 파티션까지 DROP (해당 테이블 분리 완료)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE `BILLING_PARTITION_ARCHIVE_LOG` (
+                                                 `billing_month` CHAR(7) NOT NULL COMMENT 'YYYY-MM',
+                                                 `table_name`    VARCHAR(64) NOT NULL COMMENT '분리 대상 (BILLS / BILL_DETAILS / OUTBOX_EVENTS)',
+                                                 `archive_table` VARCHAR(64) NOT NULL COMMENT '{TABLE}_ARCHIVE_YYYYMM',
+                                                 `status`        ENUM('EXCHANGED','DROPPED') NOT NULL,
+                                                 `row_count`     BIGINT NOT NULL DEFAULT 0 COMMENT '보관 테이블 행 수',
+                                                 `created_at`    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                                 `updated_at`    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+                                                 PRIMARY KEY (`billing_month`, `table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,21 @@
+-- =========================================================
+-- Flyway Migration: V38__create_micro_payment_rollup_watermark.sql
+-- 설명: 소액결제 월별 집계(MICRO_PAYMENT_MONTHLY) 증분 반영 위치(watermark)
+--       - 집계에 반영한 마지막 MICRO_PAYMENTS.payment_id를 기록
+--       - 청구 Job 첫 Step(MicroPaymentRollupService.catchUp)이 이 값 이후 결제만 PK 범위로 읽어 누적
+--         → 결제 적재 경로가 집계를 직접 갱신하지 않아도 되고, 매 실행마다 월 전체를 다시 세지 않음
+--       - V28의 "결제 적재 시 증분 갱신"(더미 데이터 Writer)은 이 방식으로 대체 (이중 누적 방지)
+--       - 초기값: 현재 MAX(payment_id) (V28 backfill + 기존 증분 갱신분까지 반영된 것으로 봄)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE MICRO_PAYMENT_ROLLUP_WATERMARK (
+    id TINYINT NOT NULL COMMENT '단일 행 (1)',
+    last_payment_id BIGINT NOT NULL DEFAULT 0 COMMENT '집계에 반영한 마지막 MICRO_PAYMENTS.payment_id',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+INSERT INTO MICRO_PAYMENT_ROLLUP_WATERMARK (id, last_payment_id)
+SELECT 1, COALESCE(MAX(payment_id), 0) FROM MICRO_PAYMENTS;
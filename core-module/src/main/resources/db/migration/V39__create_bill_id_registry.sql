@@ -0,0 +1,23 @@
+-- =========================================================
+-- Flyway Migration: V39__create_bill_id_registry.sql
+-- 설명: bill_id 단독 유일성 보장용 비파티션 테이블
+--       - V32 이후 BILLS PK는 (bill_id, billing_month) → 같은 bill_id가 다른 월에 들어가도 DB가 막지 못함
+--       - V36에서 AUTO_INCREMENT도 제거 → bill_id 유일성은 BILL_ID_SEQUENCE 선할당에만 의존
+--       - 새 청구서를 INSERT하는 경로(청구 Writer / 증분 이월 / 사전 청구 승격)가 같은 트랜잭션에서
+--         이 테이블에도 INSERT → 다른 월과 bill_id가 겹치면 중복 키 오류로 트랜잭션 실패
+--       - 지난 달 파티션을 분리(EXCHANGE PARTITION)해도 행을 지우지 않음 (보관된 bill_id 재사용 방지)
+--       - 기존 청구서는 backfill (이미 겹친 bill_id가 있으면 첫 청구월만 기록)
+-- 작성일: 2026-10-17
+-- =========================================================
+
+CREATE TABLE BILL_ID_REGISTRY (
+    bill_id BIGINT NOT NULL,
+    billing_month CHAR(7) NOT NULL COMMENT 'YYYY-MM (BILLS.billing_month)',
+
+    PRIMARY KEY (bill_id)
+) ENGINE=InnoDB;
+
+INSERT INTO BILL_ID_REGISTRY (bill_id, billing_month)
+SELECT bill_id, MIN(billing_month)
+FROM BILLS
+GROUP BY bill_id;
@@ -0,0 +1,62 @@
+package com.ureca.billing.core.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 카탈로그 조회 / 없는 id 처리 확인
+ */
+class ProductCatalogTest {
+
+    private final ProductCatalog catalog = new ProductCatalog(YearMonth.of(2025, 1), "v1", "p1",
+            new ProductCatalog.Entries(
+                    new long[] {1L, 5L, 9L},
+                    new int[] {55000, 69000, 89000},
+                    new String[] {"5G 슬림", "5G 스탠다드", "5G 프리미엄"},
+                    new String[] {"5G", "5G", "5G"}),
+            new ProductCatalog.Entries(
+                    new long[] {100L},
+                    new int[] {3300},
+                    new String[] {"컬러링"},
+                    new String[] {"부가"}));
+
+    @Test
+    void findsEntriesById() {
+        assertThat(catalog.planFee(1L)).isEqualTo(55000);
+        assertThat(catalog.planFee(9L)).isEqualTo(89000);
+        assertThat(catalog.planName(5L)).isEqualTo("5G 스탠다드");
+        assertThat(catalog.addonFee(100L)).isEqualTo(3300);
+        assertThat(catalog.addonCategory(100L)).isEqualTo("부가");
+        assertThat(catalog.planCount()).isEqualTo(3);
+        assertThat(catalog.addonCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownIdFailsInsteadOfChargingZero() {
+        // 사이 값 / 범위 밖 값 모두 이진 탐색 삽입 위치가 아니라 예외
+        assertThatThrownBy(() -> catalog.planFee(4L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("plan_id")
+                .hasMessageContaining("4");
+        assertThatThrownBy(() -> catalog.planFee(0L)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> catalog.planName(10L)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> catalog.addonFee(101L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("addon_id");
+    }
+
+    @Test
+    void emptyCatalogRejectsEveryId() {
+        ProductCatalog empty = new ProductCatalog(YearMonth.of(2025, 1), "v0", "p0",
+                new ProductCatalog.Entries(new long[0], new int[0], new String[0], new String[0]),
+                new ProductCatalog.Entries(new long[0], new int[0], new String[0], new String[0]));
+
+        assertThat(empty.planCount()).isZero();
+        assertThatThrownBy(() -> empty.planFee(1L)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> empty.addonName(1L)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -49,6 +49,9 @@ public class KafkaConsumerConfig {
         // Offset 관리
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);  // 수동 커밋
+        // batch-module Outbox 릴레이 exactly-once 모드: abort된 트랜잭션 메시지는 읽지 않음
+        // (비트랜잭션 프로듀서 메시지는 그대로 읽히므로 기본 모드에서도 영향 없음)
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         
         // Deserializer 설정
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
@@ -180,13 +180,10 @@ public class DataController {
             SELECT b.bill_id, b.user_id, b.billing_month,
                    b.settlement_date, b.bill_issue_date,
                    u.name as user_name,
-                   COALESCE(SUM(bd.amount), 0) as total_amount
+                   b.total_amount
             FROM BILLS b
             LEFT JOIN USERS u ON b.user_id = u.user_id
-            LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
             """ + (billingMonth != null ? " WHERE b.billing_month = ? " : "") + """
-            GROUP BY b.bill_id, b.user_id, b.billing_month, 
-                     b.settlement_date, b.bill_issue_date, u.name
             ORDER BY b.created_at DESC
             LIMIT ? OFFSET ?
             """;
@@ -212,6 +209,8 @@ public class DataController {
         String billSql = """
             SELECT b.bill_id, b.user_id, b.billing_month,
                    b.settlement_date, b.bill_issue_date, b.created_at,
+                   b.total_amount, b.base_fee_amount, b.addon_fee_amount, b.micro_payment_amount,
+                   b.device_fee_amount, b.arrears_amount,
                    u.name as user_name, u.email_cipher, u.phone_cipher
             FROM BILLS b
             LEFT JOIN USERS u ON b.user_id = u.user_id
@@ -238,19 +237,15 @@ public class DataController {
         String detailSql = """
             SELECT detail_id, detail_type, charge_category, amount
             FROM BILL_DETAILS
-            WHERE bill_id = ?
+            WHERE billing_month = ?
+              AND bill_id = ?
             ORDER BY detail_id
             """;
         
-        List<Map<String, Object>> details = jdbcTemplate.queryForList(detailSql, billId);
+        // 청구월 파티션만 조회
+        List<Map<String, Object>> details = jdbcTemplate.queryForList(detailSql, bill.get("billing_month"), billId);
         bill.put("details", details);
         
-        // 총액 계산
-        Integer totalAmount = details.stream()
-            .mapToInt(d -> ((Number) d.get("amount")).intValue())
-            .sum();
-        bill.put("total_amount", totalAmount);
-        
         // 알림 발송 이력
         String notificationSql = """
             SELECT notification_id, notification_type, notification_status,
@@ -272,13 +267,12 @@ public class DataController {
     public ResponseEntity<Map<String, Object>> getUserBills(@PathVariable Long userId) {
         String sql = """
             SELECT b.bill_id, b.billing_month, b.settlement_date,
-                   COALESCE(SUM(bd.amount), 0) as total_amount,
+                   b.total_amount,
                    COUNT(n.notification_id) as notification_count
             FROM BILLS b
-            LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
             LEFT JOIN NOTIFICATIONS n ON b.bill_id = n.bill_id
             WHERE b.user_id = ?
-            GROUP BY b.bill_id, b.billing_month, b.settlement_date
+            GROUP BY b.bill_id, b.billing_month, b.settlement_date, b.total_amount
             ORDER BY b.billing_month DESC
             """;
         
@@ -337,11 +331,9 @@ public class DataController {
         String sql = """
             SELECT b.bill_id, b.user_id, b.billing_month,
                    u.name as user_name,
-                   COALESCE(SUM(bd.amount), 0) as total_amount
+                   b.total_amount
             FROM BILLS b
             LEFT JOIN USERS u ON b.user_id = u.user_id
-            LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
-            GROUP BY b.bill_id, b.user_id, b.billing_month, u.name
             ORDER BY b.created_at DESC
             LIMIT 5
             """;
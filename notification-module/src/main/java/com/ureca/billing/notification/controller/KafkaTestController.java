@@ -274,14 +274,10 @@ public class KafkaTestController {
                 SELECT b.bill_id, b.user_id, b.billing_month,
                        b.settlement_date, b.bill_issue_date,
                        u.name, u.email_cipher, u.phone_cipher,
-                       COALESCE(SUM(bd.amount), 0) as total_amount
+                       b.total_amount
                 FROM BILLS b
                 LEFT JOIN USERS u ON b.user_id = u.user_id
-                LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
                 WHERE b.bill_id = ?
-                GROUP BY b.bill_id, b.user_id, b.billing_month,
-                         b.settlement_date, b.bill_issue_date,
-                         u.name, u.email_cipher, u.phone_cipher
                 """;
             
             List<Map<String, Object>> result = jdbcTemplate.queryForList(billSql, billId);
@@ -355,12 +351,9 @@ public class KafkaTestController {
         try {
             // 1. 유저의 청구서 목록 조회
             String sql = """
-                SELECT b.bill_id, b.billing_month,
-                       COALESCE(SUM(bd.amount), 0) as total_amount
+                SELECT b.bill_id, b.billing_month, b.total_amount
                 FROM BILLS b
-                LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
                 WHERE b.user_id = ?
-                GROUP BY b.bill_id, b.billing_month
                 ORDER BY b.billing_month DESC
                 """;
             
@@ -435,13 +428,10 @@ public class KafkaTestController {
             String sql = """
                 SELECT b.bill_id, b.user_id, b.billing_month,
                        u.name, u.email_cipher, u.phone_cipher,
-                       COALESCE(SUM(bd.amount), 0) as total_amount
+                       b.total_amount
                 FROM BILLS b
                 LEFT JOIN USERS u ON b.user_id = u.user_id
-                LEFT JOIN BILL_DETAILS bd ON b.bill_id = bd.bill_id
                 WHERE b.billing_month = ?
-                GROUP BY b.bill_id, b.user_id, b.billing_month,
-                         u.name, u.email_cipher, u.phone_cipher
                 LIMIT ?
                 """;
             
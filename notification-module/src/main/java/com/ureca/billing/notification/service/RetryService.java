@@ -228,15 +228,10 @@ public class RetryService {
 
     private Map<String, Object> getBillInfo(Long billId) {
         try {
-            Long totalAmount = jdbcTemplate.queryForObject(
-                    "SELECT COALESCE(SUM(amount), 0) FROM bill_details WHERE bill_id = ?",
-                    Long.class,
-                    billId
-            );
-
+            // 총액은 bills.total_amount (청구서 생성 시 기록) 사용
             Map<String, Object> billData = jdbcTemplate.queryForMap(
                     """
-                    SELECT billing_month, 
+                    SELECT billing_month, total_amount,
                            DATE_FORMAT(bill_issue_date, '%Y-%m-%d') as bill_date,
                            DATE_FORMAT(DATE_ADD(bill_issue_date, INTERVAL 15 DAY), '%Y-%m-%d') as due_date
                     FROM bills 
@@ -246,7 +241,7 @@ public class RetryService {
             );
 
             return Map.of(
-                    "totalAmount", totalAmount != null ? totalAmount : 0L,
+                    "totalAmount", billData.get("total_amount") != null ? ((Number) billData.get("total_amount")).longValue() : 0L,
                     "billingMonth", billData.get("billing_month") != null ? billData.get("billing_month").toString() : "N/A",
                     "billDate", billData.get("bill_date") != null ? billData.get("bill_date").toString() : "N/A",
                     "dueDate", billData.get("due_date") != null ? billData.get("due_date").toString() : "N/A"